@@ -0,0 +1,425 @@
+package net.simpleframework.ado;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import net.simpleframework.ado.query.IDataQuery;
+import net.simpleframework.ado.query.ListDataQuery;
+import net.simpleframework.common.BeanUtils;
+import net.simpleframework.common.BeanUtils.PropertyAccessor;
+import net.simpleframework.common.Convert;
+import net.simpleframework.common.ID;
+import net.simpleframework.common.object.ObjectUtils;
+import net.simpleframework.lib.org.mvel2.util.ParseTools;
+
+/**
+ * Licensed under the Apache License, Version 2.0
+ *
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public class FilterPredicate<T> implements Predicate<T> {
+
+	/**
+	 * 把FilterItems编译成可重用的条件树。括号及and/or按sql的优先级处理，即and优先于or
+	 *
+	 * @param items
+	 * @param beanClass
+	 *        bean的类型，Map时按键取值
+	 * @return
+	 */
+	public static <T> FilterPredicate<T> compile(final FilterItems items,
+			final Class<T> beanClass) {
+		final Parser parser = new Parser(items, beanClass);
+		final Node root = parser.parse();
+		return new FilterPredicate<>(root != null ? root : Node.TRUE);
+	}
+
+	private final Node root;
+
+	private FilterPredicate(final Node root) {
+		this.root = root;
+	}
+
+	@Override
+	public boolean test(final T bean) {
+		return root.test(bean);
+	}
+
+	public List<T> filter(final Iterable<T> beans) {
+		final List<T> list = new ArrayList<>();
+		if (beans != null) {
+			for (final T bean : beans) {
+				if (root.test(bean)) {
+					list.add(bean);
+				}
+			}
+		}
+		return list;
+	}
+
+	public IDataQuery<T> filter(final IDataQuery<T> dq) {
+		final List<T> list = new ArrayList<>();
+		if (dq != null) {
+			try {
+				T bean;
+				while ((bean = dq.next()) != null) {
+					if (root.test(bean)) {
+						list.add(bean);
+					}
+				}
+			} finally {
+				dq.close();
+			}
+		}
+		return new ListDataQuery<>(list);
+	}
+
+	/* 递归下降解析：or := and (or and)*; and := factor (and factor)*; factor := ( or ) | item */
+	private static class Parser {
+		private final List<FilterItem> items;
+
+		private final Class<?> beanClass;
+
+		private int pos;
+
+		/* 括号的嵌套层数 */
+		private int depth;
+
+		/* 当前位置的左括号已被消费 */
+		private boolean lconsumed;
+
+		/* 上一个item之后有右括号，尚未被外层消费 */
+		private boolean rpending;
+
+		Parser(final List<FilterItem> items, final Class<?> beanClass) {
+			this.items = items != null ? items : new ArrayList<FilterItem>();
+			this.beanClass = beanClass;
+		}
+
+		Node parse() {
+			Node node = parseOr();
+			// 多余的右括号忽略，继续按后面item的ope连接
+			while (node != null && pos < items.size()) {
+				rpending = false;
+				final boolean or = items.get(pos).getOpe() == EFilterOpe.or;
+				final Node right = or ? parseOr() : parseAnd();
+				if (right == null) {
+					break;
+				}
+				node = or ? Node.or(node, right) : Node.and(node, right);
+			}
+			return node;
+		}
+
+		private boolean closed() {
+			return rpending && depth > 0;
+		}
+
+		Node parseOr() {
+			Node node = parseAnd();
+			while (node != null && !closed() && pos < items.size()
+					&& items.get(pos).getOpe() == EFilterOpe.or) {
+				final Node right = parseAnd();
+				if (right == null) {
+					break;
+				}
+				node = Node.or(node, right);
+			}
+			return node;
+		}
+
+		Node parseAnd() {
+			Node node = parseFactor();
+			while (node != null && !closed() && pos < items.size()
+					&& items.get(pos).getOpe() == EFilterOpe.and) {
+				final Node right = parseFactor();
+				if (right == null) {
+					break;
+				}
+				node = Node.and(node, right);
+			}
+			return node;
+		}
+
+		Node parseFactor() {
+			if (pos >= items.size()) {
+				return null;
+			}
+			final FilterItem item = items.get(pos);
+			if (item.isLbracket() && !lconsumed) {
+				lconsumed = true;
+				depth++;
+				final Node node = parseOr();
+				depth--;
+				// 消费对应的右括号，缺少时到末尾结束
+				rpending = false;
+				return node;
+			}
+			lconsumed = false;
+			pos++;
+			rpending = item.isRbracket();
+			return compile(item, beanClass);
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	static Node compile(final FilterItem item, final Class<?> beanClass) {
+		final String column = item.getColumn();
+		final EFilterRelation r = item.getRelation();
+		final Getter getter;
+		Class<?> type;
+		if (beanClass == null || Map.class.isAssignableFrom(beanClass)) {
+			getter = new Getter() {
+				@Override
+				Object get(final Object bean) {
+					return BeanUtils.getProperty(bean, column);
+				}
+			};
+			type = null;
+		} else {
+			final PropertyAccessor accessor = BeanUtils.getPropertyAccessor(beanClass, column);
+			if (accessor == null) {
+				getter = new Getter() {
+					@Override
+					Object get(final Object bean) {
+						return null;
+					}
+				};
+				type = null;
+			} else {
+				getter = new Getter() {
+					@Override
+					Object get(final Object bean) {
+						return accessor.get(bean);
+					}
+				};
+				type = accessor.getType();
+			}
+		}
+
+		if (r == EFilterRelation.isNull) {
+			return new Node() {
+				@Override
+				boolean test(final Object bean) {
+					return getter.get(bean) == null;
+				}
+			};
+		} else if (r == EFilterRelation.isNotNull) {
+			return new Node() {
+				@Override
+				boolean test(final Object bean) {
+					return getter.get(bean) != null;
+				}
+			};
+		}
+
+		final Object value = item.getValue();
+		if (type != null && type.isPrimitive()) {
+			type = ParseTools.boxPrimitive(type);
+		}
+		if (type == null) {
+			type = value != null ? value.getClass() : Object.class;
+		}
+
+		if (r == EFilterRelation.like) {
+			if (value == null) {
+				return Node.FALSE;
+			}
+			final LikePattern like = new LikePattern(Convert.toString(value));
+			return new Node() {
+				@Override
+				boolean test(final Object bean) {
+					final Object v = getter.get(bean);
+					return v != null && like.matches(Convert.toString(v));
+				}
+			};
+		}
+
+		// 条件值按属性类型转换一次
+		Object v2 = value;
+		if (v2 != null && !type.isInstance(v2)) {
+			Object o = null;
+			if (Enum.class.isAssignableFrom(type)) {
+				o = Convert.toEnum((Class<Enum>) type, v2);
+			} else if (ID.class.isAssignableFrom(type)) {
+				o = ID.of(v2);
+			} else if (Number.class.isAssignableFrom(type) || Date.class.isAssignableFrom(type)
+					|| type == Boolean.class || type == String.class) {
+				o = Convert.convert(v2, type);
+			}
+			if (o != null) {
+				v2 = o;
+			}
+		}
+
+		if (r == EFilterRelation.equal || r == EFilterRelation.not_equal) {
+			final Object _v2 = v2;
+			final boolean equal = r == EFilterRelation.equal;
+			final boolean isEnum = Enum.class.isAssignableFrom(type);
+			final Class<?> _type = type;
+			return new Node() {
+				@Override
+				boolean test(final Object bean) {
+					Object v = getter.get(bean);
+					if (isEnum && v != null && !_type.isInstance(v)) {
+						v = Convert.toEnum((Class<Enum>) _type, v);
+					}
+					return ObjectUtils.objectEquals(v, _v2) == equal;
+				}
+			};
+		}
+
+		// gt, gt_equal, lt, lt_equal
+		final int[] accept = r == EFilterRelation.gt ? new int[] { 1 }
+				: r == EFilterRelation.gt_equal ? new int[] { 0, 1 }
+						: r == EFilterRelation.lt ? new int[] { -1 } : new int[] { -1, 0 };
+		final boolean lt = accept[0] < 0, eq = accept.length > 1;
+		if (Number.class.isAssignableFrom(type)) {
+			final boolean integral = type == Integer.class || type == Long.class
+					|| type == Short.class || type == Byte.class;
+			if (integral && (v2 instanceof Integer || v2 instanceof Long || v2 instanceof Short
+					|| v2 instanceof Byte)) {
+				final long l2 = ((Number) v2).longValue();
+				return new Node() {
+					@Override
+					boolean test(final Object bean) {
+						final Object v = getter.get(bean);
+						if (!(v instanceof Number)) {
+							return false;
+						}
+						final long l = ((Number) v).longValue();
+						return l == l2 ? eq : (l < l2) == lt;
+					}
+				};
+			}
+			final double d2 = Convert.toDouble(v2, Double.MIN_VALUE);
+			return new Node() {
+				@Override
+				boolean test(final Object bean) {
+					final Object v = getter.get(bean);
+					final double d = v instanceof Number ? ((Number) v).doubleValue() : Convert
+							.toDouble(v, Double.MIN_VALUE);
+					return d == d2 ? eq : (d < d2) == lt;
+				}
+			};
+		} else if (Date.class.isAssignableFrom(type)) {
+			if (!(v2 instanceof Date)) {
+				return Node.FALSE;
+			}
+			final long t2 = ((Date) v2).getTime();
+			return new Node() {
+				@Override
+				boolean test(final Object bean) {
+					final Object v = getter.get(bean);
+					if (!(v instanceof Date)) {
+						return false;
+					}
+					final long t = ((Date) v).getTime();
+					return t == t2 ? eq : (t < t2) == lt;
+				}
+			};
+		} else if (v2 instanceof Comparable) {
+			final Comparable c2 = (Comparable) v2;
+			final Class<?> c2Class = v2.getClass();
+			return new Node() {
+				@Override
+				boolean test(final Object bean) {
+					final Object v = getter.get(bean);
+					if (v == null || v.getClass() != c2Class) {
+						return false;
+					}
+					final int c = ((Comparable) v).compareTo(c2);
+					return c == 0 ? eq : (c < 0) == lt;
+				}
+			};
+		}
+		return Node.FALSE;
+	}
+
+	static abstract class Getter {
+		abstract Object get(Object bean);
+	}
+
+	static abstract class Node {
+		abstract boolean test(Object bean);
+
+		static final Node TRUE = new Node() {
+			@Override
+			boolean test(final Object bean) {
+				return true;
+			}
+		};
+
+		static final Node FALSE = new Node() {
+			@Override
+			boolean test(final Object bean) {
+				return false;
+			}
+		};
+
+		static Node and(final Node left, final Node right) {
+			return new Node() {
+				@Override
+				boolean test(final Object bean) {
+					return left.test(bean) && right.test(bean);
+				}
+			};
+		}
+
+		static Node or(final Node left, final Node right) {
+			return new Node() {
+				@Override
+				boolean test(final Object bean) {
+					return left.test(bean) || right.test(bean);
+				}
+			};
+		}
+	}
+
+	/**
+	 * like的匹配，与sql相同：%匹配任意个字符，_匹配一个字符。不含%时按包含匹配，与FilterSQL.toLike一致
+	 */
+	static class LikePattern {
+		private final String pattern;
+
+		LikePattern(final String pattern) {
+			this.pattern = pattern.indexOf('%') > -1 ? pattern : "%" + pattern + "%";
+		}
+
+		boolean matches(final String str) {
+			final String p = pattern;
+			final int plen = p.length(), slen = str.length();
+			int i = 0, j = 0;
+			// 最近一个%的位置，及其匹配到的str位置，失配时回溯
+			int star = -1, mark = 0;
+			while (i < slen) {
+				if (j < plen) {
+					final char c = p.charAt(j);
+					if (c == '%') {
+						star = j++;
+						mark = i;
+						continue;
+					}
+					if (c == '_' || c == str.charAt(i)) {
+						i++;
+						j++;
+						continue;
+					}
+				}
+				if (star < 0) {
+					return false;
+				}
+				j = star + 1;
+				i = ++mark;
+			}
+			while (j < plen && p.charAt(j) == '%') {
+				j++;
+			}
+			return j == plen;
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package net.simpleframework.ado;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.simpleframework.common.Convert;
+import net.simpleframework.common.ID;
+
+/**
+ * Licensed under the Apache License, Version 2.0
+ *
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public class FilterSQL {
+
+	/**
+	 * 把FilterItems转换成带?参数的sql条件。sql按条件的形状（列名、关系、括号、and/or及值是否为null）缓存，
+	 * 形状相同的查询只需重新取值。值为null时，等于和不等于转为is null和is not null，其它关系的条件不成立
+	 *
+	 * @param items
+	 * @return
+	 */
+	public static FilterSQL of(final List<FilterItem> items) {
+		final int size = items != null ? items.size() : 0;
+		final Shape shape = new Shape(size);
+		final Object[] values = new Object[size];
+		int j = 0;
+		for (int i = 0; i < size; i++) {
+			final FilterItem item = items.get(i);
+			final EFilterRelation r = item.getRelation();
+			final Object value = item.getValue();
+			final boolean isNull = value == null;
+			shape.columns[i] = item.getColumn();
+			shape.codes[i] = r.ordinal() | (item.getOpe() == EFilterOpe.or ? OR : 0)
+					| (item.isLbracket() ? LBRACKET : 0) | (item.isRbracket() ? RBRACKET : 0)
+					| (isNull ? NULL : 0);
+			if (!isNull && r != EFilterRelation.isNull && r != EFilterRelation.isNotNull) {
+				values[j++] = r == EFilterRelation.like ? toLike(value) : toParam(value);
+			}
+		}
+		String sql = cache.get(shape);
+		if (sql == null) {
+			misses.incrementAndGet();
+			sql = toSQL(shape);
+			if (cache.size() >= MAX_CACHE) {
+				// 形状的数量通常有限，超出时说明有拼接的列名，整体清除
+				cache.clear();
+			}
+			cache.put(shape, sql);
+		} else {
+			hits.incrementAndGet();
+		}
+		return new FilterSQL(sql, j == size ? values : Arrays.copyOf(values, j));
+	}
+
+	private final String sql;
+
+	private final Object[] values;
+
+	private FilterSQL(final String sql, final Object[] values) {
+		this.sql = sql;
+		this.values = values;
+	}
+
+	/**
+	 * @return 不含where的条件语句，无条件时返回空串
+	 */
+	public String getSql() {
+		return sql;
+	}
+
+	/**
+	 * @return 与sql中?对应的参数值
+	 */
+	public Object[] getValues() {
+		return values;
+	}
+
+	@Override
+	public String toString() {
+		return sql + " " + Arrays.toString(values);
+	}
+
+	static Object toParam(final Object value) {
+		if (value instanceof ID) {
+			return ((ID) value).getValue();
+		} else if (value instanceof Enum) {
+			return ((Enum<?>) value).ordinal();
+		}
+		return value;
+	}
+
+	/* 不含%时按包含匹配，与FilterPredicate一致 */
+	static String toLike(final Object value) {
+		final String s = Convert.toString(toParam(value));
+		return s.indexOf('%') > -1 ? s : "%" + s + "%";
+	}
+
+	static String toSQL(final Shape shape) {
+		final StringBuilder sb = new StringBuilder(shape.columns.length * 24);
+		for (int i = 0; i < shape.columns.length; i++) {
+			final int code = shape.codes[i];
+			if (i > 0) {
+				sb.append((code & OR) != 0 ? " or " : " and ");
+			}
+			if ((code & LBRACKET) != 0) {
+				sb.append("(");
+			}
+			final EFilterRelation r = RELATIONS[code & RELATION_MASK];
+			final boolean isNull = (code & NULL) != 0;
+			if (r == EFilterRelation.isNull || (isNull && r == EFilterRelation.equal)) {
+				sb.append(shape.columns[i]).append(" is null");
+			} else if (r == EFilterRelation.isNotNull
+					|| (isNull && r == EFilterRelation.not_equal)) {
+				sb.append(shape.columns[i]).append(" is not null");
+			} else if (isNull) {
+				// 与null比较大小或like时条件不成立，同FilterItem.FALSE，与FilterPredicate一致
+				sb.append("1 = 2");
+			} else {
+				sb.append(shape.columns[i]).append(" ").append(r).append(" ?");
+			}
+			if ((code & RBRACKET) != 0) {
+				sb.append(")");
+			}
+		}
+		return sb.toString();
+	}
+
+	static final EFilterRelation[] RELATIONS = EFilterRelation.values();
+
+	static final int RELATION_MASK = 0xff, OR = 1 << 8, LBRACKET = 1 << 9, RBRACKET = 1 << 10,
+			NULL = 1 << 11;
+
+	static final int MAX_CACHE = 4096;
+
+	private static final Map<Shape, String> cache = new ConcurrentHashMap<>();
+
+	private static final AtomicLong hits = new AtomicLong(), misses = new AtomicLong();
+
+	public static long getCacheHits() {
+		return hits.get();
+	}
+
+	public static long getCacheMisses() {
+		return misses.get();
+	}
+
+	public static int getCacheSize() {
+		return cache.size();
+	}
+
+	static class Shape {
+		final String[] columns;
+
+		final int[] codes;
+
+		private int hash;
+
+		Shape(final int size) {
+			columns = new String[size];
+			codes = new int[size];
+		}
+
+		@Override
+		public int hashCode() {
+			int h = hash;
+			if (h == 0) {
+				h = 31 * Arrays.hashCode(columns) + Arrays.hashCode(codes);
+				hash = h;
+			}
+			return h;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (obj == this) {
+				return true;
+			}
+			if (!(obj instanceof Shape)) {
+				return false;
+			}
+			final Shape s = (Shape) obj;
+			return Arrays.equals(codes, s.codes) && Arrays.equals(columns, s.columns);
+		}
+	}
+}
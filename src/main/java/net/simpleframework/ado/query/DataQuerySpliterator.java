@@ -0,0 +1,99 @@
+package net.simpleframework.ado.query;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Licensed under the Apache License, Version 2.0
+ * 
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public class DataQuerySpliterator<T> implements Spliterator<T> {
+	static final int DEFAULT_BATCH = 1024;
+
+	static final int MAX_BATCH = 1 << 16;
+
+	private final IDataQuery<T> dataQuery;
+
+	/* 拆分的批量，fetchSize为0时从DEFAULT_BATCH开始递增 */
+	private int batch;
+
+	private boolean end;
+
+	public DataQuerySpliterator(final IDataQuery<T> dataQuery) {
+		this.dataQuery = dataQuery;
+	}
+
+	public IDataQuery<T> getDataQuery() {
+		return dataQuery;
+	}
+
+	@Override
+	public boolean tryAdvance(final Consumer<? super T> action) {
+		if (end) {
+			return false;
+		}
+		final T t = dataQuery.next();
+		if (t == null) {
+			end = true;
+			return false;
+		}
+		action.accept(t);
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(final Consumer<? super T> action) {
+		if (end) {
+			return;
+		}
+		T t;
+		while ((t = dataQuery.next()) != null) {
+			action.accept(t);
+		}
+		end = true;
+	}
+
+	/**
+	 * 按fetchSize读取一批数据，交给其它线程处理
+	 */
+	@Override
+	public Spliterator<T> trySplit() {
+		if (end) {
+			return null;
+		}
+		final int fetchSize = dataQuery.getFetchSize();
+		int n;
+		if (fetchSize > 0) {
+			n = fetchSize;
+		} else {
+			n = batch = batch == 0 ? DEFAULT_BATCH : Math.min(batch + DEFAULT_BATCH, MAX_BATCH);
+		}
+		final Object[] arr = new Object[n];
+		int j = 0;
+		T t;
+		while (j < n && (t = dataQuery.next()) != null) {
+			arr[j++] = t;
+		}
+		if (j < n) {
+			end = true;
+		}
+		if (j == 0) {
+			return null;
+		}
+		return Spliterators.spliterator(arr, 0, j, characteristics());
+	}
+
+	@Override
+	public long estimateSize() {
+		// getCount可能需要查询数据源，这里不调用
+		return end ? 0 : Long.MAX_VALUE;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL;
+	}
+}
@@ -8,6 +8,9 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import net.simpleframework.ado.bean.ITreeBeanAware;
 import net.simpleframework.common.ID;
@@ -52,6 +55,48 @@ public abstract class DataQueryUtils {
 		return new DataQueryIterator<>(dataQuery);
 	}
 
+	public static <T> Stream<T> toStream(final IDataQuery<T> dataQuery) {
+		return toStream(dataQuery, false);
+	}
+
+	/**
+	 * 转换成Stream，并行时按fetchSize分批交给fork/join处理。关闭Stream时关闭dataQuery
+	 * 
+	 * @param dataQuery
+	 * @param parallel
+	 * @return
+	 */
+	public static <T> Stream<T> toStream(final IDataQuery<T> dataQuery, final boolean parallel) {
+		if (dataQuery == null) {
+			return Stream.empty();
+		}
+		return StreamSupport.stream(new DataQuerySpliterator<>(dataQuery), parallel).onClose(
+				new Runnable() {
+					@Override
+					public void run() {
+						dataQuery.close();
+					}
+				});
+	}
+
+	/**
+	 * 在后台线程中预读下一批数据，使读取与处理重叠
+	 * 
+	 * @param dataQuery
+	 * @return
+	 */
+	public static <T> IDataQuery<T> prefetch(final IDataQuery<T> dataQuery) {
+		return prefetch(dataQuery, null);
+	}
+
+	public static <T> IDataQuery<T> prefetch(final IDataQuery<T> dataQuery,
+			final Executor executor) {
+		if (dataQuery == null) {
+			return nullQuery();
+		}
+		return new PrefetchDataQuery<>(dataQuery, executor, 2);
+	}
+
 	public static <T> Map<ID, Collection<T>> toTreeMap(final IDataQuery<T> dq) {
 		dq.setFetchSize(0);
 		final Map<ID, Collection<T>> _map = new HashMap<>();
@@ -0,0 +1,113 @@
+package net.simpleframework.ado.query;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+import net.simpleframework.common.th.ParserException;
+import net.simpleframework.lib.net.minidev.json.parser.JSONTokenizer;
+import net.simpleframework.lib.net.minidev.json.parser.ParseException;
+
+/**
+ * Licensed under the Apache License, Version 2.0
+ *
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public class JsonDataQuery<T> extends AbstractDataQuery<T> {
+
+	private JSONTokenizer tokenizer;
+
+	private final String path;
+
+	private final Class<T> beanClass;
+
+	private boolean started;
+
+	public JsonDataQuery(final InputStream in, final Class<T> beanClass) {
+		this(new JSONTokenizer(in), "$", beanClass);
+	}
+
+	public JsonDataQuery(final Reader in, final Class<T> beanClass) {
+		this(new JSONTokenizer(in), "$", beanClass);
+	}
+
+	/**
+	 * 逐个读取json数组的元素，读取过的元素不保留，适合导入大文件
+	 *
+	 * @param tokenizer
+	 * @param path
+	 *        数组的路径，如$.rows，顶层数组为$
+	 * @param beanClass
+	 *        元素的类型
+	 */
+	public JsonDataQuery(final JSONTokenizer tokenizer, final String path,
+			final Class<T> beanClass) {
+		this.tokenizer = tokenizer;
+		this.path = path + "[*]";
+		this.beanClass = beanClass;
+	}
+
+	@Override
+	public T next() {
+		if (tokenizer == null) {
+			return null;
+		}
+		started = true;
+		try {
+			while (tokenizer.nextValue(path)) {
+				final T t = tokenizer.readValue(beanClass);
+				// null表示没有数据，数组中的null跳过
+				if (t != null) {
+					i++;
+					return t;
+				}
+			}
+		} catch (final ParseException e) {
+			close();
+			throw ParserException.of(e);
+		}
+		count = i + 1;
+		close();
+		return null;
+	}
+
+	@Override
+	public int getCount() {
+		return count;
+	}
+
+	@Override
+	public int getFetchSize() {
+		return 0;
+	}
+
+	@Override
+	public IDataQuery<T> setFetchSize(final int fetchSize) {
+		return this;
+	}
+
+	@Override
+	public void move(final int toIndex) {
+		if (toIndex >= i) {
+			// 向前移动时读取并丢弃
+			while (i < toIndex && next() != null) {
+			}
+		} else if (started) {
+			throw new UnsupportedOperationException();
+		} else {
+			super.move(toIndex);
+		}
+	}
+
+	@Override
+	public void close() {
+		if (tokenizer != null) {
+			try {
+				tokenizer.close();
+			} catch (final IOException e) {
+			}
+			tokenizer = null;
+		}
+	}
+}
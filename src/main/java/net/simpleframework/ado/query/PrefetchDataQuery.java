@@ -0,0 +1,213 @@
+package net.simpleframework.ado.query;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Licensed under the Apache License, Version 2.0
+ * 
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public class PrefetchDataQuery<T> extends AbstractDataQuery<T> {
+	static final int DEFAULT_BATCH = 256;
+
+	private static final Object[] END = new Object[0];
+
+	private final IDataQuery<T> dataQuery;
+
+	private final Executor executor;
+
+	private final BlockingQueue<Object[]> queue;
+
+	/* 当前正在消费的批 */
+	private Object[] current;
+
+	private int ci;
+
+	private boolean started, finished;
+
+	private volatile boolean closed, producerDone;
+
+	private volatile Throwable error;
+
+	private final AtomicBoolean dqClosed = new AtomicBoolean();
+
+	public PrefetchDataQuery(final IDataQuery<T> dataQuery) {
+		this(dataQuery, null, 2);
+	}
+
+	/**
+	 * @param dataQuery
+	 * @param executor
+	 *        读取数据的执行器，为null时使用新的后台线程
+	 * @param depth
+	 *        预读的批数，每批为fetchSize个
+	 */
+	public PrefetchDataQuery(final IDataQuery<T> dataQuery, final Executor executor,
+			final int depth) {
+		this.dataQuery = dataQuery;
+		this.executor = executor;
+		this.queue = new ArrayBlockingQueue<>(Math.max(depth, 1) + 1);
+	}
+
+	public IDataQuery<T> getDataQuery() {
+		return dataQuery;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T next() {
+		if (!started) {
+			start();
+		}
+		while (true) {
+			if (current != null && ci < current.length) {
+				i++;
+				return (T) current[ci++];
+			}
+			if (finished) {
+				return null;
+			}
+			try {
+				current = queue.take();
+				ci = 0;
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				close();
+				return null;
+			}
+			if (current == END) {
+				finished = true;
+				current = null;
+				final Throwable th = error;
+				if (th instanceof RuntimeException) {
+					throw (RuntimeException) th;
+				} else if (th instanceof Error) {
+					throw (Error) th;
+				} else if (th != null) {
+					throw new RuntimeException(th);
+				}
+			}
+		}
+	}
+
+	private void start() {
+		started = true;
+		final Runnable producer = new Runnable() {
+			@Override
+			public void run() {
+				try {
+					final int fetchSize = dataQuery.getFetchSize();
+					final int n = fetchSize > 0 ? fetchSize : DEFAULT_BATCH;
+					boolean more = true;
+					while (more && !closed) {
+						Object[] batch = new Object[n];
+						int j = 0;
+						T t;
+						while (j < n && (t = dataQuery.next()) != null) {
+							batch[j++] = t;
+						}
+						if (j < n) {
+							more = false;
+							if (j == 0) {
+								break;
+							}
+							final Object[] batch2 = new Object[j];
+							System.arraycopy(batch, 0, batch2, 0, j);
+							batch = batch2;
+						}
+						offer(batch);
+					}
+				} catch (final Throwable th) {
+					error = th;
+				} finally {
+					offer(END);
+					producerDone = true;
+					if (closed) {
+						closeDataQuery();
+					}
+				}
+			}
+		};
+		if (executor != null) {
+			executor.execute(producer);
+		} else {
+			final Thread thread = new Thread(producer, "PrefetchDataQuery");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	/* 队列满时等待消费，关闭后放弃 */
+	private void offer(final Object[] batch) {
+		try {
+			while (!closed && !queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+			}
+		} catch (final InterruptedException e) {
+			closed = true;
+		}
+	}
+
+	@Override
+	public int getCount() {
+		return dataQuery.getCount();
+	}
+
+	@Override
+	public int getFetchSize() {
+		return dataQuery.getFetchSize();
+	}
+
+	@Override
+	public IDataQuery<T> setFetchSize(final int fetchSize) {
+		dataQuery.setFetchSize(fetchSize);
+		return this;
+	}
+
+	@Override
+	public void move(final int toIndex) {
+		if (started) {
+			throw new UnsupportedOperationException();
+		}
+		super.move(toIndex);
+		if (dataQuery != null) {
+			dataQuery.move(toIndex);
+		}
+	}
+
+	@Override
+	public void reset() {
+		if (started) {
+			throw new UnsupportedOperationException();
+		}
+		super.reset();
+		if (dataQuery != null) {
+			dataQuery.reset();
+		}
+	}
+
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		finished = true;
+		current = null;
+		queue.clear();
+		// 读取线程运行中时，由读取线程关闭
+		if (!started || producerDone) {
+			closeDataQuery();
+		}
+	}
+
+	private void closeDataQuery() {
+		if (dqClosed.compareAndSet(false, true)) {
+			dataQuery.close();
+		}
+	}
+}
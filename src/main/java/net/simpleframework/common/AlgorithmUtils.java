@@ -2,6 +2,8 @@ package net.simpleframework.common;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 import cn.hutool.crypto.digest.DigestAlgorithm;
 import cn.hutool.crypto.digest.Digester;
@@ -80,6 +82,25 @@ public abstract class AlgorithmUtils {
 		return sha1Hex(message.getBytes());
 	}
 
+	/**
+	 * 分段计算摘要时使用，如边读取边计算
+	 * 
+	 * @param algorithm
+	 *        MD5、SHA-1等
+	 * @return
+	 */
+	public static MessageDigest getDigest(final String algorithm) {
+		try {
+			return MessageDigest.getInstance(algorithm);
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+
+	public static String digestHex(final MessageDigest digest) {
+		return Hex.encode(digest.digest(), false);
+	}
+
 	public static String encryptPass(final String password) {
 		return md5Hex(password == null ? "" : password.trim());
 	}
@@ -6,8 +6,14 @@ import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -19,6 +25,8 @@ import net.simpleframework.common.object.ObjectFactory;
 import net.simpleframework.common.th.ClassException;
 import net.simpleframework.lib.net.sf.cglib.beans.BeanMap;
 import net.simpleframework.lib.net.sf.cglib.beans.BeanMap.Generator;
+import net.simpleframework.lib.net.sf.cglib.reflect.FastClass;
+import net.simpleframework.lib.org.mvel2.util.ParseTools;
 
 /**
  * Licensed under the Apache License, Version 2.0
@@ -56,8 +64,20 @@ public abstract class BeanUtils {
 			throw ClassException.of(e);
 		}
 
+		// fastClass，按索引调用getter/setter
+		try {
+			final FastClass.Generator fgen = new FastClass.Generator();
+			fgen.setType(beanClass);
+			wrapper.fastClass = fgen.create();
+		} catch (final Throwable e) {
+			// 非public类等无法生成，退回到beanMap
+			log.debug(e);
+		}
+
 		final Set<String> keys = wrapper.beanMap.keySet();
 		wrapper.properties = new HashMap<>();
+		wrapper.lproperties = new HashMap<>();
+		final List<PropertyWrapper> plist = new ArrayList<>();
 		for (final PropertyDescriptor pd : arr) {
 			final String name = pd.getName();
 			if (!keys.contains(name)) {
@@ -91,8 +111,24 @@ public abstract class BeanUtils {
 				}
 			}
 
+			property.converter = createConverter(property.type);
+			if (wrapper.fastClass != null) {
+				if (property.getter != null) {
+					property.getterIndex = wrapper.fastClass.getIndex(property.getter.getName(),
+							property.getter.getParameterTypes());
+				}
+				final Method setter = property.setter != null ? property.setter : property.setter2;
+				if (setter != null) {
+					property.setterIndex = wrapper.fastClass.getIndex(setter.getName(),
+							setter.getParameterTypes());
+				}
+			}
+
 			wrapper.properties.put(name, property);
+			wrapper.lproperties.put(name.toLowerCase(ENGLISH), property);
+			plist.add(property);
 		}
+		wrapper.plist = plist.toArray(new PropertyWrapper[plist.size()]);
 
 		wrapperCache.put(beanClass, wrapper);
 		return wrapper;
@@ -102,6 +138,45 @@ public abstract class BeanUtils {
 		return new HashMap(getBeanWrapper(beanClass).properties);
 	}
 
+	/**
+	 * 获取绑定到某一属性的访问器，重复读写同一属性时不再按名称查找。属性名先精确匹配，再忽略大小写匹配
+	 * 
+	 * @param beanClass
+	 * @param name
+	 * @return 不存在时返回null
+	 */
+	public static PropertyAccessor getPropertyAccessor(final Class<?> beanClass, final String name) {
+		final BeanWrapper wrapper = getBeanWrapper(beanClass);
+		PropertyWrapper pw = wrapper.properties.get(name);
+		if (pw == null) {
+			pw = wrapper.lproperties.get(name.toLowerCase(ENGLISH));
+		}
+		return pw != null ? new PropertyAccessor(wrapper, pw) : null;
+	}
+
+	/**
+	 * 获取所有可读写属性的访问器，按属性名排序
+	 * 
+	 * @param beanClass
+	 * @return
+	 */
+	public static PropertyAccessor[] getPropertyAccessors(final Class<?> beanClass) {
+		final BeanWrapper wrapper = getBeanWrapper(beanClass);
+		final List<PropertyAccessor> list = new ArrayList<>();
+		for (final PropertyWrapper pw : wrapper.plist) {
+			if (pw.getter != null && (pw.setter != null || pw.setter2 != null)) {
+				list.add(new PropertyAccessor(wrapper, pw));
+			}
+		}
+		Collections.sort(list, new Comparator<PropertyAccessor>() {
+			@Override
+			public int compare(final PropertyAccessor o1, final PropertyAccessor o2) {
+				return o1.getName().compareTo(o2.getName());
+			}
+		});
+		return list.toArray(new PropertyAccessor[list.size()]);
+	}
+
 	public static boolean hasProperty(final Object bean, final String name) {
 		if (bean instanceof Map) {
 			return ((Map) bean).containsKey(name);
@@ -181,6 +256,45 @@ public abstract class BeanUtils {
 		return t;
 	}
 
+	/**
+	 * 按列名把一行数据直接设置到bean中，不创建中间的Map。列名先精确匹配，再忽略大小写匹配
+	 * 
+	 * @param tClass
+	 * @param row
+	 * @param columns
+	 * @return
+	 */
+	public static <T> T toBean(final Class<T> tClass, final Object[] row, final String[] columns) {
+		final T t = ObjectFactory.newInstance(tClass);
+		getBeanWrapper(tClass).copy(row, columns, t);
+		return t;
+	}
+
+	/**
+	 * 把bean的属性值（非null）复制到另一个bean中，两者可以不是同一类型
+	 * 
+	 * @param bean
+	 * @param dest
+	 */
+	public static void copyInto(final Object bean, final Object dest) {
+		if (bean == null || dest == null) {
+			return;
+		}
+		if (bean instanceof Map) {
+			setProperties(dest, (Map<String, Object>) bean);
+			return;
+		}
+		final Class<?> tClass = bean.getClass();
+		final BeanWrapper wrapper = getBeanWrapper(tClass);
+		if (dest instanceof Map) {
+			wrapper.copy(bean, (Map<String, Object>) dest);
+		} else if (tClass.equals(dest.getClass())) {
+			wrapper.clone(bean, dest);
+		} else {
+			wrapper.copy(bean, getBeanWrapper(dest.getClass()), dest);
+		}
+	}
+
 	public static <T> T clone(final T t) {
 		final Class<?> tClass = t.getClass();
 		final T o = (T) ObjectFactory.newInstance(tClass);
@@ -192,13 +306,52 @@ public abstract class BeanUtils {
 		return "set" + key.substring(0, 1).toUpperCase(ENGLISH) + key.substring(1);
 	}
 
-	private static Object convert(final Object value, final Class<?> parameterType) {
-		if (ID.class.isAssignableFrom(parameterType)) {
-			return ID.of(value);
-		} else if (Version.class.isAssignableFrom(parameterType)) {
-			return Version.getVersion(String.valueOf(value));
+	/**
+	 * 根据属性的声明类型，在创建BeanWrapper时确定转换器
+	 * 
+	 * @param type
+	 * @return
+	 */
+	private static ValueConverter createConverter(final Class<?> type) {
+		if (ID.class.isAssignableFrom(type)) {
+			return new ValueConverter(type) {
+				@Override
+				Object convert(final Object value) {
+					return ID.of(value);
+				}
+			};
+		} else if (Version.class.isAssignableFrom(type)) {
+			return new ValueConverter(type) {
+				@Override
+				Object convert(final Object value) {
+					return boxType.isInstance(value) ? value
+							: Version.getVersion(String.valueOf(value));
+				}
+			};
+		} else if (Enum.class.isAssignableFrom(type)) {
+			return new ValueConverter(type) {
+				@Override
+				Object convert(final Object value) {
+					return boxType.isInstance(value) ? value : Convert.toEnum((Class<Enum>) type, value);
+				}
+			};
+		}
+		return new ValueConverter(type) {
+			@Override
+			Object convert(final Object value) {
+				return boxType.isInstance(value) ? value : Convert.convert(value, type);
+			}
+		};
+	}
+
+	private static abstract class ValueConverter {
+		final Class<?> boxType;
+
+		ValueConverter(final Class<?> type) {
+			boxType = type.isPrimitive() ? ParseTools.boxPrimitive(type) : type;
 		}
-		return Convert.convert(value, parameterType);
+
+		abstract Object convert(Object value);
 	}
 
 	public static class PropertyWrapper {
@@ -207,13 +360,59 @@ public abstract class BeanUtils {
 		public Method getter, setter;
 		public Method setter2;
 		public Class<?> type;
+
+		int getterIndex = -1, setterIndex = -1;
+
+		ValueConverter converter;
+	}
+
+	public static class PropertyAccessor {
+		private final BeanWrapper wrapper;
+
+		private final PropertyWrapper property;
+
+		PropertyAccessor(final BeanWrapper wrapper, final PropertyWrapper property) {
+			this.wrapper = wrapper;
+			this.property = property;
+		}
+
+		public String getName() {
+			return property.name;
+		}
+
+		public Class<?> getType() {
+			return property.type;
+		}
+
+		public Object get(final Object bean) {
+			return wrapper.get(bean, property);
+		}
+
+		public void set(final Object bean, final Object value) {
+			wrapper.set(bean, property, value);
+		}
 	}
 
 	private static class BeanWrapper {
+		static final Object[] NO_ARGS = new Object[0];
+
 		Map<String, PropertyWrapper> properties;
 
+		/* 小写属性名，列名匹配时使用 */
+		Map<String, PropertyWrapper> lproperties;
+
+		PropertyWrapper[] plist;
+
 		BeanMap beanMap;
 
+		FastClass fastClass;
+
+		/* 最近一次列名的解析结果，按列名的内容复用 */
+		volatile ColumnsBinding binding;
+
+		/* 列名 -> 解析结果，多个调用者交替使用不同的列时不必重新解析 */
+		final Map<List<String>, ColumnsBinding> bindings = new ConcurrentHashMap<>();
+
 		boolean containsKey(final String key) {
 			return properties.containsKey(key);
 		}
@@ -226,21 +425,36 @@ public abstract class BeanUtils {
 		void set(final Object bean, final String key, final Object val) {
 			final PropertyWrapper pw = properties.get(key);
 			if (pw != null) {
-				final Object val2 = convert(val, pw.type);
-				if (val2 == null && pw.type.isPrimitive()) {
-					// 基本类型忽略
-					return;
-				}
-				if (pw.setter != null) {
-					beanMap.put(bean, key, val2);
-				} else if (pw.setter2 != null) {
-					try {
-						// 处理不符合bean规范的
-						pw.setter2.invoke(bean, val2);
-					} catch (final Exception e) {
+				set(bean, pw, val);
+			}
+		}
+
+		void set(final Object bean, final PropertyWrapper pw, final Object val) {
+			final Object val2 = pw.converter.convert(val);
+			if (val2 == null && pw.type.isPrimitive()) {
+				// 基本类型忽略
+				return;
+			}
+			if (pw.setterIndex > -1) {
+				try {
+					fastClass.invoke(pw.setterIndex, bean, new Object[] { val2 });
+				} catch (final InvocationTargetException e) {
+					if (pw.setter == null) {
+						// 不符合bean规范的setter，与反射调用时一致
 						log.warn(e);
+					} else {
+						throw ClassException.of(e);
 					}
 				}
+			} else if (pw.setter != null) {
+				beanMap.put(bean, pw.name, val2);
+			} else if (pw.setter2 != null) {
+				try {
+					// 处理不符合bean规范的
+					pw.setter2.invoke(bean, val2);
+				} catch (final Exception e) {
+					log.warn(e);
+				}
 			}
 		}
 
@@ -248,28 +462,110 @@ public abstract class BeanUtils {
 			return beanMap.get(bean, key);
 		}
 
+		Object get(final Object bean, final PropertyWrapper pw) {
+			if (pw.getterIndex > -1) {
+				try {
+					return fastClass.invoke(pw.getterIndex, bean, NO_ARGS);
+				} catch (final InvocationTargetException e) {
+					throw ClassException.of(e);
+				}
+			}
+			return beanMap.get(bean, pw.name);
+		}
+
 		void copy(final Object bean, final Map<String, Object> map) {
-			for (final String key : properties.keySet()) {
-				map.put(key, get(bean, key));
+			for (final PropertyWrapper pw : plist) {
+				map.put(pw.name, get(bean, pw));
 			}
 		}
 
 		void copy(final Map<String, Object> map, final Object bean) {
-			for (final String key : properties.keySet()) {
-				final Object val = map.get(key);
+			for (final PropertyWrapper pw : plist) {
+				final Object val = map.get(pw.name);
+				if (val != null) {
+					set(bean, pw, val);
+				}
+			}
+		}
+
+		void copy(final Object bean, final BeanWrapper wrapper2, final Object bean2) {
+			for (final PropertyWrapper pw : plist) {
+				final PropertyWrapper pw2 = wrapper2.properties.get(pw.name);
+				if (pw2 == null) {
+					continue;
+				}
+				final Object val = get(bean, pw);
 				if (val != null) {
-					set(bean, key, val);
+					wrapper2.set(bean2, pw2, val);
+				}
+			}
+		}
+
+		void copy(final Object[] row, final String[] columns, final Object bean) {
+			final PropertyWrapper[] arr = getColumnProperties(columns);
+			final int len = Math.min(row.length, arr.length);
+			for (int i = 0; i < len; i++) {
+				final PropertyWrapper pw = arr[i];
+				final Object val;
+				if (pw != null && (val = row[i]) != null) {
+					set(bean, pw, val);
 				}
 			}
 		}
 
+		PropertyWrapper[] getColumnProperties(final String[] columns) {
+			// 调用者可能复用并重新填充同一个数组，按内容比较，binding中保存的是副本
+			ColumnsBinding b = binding;
+			if (b != null && Arrays.equals(b.columns, columns)) {
+				return b.properties;
+			}
+			final String[] copy = columns.clone();
+			final List<String> key = Arrays.asList(copy);
+			b = bindings.get(key);
+			if (b != null) {
+				binding = b;
+				return b.properties;
+			}
+			final PropertyWrapper[] arr = new PropertyWrapper[columns.length];
+			for (int i = 0; i < columns.length; i++) {
+				final String column = columns[i];
+				if (column == null) {
+					continue;
+				}
+				PropertyWrapper pw = properties.get(column);
+				if (pw == null) {
+					pw = lproperties.get(column.toLowerCase(ENGLISH));
+				}
+				arr[i] = pw;
+			}
+			if (bindings.size() >= MAX_BINDINGS) {
+				// 列的组合通常有限，超出时整体清除
+				bindings.clear();
+			}
+			bindings.put(key, binding = new ColumnsBinding(copy, arr));
+			return arr;
+		}
+
 		<T> void clone(final T bean, final T bean2) {
-			for (final String key : properties.keySet()) {
-				final Object val = get(bean, key);
+			for (final PropertyWrapper pw : plist) {
+				final Object val = get(bean, pw);
 				if (val != null) {
-					set(bean2, key, val);
+					set(bean2, pw, val);
 				}
 			}
 		}
 	}
+
+	static final int MAX_BINDINGS = 64;
+
+	private static class ColumnsBinding {
+		final String[] columns;
+
+		final PropertyWrapper[] properties;
+
+		ColumnsBinding(final String[] columns, final PropertyWrapper[] properties) {
+			this.columns = columns;
+			this.properties = properties;
+		}
+	}
 }
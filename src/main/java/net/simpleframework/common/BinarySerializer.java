@@ -0,0 +1,708 @@
+package net.simpleframework.common;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import net.simpleframework.common.BeanUtils.PropertyAccessor;
+import net.simpleframework.common.ID.IntegerID;
+import net.simpleframework.common.ID.LongID;
+import net.simpleframework.common.ID.StringID;
+import net.simpleframework.common.SerializeUtils.ISerializer;
+
+/**
+ * Licensed under the Apache License, Version 2.0
+ *
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public class BinarySerializer implements ISerializer {
+	/* 格式标识，hessian的数据不会以此开头 */
+	static final byte PLAIN = (byte) 0xB1, DEFLATED = (byte) 0xB2;
+
+	static final int NULL = 0, TRUE = 1, FALSE = 2, INT = 3, LONG = 4, DOUBLE = 5, FLOAT = 6,
+			STRING = 7, BYTES = 8, DATE = 9, STRING_ID = 10, INTEGER_ID = 11, LONG_ID = 12,
+			LIST = 13, MAP = 14, LINKED_MAP = 15, SET = 16, LINKED_SET = 17, ARRAY = 18, BEAN = 19,
+			ENUM = 20, SHORT = 21, BYTE = 22, CHAR = 23, DECIMAL = 24, BIGINT = 25, OTHER = 26;
+
+	/* 嵌套的最大深度，注册的bean不处理循环引用 */
+	static final int MAX_DEPTH = 64;
+
+	private final Map<Class<?>, BeanType> types = new ConcurrentHashMap<>();
+
+	private final Map<Integer, BeanType> typeIds = new ConcurrentHashMap<>();
+
+	/* 未注册的类型使用的序列化 */
+	private final ISerializer fallback;
+
+	private volatile int compressThreshold;
+
+	public BinarySerializer() {
+		this(SerializeUtils.HESSIAN);
+	}
+
+	public BinarySerializer(final ISerializer fallback) {
+		this.fallback = fallback;
+	}
+
+	/**
+	 * 注册bean类型，按属性名的顺序写入可读写的属性值。序列化和反序列化的两端须使用相同的id注册
+	 *
+	 * @param beanClass
+	 * @param id
+	 * @return
+	 */
+	public BinarySerializer register(final Class<?> beanClass, final int id) {
+		final BeanType type = new BeanType(beanClass, id);
+		final BeanType type2 = typeIds.get(id);
+		if (type2 != null && type2.beanClass != beanClass) {
+			throw new IllegalArgumentException(
+					"Duplicate id " + id + ": " + type2.beanClass.getName() + ", " + beanClass.getName());
+		}
+		typeIds.put(id, type);
+		types.put(beanClass, type);
+		return this;
+	}
+
+	public int getCompressThreshold() {
+		return compressThreshold;
+	}
+
+	/**
+	 * 超过该字节数时使用deflate压缩，0表示不压缩
+	 *
+	 * @param compressThreshold
+	 * @return
+	 */
+	public BinarySerializer setCompressThreshold(final int compressThreshold) {
+		this.compressThreshold = compressThreshold;
+		return this;
+	}
+
+	@Override
+	public byte[] serialize(final Object obj) throws IOException {
+		if (obj == null) {
+			return null;
+		}
+		final Output out = Output.acquire(OUTPUT);
+		try {
+			out.writeByte(PLAIN);
+			writeObject(out, obj, 0);
+			if (compressThreshold > 0 && out.size > compressThreshold) {
+				final byte[] bytes = deflate(out);
+				if (bytes != null) {
+					return bytes;
+				}
+			}
+			return out.toByteArray();
+		} finally {
+			out.release();
+		}
+	}
+
+	@Override
+	public Object deserialize(final byte[] bytes) throws IOException, ClassNotFoundException {
+		if (bytes == null || bytes.length == 0) {
+			return null;
+		}
+		Input in;
+		if (bytes[0] == PLAIN) {
+			in = new Input(bytes, 1, bytes.length);
+		} else if (bytes[0] == DEFLATED) {
+			in = inflate(bytes);
+		} else {
+			// 兼容切换前写入的数据
+			return fallback.deserialize(bytes);
+		}
+		return readObject(in, 0);
+	}
+
+	private byte[] deflate(final Output out) {
+		Deflater deflater = DEFLATER.get();
+		if (deflater == null) {
+			DEFLATER.set(deflater = new Deflater(Deflater.BEST_SPEED));
+		}
+		deflater.reset();
+		deflater.setInput(out.buf, 1, out.size - 1);
+		deflater.finish();
+		final Output out2 = Output.acquire(OUTPUT2);
+		try {
+			out2.writeByte(DEFLATED);
+			out2.writeVarInt(out.size - 1);
+			while (!deflater.finished()) {
+				out2.ensure(4096);
+				out2.size += deflater.deflate(out2.buf, out2.size, out2.buf.length - out2.size);
+				if (out2.size >= out.size) {
+					// 压缩后没有变小
+					return null;
+				}
+			}
+			return out2.toByteArray();
+		} finally {
+			out2.release();
+		}
+	}
+
+	private Input inflate(final byte[] bytes) throws IOException {
+		final Input header = new Input(bytes, 1, bytes.length);
+		final int len = header.readVarInt();
+		// deflate最多压缩约1032倍，超出的长度是损坏的数据
+		if (len < 0 || len > (bytes.length - header.pos) * 1032L + 64) {
+			throw new IOException("Corrupted data");
+		}
+		final byte[] buf = new byte[len];
+		Inflater inflater = INFLATER.get();
+		if (inflater == null) {
+			INFLATER.set(inflater = new Inflater());
+		}
+		inflater.reset();
+		inflater.setInput(bytes, header.pos, bytes.length - header.pos);
+		try {
+			int n = 0;
+			while (n < len) {
+				final int c = inflater.inflate(buf, n, len - n);
+				if (c == 0 && (inflater.finished() || inflater.needsInput())) {
+					break;
+				}
+				n += c;
+			}
+			if (n != len) {
+				throw new IOException("Corrupted data");
+			}
+		} catch (final DataFormatException e) {
+			throw new IOException(e);
+		}
+		return new Input(buf, 0, len);
+	}
+
+	@SuppressWarnings("rawtypes")
+	private void writeObject(final Output out, final Object obj, final int depth)
+			throws IOException {
+		if (obj == null) {
+			out.writeByte(NULL);
+			return;
+		}
+		if (depth > MAX_DEPTH) {
+			throw new IOException("Object graph is too deep, circular reference?");
+		}
+		final Class<?> c = obj.getClass();
+		if (c == String.class) {
+			out.writeByte(STRING);
+			out.writeString((String) obj);
+		} else if (c == Integer.class) {
+			out.writeByte(INT);
+			out.writeVarLong((Integer) obj);
+		} else if (c == Long.class) {
+			out.writeByte(LONG);
+			out.writeVarLong((Long) obj);
+		} else if (c == Boolean.class) {
+			out.writeByte((Boolean) obj ? TRUE : FALSE);
+		} else if (c == Double.class) {
+			out.writeByte(DOUBLE);
+			out.writeLong(Double.doubleToLongBits((Double) obj));
+		} else if (c == Float.class) {
+			out.writeByte(FLOAT);
+			out.writeVarInt(Float.floatToIntBits((Float) obj));
+		} else if (c == StringID.class && ((ID) obj).getValue() != null) {
+			out.writeByte(STRING_ID);
+			out.writeString(((StringID) obj).getValue());
+		} else if ((c == IntegerID.class || c == LongID.class) && ((ID) obj).getValue() != null) {
+			out.writeByte(c == IntegerID.class ? INTEGER_ID : LONG_ID);
+			out.writeVarLong(((Number) ((ID) obj).getValue()).longValue());
+		} else if (c == Date.class) {
+			out.writeByte(DATE);
+			out.writeVarLong(((Date) obj).getTime());
+		} else if (c == byte[].class) {
+			final byte[] bytes = (byte[]) obj;
+			out.writeByte(BYTES);
+			out.writeVarInt(bytes.length);
+			out.write(bytes, 0, bytes.length);
+		} else if (c == Short.class) {
+			out.writeByte(SHORT);
+			out.writeVarLong((Short) obj);
+		} else if (c == Byte.class) {
+			out.writeByte(BYTE);
+			out.writeByte((Byte) obj);
+		} else if (c == Character.class) {
+			out.writeByte(CHAR);
+			out.writeVarInt((Character) obj);
+		} else if (c == BigDecimal.class) {
+			out.writeByte(DECIMAL);
+			out.writeString(obj.toString());
+		} else if (c == BigInteger.class) {
+			out.writeByte(BIGINT);
+			out.writeString(obj.toString());
+		} else if (c == ArrayList.class || c == HashSet.class || c == LinkedHashSet.class) {
+			final Collection coll = (Collection) obj;
+			out.writeByte(c == ArrayList.class ? LIST : c == HashSet.class ? SET : LINKED_SET);
+			out.writeVarInt(coll.size());
+			for (final Object o : coll) {
+				writeObject(out, o, depth + 1);
+			}
+		} else if (c == HashMap.class || c == LinkedHashMap.class) {
+			final Map<?, ?> map = (Map) obj;
+			out.writeByte(c == HashMap.class ? MAP : LINKED_MAP);
+			out.writeVarInt(map.size());
+			for (final Map.Entry<?, ?> e : map.entrySet()) {
+				writeObject(out, e.getKey(), depth + 1);
+				writeObject(out, e.getValue(), depth + 1);
+			}
+		} else if (c == Object[].class) {
+			final Object[] arr = (Object[]) obj;
+			out.writeByte(ARRAY);
+			out.writeVarInt(arr.length);
+			for (final Object o : arr) {
+				writeObject(out, o, depth + 1);
+			}
+		} else if (obj instanceof Enum) {
+			out.writeByte(ENUM);
+			out.writeClassName(((Enum) obj).getDeclaringClass().getName());
+			out.writeString(((Enum) obj).name());
+		} else {
+			final BeanType type = types.get(c);
+			if (type != null) {
+				out.writeByte(BEAN);
+				out.writeVarInt(type.id);
+				out.writeVarInt(type.properties.length);
+				for (final PropertyAccessor accessor : type.properties) {
+					writeObject(out, accessor.get(obj), depth + 1);
+				}
+			} else {
+				final byte[] bytes = fallback.serialize(obj);
+				out.writeByte(OTHER);
+				out.writeVarInt(bytes.length);
+				out.write(bytes, 0, bytes.length);
+			}
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Object readObject(final Input in, final int depth) throws IOException,
+			ClassNotFoundException {
+		final int tag = in.readByte();
+		// 与writeObject对称，避免损坏或恶意的数据耗尽栈
+		if (tag != NULL && depth > MAX_DEPTH) {
+			throw new IOException("Object graph is too deep");
+		}
+		switch (tag) {
+		case NULL:
+			return null;
+		case TRUE:
+			return Boolean.TRUE;
+		case FALSE:
+			return Boolean.FALSE;
+		case INT:
+			return (int) in.readVarLong();
+		case LONG:
+			return in.readVarLong();
+		case DOUBLE:
+			return Double.longBitsToDouble(in.readLong());
+		case FLOAT:
+			return Float.intBitsToFloat(in.readVarInt());
+		case STRING:
+			return in.readString();
+		case STRING_ID:
+			return new StringID(in.readString());
+		case INTEGER_ID:
+			return IntegerID.valueOf((int) in.readVarLong());
+		case LONG_ID:
+			return LongID.valueOf(in.readVarLong());
+		case DATE:
+			return new Date(in.readVarLong());
+		case BYTES:
+			return in.readBytes(in.readVarInt());
+		case SHORT:
+			return (short) in.readVarLong();
+		case BYTE:
+			return (byte) in.readByte();
+		case CHAR:
+			return (char) in.readVarInt();
+		case DECIMAL:
+			return new BigDecimal(in.readString());
+		case BIGINT:
+			return new BigInteger(in.readString());
+		case LIST:
+		case SET:
+		case LINKED_SET: {
+			final int size = in.readSize();
+			final Collection coll = tag == LIST ? new ArrayList(size)
+					: tag == SET ? new HashSet(capacity(size)) : new LinkedHashSet(capacity(size));
+			for (int i = 0; i < size; i++) {
+				coll.add(readObject(in, depth + 1));
+			}
+			return coll;
+		}
+		case MAP:
+		case LINKED_MAP: {
+			final int size = in.readSize();
+			final Map map = tag == MAP ? new HashMap(capacity(size))
+					: new LinkedHashMap(capacity(size));
+			for (int i = 0; i < size; i++) {
+				final Object k = readObject(in, depth + 1);
+				map.put(k, readObject(in, depth + 1));
+			}
+			return map;
+		}
+		case ARRAY: {
+			final Object[] arr = new Object[in.readSize()];
+			for (int i = 0; i < arr.length; i++) {
+				arr[i] = readObject(in, depth + 1);
+			}
+			return arr;
+		}
+		case ENUM: {
+			final Class eClass = ClassUtils.forName(in.readClassName());
+			return Enum.valueOf(eClass, in.readString());
+		}
+		case BEAN: {
+			final int id = in.readVarInt();
+			final BeanType type = typeIds.get(id);
+			if (type == null) {
+				throw new ClassNotFoundException("Unregistered bean id: " + id);
+			}
+			final int n = in.readVarInt();
+			if (n != type.properties.length) {
+				throw new IOException("Properties mismatch: " + type.beanClass.getName());
+			}
+			final Object bean = type.newInstance();
+			for (final PropertyAccessor accessor : type.properties) {
+				final Object v = readObject(in, depth + 1);
+				if (v != null) {
+					accessor.set(bean, v);
+				}
+			}
+			return bean;
+		}
+		case OTHER:
+			return fallback.deserialize(in.readBytes(in.readVarInt()));
+		default:
+			throw new IOException("Unknown tag: " + tag);
+		}
+	}
+
+	private static int capacity(final int size) {
+		return Math.max((int) (size / .75f) + 1, 16);
+	}
+
+	private static class BeanType {
+		final Class<?> beanClass;
+
+		final int id;
+
+		final PropertyAccessor[] properties;
+
+		final Constructor<?> constructor;
+
+		BeanType(final Class<?> beanClass, final int id) {
+			this.beanClass = beanClass;
+			this.id = id;
+			properties = BeanUtils.getPropertyAccessors(beanClass);
+			try {
+				constructor = beanClass.getDeclaredConstructor();
+				constructor.setAccessible(true);
+			} catch (final NoSuchMethodException e) {
+				throw new IllegalArgumentException(beanClass.getName() + " has no default constructor");
+			}
+		}
+
+		Object newInstance() throws IOException {
+			try {
+				return constructor.newInstance();
+			} catch (final Exception e) {
+				throw new IOException(e);
+			}
+		}
+	}
+
+	/* 线程内复用的写缓冲 */
+	private static final ThreadLocal<Output> OUTPUT = new ThreadLocal<Output>() {
+		@Override
+		protected Output initialValue() {
+			return new Output();
+		}
+	};
+
+	private static final ThreadLocal<Output> OUTPUT2 = new ThreadLocal<Output>() {
+		@Override
+		protected Output initialValue() {
+			return new Output();
+		}
+	};
+
+	/* 按需创建，clearThreadCache时释放本地内存 */
+	private static final ThreadLocal<Deflater> DEFLATER = new ThreadLocal<>();
+
+	private static final ThreadLocal<Inflater> INFLATER = new ThreadLocal<>();
+
+	/**
+	 * 清除当前线程缓存的缓冲及压缩器，由JsonUtils.clearThreadCache()一并调用
+	 */
+	public static void clearThreadCache() {
+		OUTPUT.remove();
+		OUTPUT2.remove();
+		final Deflater deflater = DEFLATER.get();
+		if (deflater != null) {
+			deflater.end();
+			DEFLATER.remove();
+		}
+		final Inflater inflater = INFLATER.get();
+		if (inflater != null) {
+			inflater.end();
+			INFLATER.remove();
+		}
+	}
+
+	static class Output {
+		static final int INITIAL = 1024, MAX_RETAIN = 1 << 16;
+
+		byte[] buf = new byte[INITIAL];
+
+		int size;
+
+		/* 类名的引用表，同一个类名只写一次 */
+		Map<String, Integer> names;
+
+		private boolean inUse;
+
+		/* 嵌套调用serialize时，线程内的缓冲正在使用，改用临时的 */
+		static Output acquire(final ThreadLocal<Output> local) {
+			Output out = local.get();
+			if (out.inUse) {
+				out = new Output();
+			}
+			out.inUse = true;
+			return out.reset();
+		}
+
+		Output reset() {
+			size = 0;
+			names = null;
+			return this;
+		}
+
+		void release() {
+			// 避免线程长期持有大的缓冲
+			if (buf.length > MAX_RETAIN) {
+				buf = new byte[INITIAL];
+			}
+			names = null;
+			inUse = false;
+		}
+
+		void ensure(final int n) {
+			if (size + n > buf.length) {
+				final byte[] buf2 = new byte[Math.max(buf.length << 1, size + n)];
+				System.arraycopy(buf, 0, buf2, 0, size);
+				buf = buf2;
+			}
+		}
+
+		void writeByte(final int b) {
+			ensure(1);
+			buf[size++] = (byte) b;
+		}
+
+		void write(final byte[] bytes, final int off, final int len) {
+			ensure(len);
+			System.arraycopy(bytes, off, buf, size, len);
+			size += len;
+		}
+
+		void writeVarInt(final int v) {
+			ensure(5);
+			int i = v;
+			while ((i & ~0x7f) != 0) {
+				buf[size++] = (byte) ((i & 0x7f) | 0x80);
+				i >>>= 7;
+			}
+			buf[size++] = (byte) i;
+		}
+
+		/* zigzag编码，绝对值小的负数也较短 */
+		void writeVarLong(final long v) {
+			ensure(10);
+			long l = (v << 1) ^ (v >> 63);
+			while ((l & ~0x7fl) != 0) {
+				buf[size++] = (byte) ((l & 0x7f) | 0x80);
+				l >>>= 7;
+			}
+			buf[size++] = (byte) l;
+		}
+
+		void writeLong(final long v) {
+			ensure(8);
+			for (int i = 56; i >= 0; i -= 8) {
+				buf[size++] = (byte) (v >>> i);
+			}
+		}
+
+		void writeString(final String s) {
+			final int len = s.length();
+			ensure(len + 5);
+			final int start = size;
+			writeVarInt(len);
+			final int off = size;
+			for (int i = 0; i < len; i++) {
+				final char c = s.charAt(i);
+				if (c >= 0x80) {
+					// 非ascii时按utf-8写入字节数
+					size = start;
+					final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+					writeVarInt(-1);
+					writeVarInt(bytes.length);
+					write(bytes, 0, bytes.length);
+					return;
+				}
+				buf[off + i] = (byte) c;
+			}
+			size = off + len;
+		}
+
+		void writeClassName(final String name) {
+			if (names == null) {
+				names = new HashMap<>();
+			}
+			final Integer ref = names.get(name);
+			if (ref != null) {
+				writeVarInt(ref + 1);
+			} else {
+				names.put(name, names.size());
+				writeVarInt(0);
+				writeString(name);
+			}
+		}
+
+		byte[] toByteArray() {
+			final byte[] bytes = new byte[size];
+			System.arraycopy(buf, 0, bytes, 0, size);
+			return bytes;
+		}
+	}
+
+	static class Input {
+		final byte[] buf;
+
+		int pos;
+
+		final int limit;
+
+		List<String> names;
+
+		Input(final byte[] buf, final int pos, final int limit) {
+			this.buf = buf;
+			this.pos = pos;
+			this.limit = limit;
+		}
+
+		private void check(final int n) throws IOException {
+			if (n < 0 || pos + n > limit) {
+				throw new IOException("Unexpected end of data");
+			}
+		}
+
+		int readByte() throws IOException {
+			check(1);
+			return buf[pos++];
+		}
+
+		int readVarInt() throws IOException {
+			int v = 0;
+			for (int shift = 0; shift < 32; shift += 7) {
+				final int b = readByte();
+				v |= (b & 0x7f) << shift;
+				if ((b & 0x80) == 0) {
+					return v;
+				}
+			}
+			throw new IOException("Malformed varint");
+		}
+
+		long readVarLong() throws IOException {
+			long l = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				final int b = readByte();
+				l |= (long) (b & 0x7f) << shift;
+				if ((b & 0x80) == 0) {
+					return (l >>> 1) ^ -(l & 1);
+				}
+			}
+			throw new IOException("Malformed varlong");
+		}
+
+		long readLong() throws IOException {
+			check(8);
+			long l = 0;
+			for (int i = 0; i < 8; i++) {
+				l = (l << 8) | (buf[pos++] & 0xff);
+			}
+			return l;
+		}
+
+		/**
+		 * 集合或数组的长度，每个元素至少占一个字节，据此在分配前检查
+		 */
+		int readSize() throws IOException {
+			final int size = readVarInt();
+			if (size < 0 || size > limit - pos) {
+				throw new IOException("Bad size: " + size);
+			}
+			return size;
+		}
+
+		byte[] readBytes(final int len) throws IOException {
+			check(len);
+			final byte[] bytes = new byte[len];
+			System.arraycopy(buf, pos, bytes, 0, len);
+			pos += len;
+			return bytes;
+		}
+
+		@SuppressWarnings("deprecation")
+		String readString() throws IOException {
+			final int len = readVarInt();
+			if (len == -1) {
+				final int blen = readVarInt();
+				check(blen);
+				final String s = new String(buf, pos, blen, StandardCharsets.UTF_8);
+				pos += blen;
+				return s;
+			}
+			check(len);
+			// ascii
+			final String s = new String(buf, 0, pos, len);
+			pos += len;
+			return s;
+		}
+
+		String readClassName() throws IOException {
+			if (names == null) {
+				names = new ArrayList<>();
+			}
+			final int ref = readVarInt();
+			if (ref == 0) {
+				final String name = readString();
+				names.add(name);
+				return name;
+			}
+			if (ref > names.size()) {
+				throw new IOException("Bad class reference: " + ref);
+			}
+			return names.get(ref - 1);
+		}
+	}
+}
@@ -15,6 +15,7 @@ import java.net.URLDecoder;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
@@ -172,26 +173,51 @@ public abstract class ClassUtils {
 		final String packageDirName = packageName.replace('.', '/');
 		final Enumeration<URL> dirs = Thread.currentThread().getContextClassLoader()
 				.getResources(packageDirName);
+		final List<URL> urls = new ArrayList<>();
+		final List<File> jarFiles = new ArrayList<>();
 		while (dirs.hasMoreElements()) {
 			final URL url = dirs.nextElement();
+			urls.add(url);
+			if ("jar".equals(url.getProtocol())) {
+				final File jarFile = ResourceIndex.getJarFile(url);
+				if (jarFile != null) {
+					jarFiles.add(jarFile);
+				}
+			}
+		}
+		// jar的条目按(路径, 修改时间)索引并缓存到文件，未索引的jar并行读取
+		ResourceIndex.index(jarFiles);
+
+		for (final URL url : urls) {
 			final String protocol = url.getProtocol();
 			if ("file".equals(protocol)) {
 				final String filePath = URLDecoder.decode(url.getFile(), "UTF-8");
 				findAndAddClassesInPackageByFile(packageDirName, filePath, recursive, callbacks);
 			} else if ("jar".equals(protocol)) {
-				final JarFile jar = ((JarURLConnection) url.openConnection()).getJarFile();
-				final Enumeration<JarEntry> entries = jar.entries();
+				final File jarFile = ResourceIndex.getJarFile(url);
+				final String[] entries;
+				if (jarFile != null) {
+					entries = ResourceIndex.getEntries(jarFile);
+				} else {
+					// 嵌套的jar
+					final JarFile jar = ((JarURLConnection) url.openConnection()).getJarFile();
+					final List<String> list = new ArrayList<>();
+					final Enumeration<JarEntry> e = jar.entries();
+					while (e.hasMoreElements()) {
+						list.add(e.nextElement().getName());
+					}
+					entries = list.toArray(new String[list.size()]);
+				}
 				// 目录包缓存
 				final Set<String> packs = new HashSet<>();
-				while (entries.hasMoreElements()) {
-					final JarEntry entry = entries.nextElement();
-					String name = entry.getName();
+				for (String name : entries) {
 					if (name.charAt(0) == '/') {
 						name = name.substring(1);
 					}
 					if (!name.startsWith(packageDirName)) {
 						continue;
 					}
+					final boolean isDirectory = name.charAt(name.length() - 1) == '/';
 					if (!recursive) {
 						final int idx = name.lastIndexOf('/');
 						if (idx == -1) {
@@ -201,19 +227,20 @@ public abstract class ClassUtils {
 						if (packs.contains(packageDirName2)) {
 							continue;
 						}
-						if (entry.isDirectory() && !packageDirName2.equals(packageDirName)) {
+						if (isDirectory && !packageDirName2.equals(packageDirName)) {
 							packs.add(packageDirName2);
 							continue;
 						}
 					}
 					if (callbacks != null) {
 						for (final IScanResourcesCallback callback : callbacks) {
-							callback.doResources(name, entry.isDirectory());
+							callback.doResources(name, isDirectory);
 						}
 					}
 				}
 			}
 		}
+		ResourceIndex.save();
 	}
 
 	static void findAndAddClassesInPackageByFile(final String packageName, final String packagePath,
@@ -6,8 +6,13 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.lang.reflect.Method;
+import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
+import java.util.Calendar;
 import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 import java.util.TimeZone;
 
@@ -40,13 +45,20 @@ public abstract class Convert {
 		}
 
 		if (Date.class.isAssignableFrom(targetClass)) {
-			for (final String pattern : new String[] { defaultDatePattern, "yyyy-MM-dd",
-					"yyyy-MM-dd HH:mm:ss" }) {
-				final Date d = toDate(String.valueOf(value), pattern);
-				if (d != null) {
-					return (T) d;
+			final String str = String.valueOf(value);
+			// 先按字符串的形状匹配内置格式，避免逐个格式的尝试
+			Date d = parseDate(str);
+			if (d == null) {
+				for (final String pattern : new String[] { defaultDatePattern, "yyyy-MM-dd",
+						"yyyy-MM-dd HH:mm:ss" }) {
+					if ((d = toDate(str, pattern)) != null) {
+						break;
+					}
 				}
 			}
+			if (d != null) {
+				return (T) d;
+			}
 		} else if (Enum.class.isAssignableFrom(targetClass)) {
 			return (T) toEnum((Class<Enum>) targetClass, value, (Enum) defaultValue);
 		} else if (ID.class.isAssignableFrom(targetClass)) {
@@ -66,6 +78,9 @@ public abstract class Convert {
 	}
 
 	public static final boolean toBool(final Object obj, final boolean defaultValue) {
+		if (obj instanceof Boolean) {
+			return (Boolean) obj;
+		}
 		return convert(obj, Boolean.class, defaultValue);
 	}
 
@@ -90,6 +105,14 @@ public abstract class Convert {
 	}
 
 	public static final int toInt(final Object obj, final int defaultValue) {
+		if (obj instanceof Number || obj instanceof String) {
+			try {
+				return DataConversion.toInt(obj);
+			} catch (final Exception e) {
+				log.warn("Conversion error: " + Integer.class + ", val: " + obj);
+				return defaultValue;
+			}
+		}
 		return convert(obj, Integer.class, defaultValue);
 	}
 
@@ -98,6 +121,14 @@ public abstract class Convert {
 	}
 
 	public static final long toLong(final Object obj, final long defaultValue) {
+		if (obj instanceof Number || obj instanceof String) {
+			try {
+				return DataConversion.toLong(obj);
+			} catch (final Exception e) {
+				log.warn("Conversion error: " + Long.class + ", val: " + obj);
+				return defaultValue;
+			}
+		}
 		return convert(obj, Long.class, defaultValue);
 	}
 
@@ -106,6 +137,14 @@ public abstract class Convert {
 	}
 
 	public static final double toDouble(final Object obj, final double defaultValue) {
+		if (obj instanceof Number || obj instanceof String) {
+			try {
+				return DataConversion.toDouble(obj);
+			} catch (final Exception e) {
+				log.warn("Conversion error: " + Double.class + ", val: " + obj);
+				return defaultValue;
+			}
+		}
 		return convert(obj, Double.class, defaultValue);
 	}
 
@@ -114,6 +153,14 @@ public abstract class Convert {
 	}
 
 	public static final float toFloat(final Object obj, final float defaultValue) {
+		if (obj instanceof Number || obj instanceof String) {
+			try {
+				return DataConversion.toFloat(obj);
+			} catch (final Exception e) {
+				log.warn("Conversion error: " + Float.class + ", val: " + obj);
+				return defaultValue;
+			}
+		}
 		return convert(obj, Float.class, defaultValue);
 	}
 
@@ -241,15 +288,45 @@ public abstract class Convert {
 
 	public static String defaultDatePattern = "yyyy-MM-dd HH:mm";
 
+	/* 每个线程缓存的SimpleDateFormat，pattern -> format */
+	private static final ThreadLocal<Map<String, SimpleDateFormat>> DATE_FORMATS = new ThreadLocal<Map<String, SimpleDateFormat>>() {
+		@Override
+		protected Map<String, SimpleDateFormat> initialValue() {
+			return new HashMap<>();
+		}
+	};
+
+	private static final ThreadLocal<Map<String, SimpleDateFormat>> UTC_DATE_FORMATS = new ThreadLocal<Map<String, SimpleDateFormat>>() {
+		@Override
+		protected Map<String, SimpleDateFormat> initialValue() {
+			return new HashMap<>();
+		}
+	};
+
+	private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+	private static SimpleDateFormat getDateFormat(final String pattern, final boolean utc) {
+		final Map<String, SimpleDateFormat> formats = (utc ? UTC_DATE_FORMATS : DATE_FORMATS).get();
+		SimpleDateFormat sdf = formats.get(pattern);
+		if (sdf == null) {
+			formats.put(pattern, sdf = new SimpleDateFormat(pattern));
+			if (utc) {
+				sdf.setTimeZone(UTC);
+			}
+		}
+		if (!utc) {
+			// 默认时区可能被修改
+			sdf.setTimeZone(TimeZone.getDefault());
+		}
+		return sdf;
+	}
+
 	public static final String toDateString(final Date date, final String pattern) {
-		final SimpleDateFormat sdf = new SimpleDateFormat(pattern);
-		return date == null ? null : sdf.format(date);
+		return date == null ? null : getDateFormat(pattern, false).format(date);
 	}
 
 	public static final String toUTCDateString(final Date date, final String pattern) {
-		final SimpleDateFormat sdf = new SimpleDateFormat(pattern);
-		sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
-		return date == null ? null : sdf.format(date);
+		return date == null ? null : getDateFormat(pattern, true).format(date);
 	}
 
 	public static final String toDateTimeString(final Date date) {
@@ -261,24 +338,89 @@ public abstract class Convert {
 	}
 
 	public static final Date toDate(final String dateString, final String pattern) {
-		final SimpleDateFormat sdf = new SimpleDateFormat(pattern);
+		if (dateString == null) {
+			return null;
+		}
 		try {
-			return sdf.parse(dateString);
+			return getDateFormat(pattern, false).parse(dateString, new ParsePosition(0));
 		} catch (final Exception e) {
 			return null;
 		}
 	}
 
 	public static final Date toUTCDate(final String dateString, final String pattern) {
-		final SimpleDateFormat sdf = new SimpleDateFormat(pattern);
-		sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
+		if (dateString == null) {
+			return null;
+		}
 		try {
-			return sdf.parse(dateString);
+			return getDateFormat(pattern, true).parse(dateString, new ParsePosition(0));
 		} catch (final Exception e) {
 			return null;
 		}
 	}
 
+	private static final ThreadLocal<Calendar> CALENDARS = new ThreadLocal<Calendar>() {
+		@Override
+		protected Calendar initialValue() {
+			return new GregorianCalendar();
+		}
+	};
+
+	/**
+	 * 清除当前线程缓存的日期格式及Calendar，由JsonUtils.clearThreadCache()一并调用
+	 */
+	public static void clearThreadCache() {
+		DATE_FORMATS.remove();
+		UTC_DATE_FORMATS.remove();
+		CALENDARS.remove();
+	}
+
+	/**
+	 * 解析yyyy-MM-dd、yyyy-MM-dd HH:mm及yyyy-MM-dd HH:mm:ss形状的字符串，月、日、时、分、秒允许1到2位。
+	 * 形状不符时返回null，不抛出异常
+	 * 
+	 * @param str
+	 * @return
+	 */
+	static Date parseDate(final String str) {
+		final int len = str.length();
+		if (len < 8 || len > 19) {
+			return null;
+		}
+		// 年、月、日、时、分、秒
+		final int[] fields = new int[6];
+		int pos = 0, i = 0;
+		while (i < 6 && pos < len) {
+			final int start = pos;
+			int v = 0;
+			char c;
+			while (pos < len && (c = str.charAt(pos)) >= '0' && c <= '9') {
+				v = v * 10 + (c - '0');
+				pos++;
+			}
+			final int n = pos - start;
+			if (i == 0 ? n != 4 : (n < 1 || n > 2)) {
+				return null;
+			}
+			fields[i++] = v;
+			if (pos == len) {
+				break;
+			}
+			final char sep = str.charAt(pos++);
+			if (sep != (i < 3 ? '-' : (i == 3 ? ' ' : ':')) || pos == len) {
+				return null;
+			}
+		}
+		if (pos != len || (i != 3 && i != 5 && i != 6)) {
+			return null;
+		}
+		final Calendar cal = CALENDARS.get();
+		cal.setTimeZone(TimeZone.getDefault());
+		cal.clear();
+		cal.set(fields[0], fields[1] - 1, fields[2], fields[3], fields[4], fields[5]);
+		return cal.getTime();
+	}
+
 	public static final Date toDate(final String dateString) {
 		return toDate(dateString, defaultDatePattern);
 	}
@@ -2,17 +2,36 @@ package net.simpleframework.common;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 /**
  * Licensed under the Apache License, Version 2.0
@@ -79,16 +98,15 @@ public abstract class FileUtils {
 	}
 
 	public static void copyFile(final File from, final File to) throws IOException {
-		final InputStream inputStream = new BufferedInputStream(new FileInputStream(from));
-		copyFile(inputStream, to);
+		// 文件之间使用FileChannel.transferTo
+		copyFile(new FileInputStream(from), to);
 	}
 
 	public static void copyFile(final InputStream inputStream, final File to) throws IOException {
 		createFile(to);
 		OutputStream outputStream = null;
 		try {
-			IoUtils.copyStream(inputStream,
-					outputStream = new BufferedOutputStream(new FileOutputStream(to)), 1024 * 1024);
+			IoUtils.copyStream(inputStream, outputStream = new FileOutputStream(to), 1024 * 1024);
 		} finally {
 			if (inputStream != null) {
 				inputStream.close();
@@ -99,6 +117,110 @@ public abstract class FileUtils {
 		}
 	}
 
+	/**
+	 * 先写临时文件再改名，避免其它请求或进程读到写了一半的文件。已存在的文件会被替换（File.renameTo在Windows下不会覆盖），
+	 * 失败时删除临时文件并抛出异常
+	 * 
+	 * @param file
+	 * @param writer
+	 *        写入临时文件，包装的流需自行关闭
+	 * @throws IOException
+	 */
+	public static void writeFile(final File file, final IFileWriter writer) throws IOException {
+		final File tmp = File.createTempFile("." + file.getName() + "-", ".tmp", file
+				.getAbsoluteFile().getParentFile());
+		boolean ok = false;
+		try {
+			final OutputStream out = new FileOutputStream(tmp);
+			try {
+				writer.write(out);
+			} finally {
+				out.close();
+			}
+			try {
+				Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (final AtomicMoveNotSupportedException e) {
+				Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			ok = true;
+		} finally {
+			if (!ok) {
+				tmp.delete();
+			}
+		}
+	}
+
+	public static interface IFileWriter {
+
+		void write(OutputStream out) throws IOException;
+	}
+
+	/**
+	 * 使用固定大小的线程池执行任务，按任务的顺序返回结果。有任务失败时取消未开始的任务，等已开始的结束后抛出第一个失败
+	 * 
+	 * @param tasks
+	 * @param threads
+	 *        线程数，小于1时为cpu的数量。只有一个任务或一个线程时在当前线程中执行
+	 * @return
+	 * @throws IOException
+	 */
+	public static <T> List<T> invokeAll(final List<? extends Callable<T>> tasks, int threads)
+			throws IOException {
+		final int size = tasks.size();
+		final List<T> list = new ArrayList<>(size);
+		if (threads < 1) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+		threads = Math.min(threads, size);
+		if (threads <= 1) {
+			for (final Callable<T> task : tasks) {
+				try {
+					list.add(task.call());
+				} catch (final IOException e) {
+					throw e;
+				} catch (final Exception e) {
+					throw new IOException(e);
+				}
+			}
+			return list;
+		}
+
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final List<Future<T>> futures = new ArrayList<>(size);
+			for (final Callable<T> task : tasks) {
+				futures.add(executor.submit(task));
+			}
+			IOException ex = null;
+			for (final Future<T> future : futures) {
+				try {
+					list.add(future.get());
+				} catch (final CancellationException e) {
+					// 失败后取消的任务
+				} catch (final ExecutionException e) {
+					if (ex == null) {
+						for (final Future<T> future2 : futures) {
+							future2.cancel(false);
+						}
+						final Throwable cause = e.getCause();
+						ex = cause instanceof IOException ? (IOException) cause : new IOException(cause);
+					}
+				} catch (final InterruptedException e) {
+					executor.shutdownNow();
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException();
+				}
+			}
+			if (ex != null) {
+				throw ex;
+			}
+			return list;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
 	public static long KB = 1024, MB = KB * 1024, GB = MB * 1024;
 
 	public static String toFileSize(final long size) {
@@ -202,21 +324,7 @@ public abstract class FileUtils {
 
 	public static void unzip(final InputStream in, final String target, final boolean rewrite)
 			throws IOException {
-		unzip(in, target, rewrite, new IUnZipHandle() {
-
-			@Override
-			public void doFile(final ZipInputStream is, final File destFile) throws IOException {
-				final BufferedOutputStream oStream = new BufferedOutputStream(
-						new FileOutputStream(destFile));
-				try {
-					IoUtils.copyStream(is, oStream);
-				} finally {
-					if (oStream != null) {
-						oStream.close();
-					}
-				}
-			}
-		});
+		unzip(in, target, rewrite, DEFAULT_UNZIP_HANDLE);
 	}
 
 	public static void unzip(final InputStream in, String target, final boolean rewrite,
@@ -231,12 +339,17 @@ public abstract class FileUtils {
 			is = new ZipInputStream(new BufferedInputStream(in));
 		}
 		try {
+			final Set<String> dirs = new HashSet<>();
+			int i = 0;
 			ZipEntry entry;
 			while ((entry = is.getNextEntry()) != null) {
-				final String entryName = entry.getName();
+				final String entryName = checkEntryName(entry.getName());
 				final int index = entryName.lastIndexOf("/");
 				if (index > 0) {
-					createDirectoryRecursively(new File(target + entryName.substring(0, index)));
+					final String dir = entryName.substring(0, index);
+					if (dirs.add(dir)) {
+						createDirectoryRecursively(new File(target + dir));
+					}
 				}
 				if (entry.isDirectory()) {
 					continue;
@@ -245,6 +358,7 @@ public abstract class FileUtils {
 				final File destFile = new File(target + entryName);
 				if (rewrite || !destFile.exists()) {
 					unzipHandle.doFile(is, destFile);
+					unzipHandle.onProgress(entry, destFile, ++i, -1);
 				}
 			}
 		} finally {
@@ -254,11 +368,282 @@ public abstract class FileUtils {
 		}
 	}
 
+	public static void unzip(final File zipFile, final String target, final boolean rewrite)
+			throws IOException {
+		unzip(zipFile, target, rewrite, DEFAULT_UNZIP_HANDLE, 0);
+	}
+
+	/**
+	 * 使用ZipFile随机读取并多线程解压，适合条目较多的压缩包
+	 * 
+	 * @param zipFile
+	 * @param target
+	 * @param rewrite
+	 *        是否覆盖已存在的文件
+	 * @param unzipHandle
+	 *        在多个线程中调用
+	 * @param threads
+	 *        线程数，小于1时为cpu的数量
+	 * @throws IOException
+	 */
+	public static void unzip(final File zipFile, final String target, final boolean rewrite,
+			final IUnZipHandle unzipHandle, final int threads) throws IOException {
+		final File dir = new File(target);
+		final ZipFile zf = new ZipFile(zipFile);
+		try {
+			// 先检查条目并一次创建所有目录
+			final List<ZipEntry> entries = new ArrayList<>(zf.size());
+			final List<File> files = new ArrayList<>(zf.size());
+			final Set<String> dirs = new HashSet<>();
+			final Enumeration<? extends ZipEntry> e = zf.entries();
+			while (e.hasMoreElements()) {
+				final ZipEntry entry = e.nextElement();
+				final String entryName = checkEntryName(entry.getName());
+				final int index = entryName.lastIndexOf("/");
+				if (index > 0) {
+					final String _dir = entryName.substring(0, index);
+					if (dirs.add(_dir)) {
+						createDirectoryRecursively(new File(dir, _dir));
+					}
+				}
+				if (entry.isDirectory()) {
+					continue;
+				}
+				final File destFile = new File(dir, entryName);
+				if (rewrite || !destFile.exists()) {
+					entries.add(entry);
+					files.add(destFile);
+				}
+			}
+
+			final int size = entries.size();
+			final AtomicInteger done = new AtomicInteger();
+			final List<Callable<Object>> tasks = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				final ZipEntry entry = entries.get(i);
+				final File destFile = files.get(i);
+				tasks.add(new Callable<Object>() {
+					@Override
+					public Object call() throws IOException {
+						unzipHandle.doFile(zf, entry, destFile);
+						unzipHandle.onProgress(entry, destFile, done.incrementAndGet(), size);
+						return null;
+					}
+				});
+			}
+			invokeAll(tasks, threads);
+		} finally {
+			zf.close();
+		}
+	}
+
+	/**
+	 * 检查条目的名称，防止通过../或绝对路径写到目标目录之外(zip slip)
+	 * 
+	 * @param entryName
+	 * @return
+	 * @throws IOException
+	 */
+	static String checkEntryName(String entryName) throws IOException {
+		entryName = entryName.replace(WINDOWS_SEPARATOR, UNIX_SEPARATOR);
+		boolean illegal = entryName.length() == 0 || entryName.charAt(0) == UNIX_SEPARATOR
+				|| (entryName.length() > 1 && entryName.charAt(1) == ':');
+		if (!illegal) {
+			int from = 0;
+			while (from <= entryName.length()) {
+				int to = entryName.indexOf(UNIX_SEPARATOR, from);
+				if (to < 0) {
+					to = entryName.length();
+				}
+				if (to - from == 2 && entryName.charAt(from) == '.'
+						&& entryName.charAt(from + 1) == '.') {
+					illegal = true;
+					break;
+				}
+				from = to + 1;
+			}
+		}
+		if (illegal) {
+			throw new IOException("Illegal zip entry: " + entryName);
+		}
+		return entryName;
+	}
+
 	public static interface IUnZipHandle {
 
 		void doFile(ZipInputStream is, File destFile) throws IOException;
+
+		/**
+		 * 使用ZipFile解压时调用，可能在多个线程中同时调用。缺省直接写入文件
+		 * 
+		 * @param zipFile
+		 * @param entry
+		 * @param destFile
+		 * @throws IOException
+		 */
+		default void doFile(final ZipFile zipFile, final ZipEntry entry, final File destFile)
+				throws IOException {
+			final InputStream is = zipFile.getInputStream(entry);
+			try {
+				writeEntry(is, destFile);
+			} finally {
+				is.close();
+			}
+		}
+
+		/**
+		 * 每个文件解压完成后调用
+		 * 
+		 * @param entry
+		 * @param destFile
+		 * @param completed
+		 *        已完成的文件数
+		 * @param total
+		 *        文件总数，从流中解压时为-1
+		 */
+		default void onProgress(final ZipEntry entry, final File destFile, final int completed,
+				final int total) {
+		}
+	}
+
+	private static final IUnZipHandle DEFAULT_UNZIP_HANDLE = new IUnZipHandle() {
+
+		@Override
+		public void doFile(final ZipInputStream is, final File destFile) throws IOException {
+			writeEntry(is, destFile);
+		}
+	};
+
+	private static void writeEntry(final InputStream is, final File destFile) throws IOException {
+		final OutputStream oStream = new FileOutputStream(destFile);
+		try {
+			IoUtils.copy(is, oStream);
+		} finally {
+			oStream.close();
+		}
+	}
+
+	public static void zip(final File dir, final OutputStream out) throws IOException {
+		final ZipWriter writer = new ZipWriter(out);
+		try {
+			writer.add("", dir);
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * 流式写入zip，条目可使用不同的压缩级别。已压缩过的文件类型（图片、压缩包等）缺省不再压缩
+	 */
+	public static class ZipWriter implements Closeable {
+		private final ZipOutputStream zos;
+
+		private int level = Deflater.DEFAULT_COMPRESSION;
+
+		public ZipWriter(final OutputStream out) {
+			zos = new ZipOutputStream(out instanceof BufferedOutputStream ? out
+					: new BufferedOutputStream(out, IoUtils.BUFFER * 8));
+		}
+
+		public int getLevel() {
+			return level;
+		}
+
+		/**
+		 * @param level
+		 *        缺省的压缩级别，0-9，见{@link Deflater}
+		 * @return
+		 */
+		public ZipWriter setLevel(final int level) {
+			this.level = level;
+			return this;
+		}
+
+		public ZipWriter add(final String name, final InputStream in) throws IOException {
+			return add(name, in, getLevel(name));
+		}
+
+		public ZipWriter add(final String name, final InputStream in, final int level)
+				throws IOException {
+			final ZipEntry entry = new ZipEntry(name);
+			zos.setLevel(level);
+			zos.putNextEntry(entry);
+			try {
+				IoUtils.copy(in, zos);
+			} finally {
+				in.close();
+			}
+			zos.closeEntry();
+			return this;
+		}
+
+		public ZipWriter add(final String name, final byte[] data, final int level)
+				throws IOException {
+			final ZipEntry entry = new ZipEntry(name);
+			zos.setLevel(level);
+			zos.putNextEntry(entry);
+			zos.write(data);
+			zos.closeEntry();
+			return this;
+		}
+
+		/**
+		 * 添加文件，目录时递归添加其下的所有文件
+		 * 
+		 * @param name
+		 *        条目的名称，目录时作为前缀
+		 * @param file
+		 * @return
+		 * @throws IOException
+		 */
+		public ZipWriter add(String name, final File file) throws IOException {
+			if (file.isDirectory()) {
+				if (name.length() > 0 && name.charAt(name.length() - 1) != UNIX_SEPARATOR) {
+					name += UNIX_SEPARATOR;
+				}
+				final File[] files = file.listFiles();
+				if (files != null) {
+					for (final File child : files) {
+						add(name + child.getName(), child);
+					}
+				}
+				return this;
+			}
+			final ZipEntry entry = new ZipEntry(name);
+			entry.setTime(file.lastModified());
+			zos.setLevel(getLevel(name));
+			zos.putNextEntry(entry);
+			final InputStream in = new FileInputStream(file);
+			try {
+				IoUtils.copy(in, zos);
+			} finally {
+				in.close();
+			}
+			zos.closeEntry();
+			return this;
+		}
+
+		protected int getLevel(final String name) {
+			if (STORED_EXTENSIONS.contains(getFilenameExtension(name).toLowerCase())) {
+				return Deflater.NO_COMPRESSION;
+			}
+			return level;
+		}
+
+		public void flush() throws IOException {
+			zos.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			zos.close();
+		}
 	}
 
+	static final Set<String> STORED_EXTENSIONS = new HashSet<>(Arrays.asList("zip", "jar",
+			"war", "gz", "tgz", "bz2", "xz", "7z", "rar", "jpg", "jpeg", "png", "gif", "webp",
+			"mp3", "mp4", "avi", "mov", "pdf", "docx", "xlsx", "pptx"));
+
 	public static File[] listAllFiles(final File dir, final String ext) throws IOException {
 		final FilenameFilter filter = new FilenameFilter() {
 			@Override
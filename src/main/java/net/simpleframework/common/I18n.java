@@ -1,15 +1,15 @@
 package net.simpleframework.common;
 
 import java.text.MessageFormat;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
-import java.util.regex.MatchResult;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.simpleframework.common.ClassUtils.IScanResourcesCallback;
 import net.simpleframework.common.logger.Log;
@@ -45,17 +45,31 @@ public abstract class I18n {
 	// return getCharset(getLocale());
 	// }
 
+	/* locale -> (code -> I18nMessage) */
+	private static final Map<Locale, Map<String, Object>> cachedMessages = new ConcurrentHashMap<>();
+
+	private static final Object NULL = new Object();
+
 	private static HashSet<String> basenames = new HashSet<>();
+
+	/* basenames的快照，读取时不加锁 */
+	private static volatile String[] _basenames = new String[0];
 	static {
 		addBasename(I18n.class);
 	}
 
 	public static void addBasename(final Class<?> pClazz) {
-		basenames.add(pClazz.getPackage().getName() + ".message");
+		addBasename(pClazz.getPackage().getName() + ".message");
 	}
 
 	public static void addBasename(final String name) {
-		basenames.add(name);
+		synchronized (basenames) {
+			if (basenames.add(name)) {
+				_basenames = basenames.toArray(new String[basenames.size()]);
+				// 新的basename可能覆盖已缓存的消息
+				cachedMessages.clear();
+			}
+		}
 	}
 
 	public static IScanResourcesCallback getBasenamesCallback() {
@@ -104,8 +118,29 @@ public abstract class I18n {
 	}
 
 	public static String $m(final String code, final Locale locale, final Object... args) {
+		final I18nMessage message = getMessage(code, locale);
+		if (message == null) {
+			return null;
+		}
+		if (args != null && args.length > 0) {
+			return message.format(args);
+		}
+		return message.message;
+	}
+
+	private static I18nMessage getMessage(final String code, final Locale locale) {
+		Map<String, Object> messages = cachedMessages.get(locale);
+		if (messages == null) {
+			cachedMessages.put(locale, messages = new ConcurrentHashMap<>());
+		}
+		final Object o = messages.get(code);
+		if (o != null) {
+			return o == NULL ? null : (I18nMessage) o;
+		}
+
+		final String[] arr = _basenames;
 		String result = null;
-		for (final String basename : basenames) {
+		for (final String basename : arr) {
 			final ResourceBundle bundle = getResourceBundle(basename, locale);
 			if (bundle != null) {
 				result = getStringOrNull(bundle, code);
@@ -114,11 +149,11 @@ public abstract class I18n {
 				}
 			}
 		}
-		if (result != null && args != null && args.length > 0) {
-			final MessageFormat format = new MessageFormat(result, locale);
-			result = format.format(args);
+		final I18nMessage message = result != null ? new I18nMessage(result, locale) : null;
+		if (arr == _basenames) {
+			messages.put(code, message != null ? message : NULL);
 		}
-		return result;
+		return message;
 	}
 
 	private static String getStringOrNull(final ResourceBundle bundle, final String key) {
@@ -129,53 +164,187 @@ public abstract class I18n {
 		}
 	}
 
-	private static final Map<String, Map<Locale, ResourceBundle>> cachedResourceBundles = new HashMap<>();
+	private static final Map<String, Map<Locale, Object>> cachedResourceBundles = new ConcurrentHashMap<>();
 
 	private static ResourceBundle getResourceBundle(final String basename, final Locale locale) {
-		synchronized (cachedResourceBundles) {
-			Map<Locale, ResourceBundle> localeMap = cachedResourceBundles.get(basename);
-			if (localeMap != null) {
-				final ResourceBundle bundle = localeMap.get(locale);
-				if (bundle != null) {
-					return bundle;
-				}
-			}
+		Map<Locale, Object> localeMap = cachedResourceBundles.get(basename);
+		if (localeMap == null) {
+			cachedResourceBundles.put(basename, localeMap = new ConcurrentHashMap<>());
+		}
+		Object bundle = localeMap.get(locale);
+		if (bundle == null) {
 			try {
-				final ResourceBundle bundle = ResourceBundle.getBundle(basename, locale);
-				if (localeMap == null) {
-					cachedResourceBundles.put(basename, localeMap = new HashMap<>());
-				}
-				localeMap.put(locale, bundle);
-				return bundle;
+				bundle = ResourceBundle.getBundle(basename, locale);
 			} catch (final MissingResourceException ex) {
-				return null;
+				bundle = NULL;
 			}
+			localeMap.put(locale, bundle);
 		}
+		return bundle == NULL ? null : (ResourceBundle) bundle;
 	}
 
-	private static final Pattern MESSAGE_PATTERN = Pattern
-			.compile("[\\s\\S]*(\\#\\([\\w\\.]+\\))[\\s\\S]*");
+	/**
+	 * 预编译的消息格式。只含{n}参数的消息直接拼接，其它情况使用MessageFormat
+	 */
+	private static class I18nMessage {
+		final String message;
+
+		final Locale locale;
+
+		/* 文本片段，比indexes多一个，为null时表示不能直接拼接 */
+		String[] texts;
+
+		int[] indexes;
+
+		MessageFormat format;
+
+		I18nMessage(final String message, final Locale locale) {
+			this.message = message;
+			this.locale = locale;
+			compile();
+		}
+
+		private void compile() {
+			if (message.indexOf('\'') > -1) {
+				return;
+			}
+			final List<String> tList = new ArrayList<>();
+			final List<Integer> iList = new ArrayList<>();
+			int start = 0, pos;
+			while ((pos = message.indexOf('{', start)) > -1) {
+				final int end = message.indexOf('}', pos);
+				if (end < pos + 2) {
+					return;
+				}
+				int index = 0;
+				for (int i = pos + 1; i < end; i++) {
+					final char c = message.charAt(i);
+					if (c < '0' || c > '9' || index > 9999) {
+						return;
+					}
+					index = index * 10 + (c - '0');
+				}
+				tList.add(message.substring(start, pos));
+				iList.add(index);
+				start = end + 1;
+			}
+			tList.add(message.substring(start));
+			indexes = new int[iList.size()];
+			for (int i = 0; i < indexes.length; i++) {
+				indexes[i] = iList.get(i);
+			}
+			texts = tList.toArray(new String[tList.size()]);
+		}
+
+		String format(final Object[] args) {
+			if (texts != null) {
+				boolean simple = true;
+				for (final int index : indexes) {
+					final Object arg;
+					if (index < args.length
+							&& ((arg = args[index]) instanceof Number || arg instanceof Date)) {
+						// 数字和日期需要按locale格式化
+						simple = false;
+						break;
+					}
+				}
+				if (simple) {
+					final StringBuilder sb = new StringBuilder(message.length() + 16 * indexes.length);
+					sb.append(texts[0]);
+					for (int i = 0; i < indexes.length; i++) {
+						final int index = indexes[i];
+						if (index < args.length) {
+							sb.append(args[index]);
+						} else {
+							sb.append('{').append(index).append('}');
+						}
+						sb.append(texts[i + 1]);
+					}
+					return sb.toString();
+				}
+			}
+			if (format == null) {
+				format = new MessageFormat(message, locale);
+			}
+			// MessageFormat不是线程安全的
+			return ((MessageFormat) format.clone()).format(args);
+		}
+	}
 
-	public static String replaceI18n(String template) {
+	/**
+	 * 替换模板中的#(code)
+	 * 
+	 * @param template
+	 * @return
+	 */
+	public static String replaceI18n(final String template) {
 		if (template == null) {
 			return "";
 		}
-		while (true) {
-			final Matcher matcher = MESSAGE_PATTERN.matcher(template);
-			if (matcher.matches()) {
-				final MatchResult result = matcher.toMatchResult();
-				final String group = result.group(1);
-				Object object = $m(group.substring(2, group.length() - 1));
-				if (object == null) {
-					object = "";
+		return compileI18n(template).toString();
+	}
+
+	/**
+	 * 编译模板，返回的对象可以在多次调用间重用
+	 * 
+	 * @param template
+	 * @return
+	 */
+	public static I18nTemplate compileI18n(final String template) {
+		return new I18nTemplate(template);
+	}
+
+	public static class I18nTemplate {
+		/* 文本片段，奇数位置为code */
+		private final String[] segments;
+
+		I18nTemplate(final String template) {
+			final List<String> list = new ArrayList<>();
+			if (template != null) {
+				final int len = template.length();
+				int start = 0, pos = 0;
+				while ((pos = template.indexOf("#(", pos)) > -1) {
+					int i = pos + 2;
+					char c;
+					while (i < len && ((c = template.charAt(i)) == '.' || c == '_' || (c >= 'a' && c <= 'z')
+							|| (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))) {
+						i++;
+					}
+					if (i > pos + 2 && i < len && template.charAt(i) == ')') {
+						list.add(template.substring(start, pos));
+						list.add(template.substring(pos + 2, i));
+						start = pos = i + 1;
+					} else {
+						pos += 2;
+					}
+				}
+				list.add(template.substring(start));
+			}
+			segments = list.toArray(new String[list.size()]);
+		}
+
+		public String toString(final Locale locale) {
+			if (segments.length == 1) {
+				return segments[0];
+			}
+			final StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < segments.length; i++) {
+				if (i % 2 == 0) {
+					sb.append(segments[i]);
+				} else {
+					final String val = $m(segments[i], locale, (Object[]) null);
+					if (val != null) {
+						sb.append(val.indexOf("#(") > -1 ? compileI18n(val).toString(locale) : val);
+					}
 				}
-				template = template.substring(0, result.start(1)) + object
-						+ template.substring(result.end(1));
-			} else {
-				break;
 			}
+			return sb.toString();
+		}
+
+		@Override
+		public String toString() {
+			return toString(getLocale());
 		}
-		return template;
 	}
 
 	static Log log = LogFactory.getLogger(I18n.class);
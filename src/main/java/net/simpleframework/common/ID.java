@@ -1,7 +1,9 @@
 package net.simpleframework.common;
 
 import java.io.Serializable;
+import java.security.SecureRandom;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 import net.simpleframework.common.object.ObjectUtils;
 import net.simpleframework.lib.net.minidev.json.JSONAware;
@@ -26,9 +28,11 @@ public abstract class ID {
 			return (ID) id;
 		}
 		if (id instanceof Long || Long.class.isAssignableFrom(_type)) {
-			return new LongID(Convert.toLong(id));
+			return LongID.valueOf(id instanceof Number ? ((Number) id).longValue() : Convert
+					.toLong(id));
 		} else if (id instanceof Number || Number.class.isAssignableFrom(_type)) {
-			return new IntegerID(Convert.toInt(id));
+			return IntegerID.valueOf(id instanceof Number ? ((Number) id).intValue() : Convert
+					.toInt(id));
 		} else {
 			if (id == null) {
 				return null;
@@ -38,31 +42,105 @@ public abstract class ID {
 		}
 	}
 
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
 	public static StringID uuid() {
-		final String s = UUID.randomUUID().toString();
-		final StringBuilder sb = new StringBuilder(32);
-		sb.append(s.substring(0, 8)).append(s.substring(9, 13)).append(s.substring(14, 18))
-				.append(s.substring(19, 23)).append(s.substring(24));
-		return new StringID(sb.toString());
+		final UUID uuid = UUID.randomUUID();
+		final char[] c = new char[32];
+		toHex(uuid.getMostSignificantBits(), c, 0);
+		toHex(uuid.getLeastSignificantBits(), c, 16);
+		return new StringID(new String(c));
 	}
 
-	static Object lock = new Object();
+	private static void toHex(long l, final char[] c, final int offset) {
+		for (int i = offset + 15; i >= offset; i--) {
+			c[i] = HEX[(int) (l & 0xf)];
+			l >>>= 4;
+		}
+	}
 
-	static long COUNTER = 0;
+	static final AtomicLong COUNTER = new AtomicLong();
 
 	/**
 	 * 在同一个虚拟机下产生一个唯一的ID，其格式为[time] - [counter]
 	 */
 	public static StringID uid() {
 		final long time = System.currentTimeMillis();
-		long id;
-		synchronized (lock) {
-			id = COUNTER++;
-		}
+		final long id = COUNTER.getAndIncrement();
 		return new StringID(
 				Long.toString(time, Character.MAX_RADIX) + Long.toString(id, Character.MAX_RADIX));
 	}
 
+	/* 2015-01-01 00:00:00 UTC */
+	static final long EPOCH = 1420070400000l;
+
+	static final int NODE_BITS = 10, SEQUENCE_BITS = 12;
+
+	static final long MAX_NODE = (1 << NODE_BITS) - 1, SEQUENCE_MASK = (1 << SEQUENCE_BITS) - 1;
+
+	/* [time - EPOCH] << SEQUENCE_BITS | sequence */
+	static final AtomicLong LAST = new AtomicLong();
+
+	private static volatile long _node = -1;
+
+	/**
+	 * 设置nextId的节点号，范围0-1023，多个虚拟机共享数据时须各不相同
+	 * 
+	 * @param node
+	 */
+	public static synchronized void setNode(final int node) {
+		if (node < 0 || node > MAX_NODE) {
+			throw new IllegalArgumentException("node: " + node);
+		}
+		_node = node;
+	}
+
+	static long getNode() {
+		final long node = _node;
+		return node >= 0 ? node : initNode();
+	}
+
+	private static synchronized long initNode() {
+		long node = _node;
+		if (node < 0) {
+			// 缺省取mac地址的低位
+			try {
+				final byte[] mac = IoUtils.getMacAddressBytes();
+				if (mac != null && mac.length >= 2) {
+					node = (((mac[mac.length - 2] & 0xff) << 8) | (mac[mac.length - 1] & 0xff)) & MAX_NODE;
+				}
+			} catch (final Throwable e) {
+			}
+			if (node < 0) {
+				node = new SecureRandom().nextInt((int) MAX_NODE + 1);
+			}
+			_node = node;
+		}
+		return node;
+	}
+
+	/**
+	 * 产生一个单调递增的long型ID，其格式为[41位毫秒] - [10位节点] - [12位序号]。
+	 * 同一毫秒内序号用完或时钟回拨时，借用后面的毫秒，保证不重复
+	 * 
+	 * @return
+	 */
+	public static long nextId() {
+		final long node = getNode();
+		long last, next;
+		do {
+			last = LAST.get();
+			final long time = System.currentTimeMillis() - EPOCH;
+			next = time > (last >>> SEQUENCE_BITS) ? time << SEQUENCE_BITS : last + 1;
+		} while (!LAST.compareAndSet(last, next));
+		return ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS))
+				| (node << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+	}
+
+	public static LongID lid() {
+		return new LongID(nextId());
+	}
+
 	/**
 	 * 获取id的值
 	 * 
@@ -70,6 +148,8 @@ public abstract class ID {
 	 */
 	public abstract Object getValue();
 
+	static final int CACHE_LOW = -128, CACHE_HIGH = 1024;
+
 	@SuppressWarnings("serial")
 	public static abstract class AbstractID<T extends Comparable<T>> extends ID
 			implements Comparable<AbstractID<T>>, Serializable, JSONAware {
@@ -87,6 +167,13 @@ public abstract class ID {
 
 		@Override
 		public boolean equals(final Object obj) {
+			if (obj == this) {
+				return true;
+			}
+			if (obj != null && obj.getClass() == getClass()) {
+				final Object id2 = ((AbstractID<?>) obj).id;
+				return id != null ? id.equals(id2) : id2 == null;
+			}
 			if (!(obj instanceof ID)) {
 				return false;
 			}
@@ -137,6 +224,26 @@ public abstract class ID {
 			this.id = id;
 		}
 
+		/**
+		 * 返回IntegerID，小的值使用缓存的实例
+		 * 
+		 * @param id
+		 * @return
+		 */
+		public static IntegerID valueOf(final int id) {
+			if (id >= CACHE_LOW && id <= CACHE_HIGH) {
+				return CACHE[id - CACHE_LOW];
+			}
+			return new IntegerID(id);
+		}
+
+		private static final IntegerID[] CACHE = new IntegerID[CACHE_HIGH - CACHE_LOW + 1];
+		static {
+			for (int i = 0; i < CACHE.length; i++) {
+				CACHE[i] = new IntegerID(i + CACHE_LOW);
+			}
+		}
+
 		private static final long serialVersionUID = 8864098349861539868L;
 	}
 
@@ -148,6 +255,20 @@ public abstract class ID {
 			this.id = id;
 		}
 
+		public static LongID valueOf(final long id) {
+			if (id >= CACHE_LOW && id <= CACHE_HIGH) {
+				return CACHE[(int) id - CACHE_LOW];
+			}
+			return new LongID(id);
+		}
+
+		private static final LongID[] CACHE = new LongID[CACHE_HIGH - CACHE_LOW + 1];
+		static {
+			for (int i = 0; i < CACHE.length; i++) {
+				CACHE[i] = new LongID(i + CACHE_LOW);
+			}
+		}
+
 		private static final long serialVersionUID = 4193421687986152568L;
 	}
 }
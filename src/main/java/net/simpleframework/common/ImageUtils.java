@@ -7,6 +7,7 @@ import java.awt.GradientPaint;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.RenderingHints;
+import java.awt.Transparency;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
@@ -103,48 +104,58 @@ public abstract class ImageUtils {
 	public static void thumbnail(final InputStream inputStream, int width, int height,
 			final boolean stretch, final OutputStream outputStream, String filetype)
 			throws IOException {
-		int w, h;
-		final BufferedImage sbi = ImageIO.read(inputStream);
-		if (sbi == null) {
+		final ImageInput input = ImageInput.of(inputStream);
+		if (input == null) {
 			doBufferedImageNull(inputStream, outputStream);
 			return;
 		}
-		if (width == 0) {
-			width = sbi.getWidth();
-		}
-		if (height == 0) {
-			height = sbi.getHeight();
-		}
+		final BufferedImage sbi;
+		int w, h;
+		try {
+			final int sw = input.getWidth(), sh = input.getHeight();
+			if (width == 0) {
+				width = sw;
+			}
+			if (height == 0) {
+				height = sh;
+			}
 
-		if (!stretch) {
-			final double d = (double) width / (double) height;
-			final double d0 = (double) sbi.getWidth() / (double) sbi.getHeight();
-			if (d < d0) {
-				w = width;
-				h = (int) (width / d0);
+			if (!stretch) {
+				final double d = (double) width / (double) height;
+				final double d0 = (double) sw / (double) sh;
+				if (d < d0) {
+					w = width;
+					h = (int) (width / d0);
+				} else {
+					w = (int) (height * d0);
+					h = height;
+				}
 			} else {
-				w = (int) (height * d0);
+				w = width;
 				h = height;
 			}
-		} else {
-			w = width;
-			h = height;
+			w = Math.max(w, 1);
+			h = Math.max(h, 1);
+			sbi = input.read(w, h);
+		} finally {
+			input.close();
 		}
 
 		final boolean alpha = sbi.getAlphaRaster() != null;
 		final BufferedImage bi = new BufferedImage(width, height, getType(sbi));
 		final Graphics2D g = createGraphics(bi);
+		final BufferedImage rbi = resize(sbi, w, h);
 		if (w == width && h == height) {
-			g.drawImage(sbi, 0, 0, w, h, null);
+			g.drawImage(rbi, 0, 0, null);
 		} else {
 			if (!alpha) {
 				g.setBackground(Color.white);
 				g.fillRect(0, 0, width, height);
 			}
 			if (w != width) {
-				g.drawImage(sbi, Math.abs(w - width) / 2, 0, w, h, null);
+				g.drawImage(rbi, Math.abs(w - width) / 2, 0, null);
 			} else {
-				g.drawImage(sbi, 0, Math.abs(h - height) / 2, w, h, null);
+				g.drawImage(rbi, 0, Math.abs(h - height) / 2, null);
 			}
 		}
 		g.dispose();
@@ -159,19 +170,32 @@ public abstract class ImageUtils {
 		final int w = (int) (sbi.getWidth() * d), h = (int) (sbi.getHeight() * d);
 		final BufferedImage bi = new BufferedImage(w, h, getType(sbi));
 		final Graphics2D g = createGraphics(bi);
-		g.drawImage(sbi, 0, 0, w, h, null);
+		g.drawImage(resize(sbi, w, h), 0, 0, null);
 		g.dispose();
 		ImageIO.write(bi, filetype, outputStream);
 	}
 
 	public static void thumbnail(final InputStream inputStream, final double d,
 			final OutputStream outputStream, final String filetype) throws IOException {
-		BufferedImage sbi;
-		if (d == 1 || (sbi = ImageIO.read(inputStream)) == null) {
+		final ImageInput input;
+		if (d == 1 || (input = ImageInput.of(inputStream)) == null) {
 			doBufferedImageNull(inputStream, outputStream);
 			return;
 		}
-		thumbnail(sbi, d, outputStream, filetype);
+		final BufferedImage sbi;
+		final int w, h;
+		try {
+			w = (int) (input.getWidth() * d);
+			h = (int) (input.getHeight() * d);
+			sbi = input.read(w, h);
+		} finally {
+			input.close();
+		}
+		final BufferedImage bi = new BufferedImage(w, h, getType(sbi));
+		final Graphics2D g = createGraphics(bi);
+		g.drawImage(resize(sbi, w, h), 0, 0, null);
+		g.dispose();
+		ImageIO.write(bi, filetype, outputStream);
 	}
 
 	public static void thumbnail(final InputStream inputStream, final double d,
@@ -181,25 +205,32 @@ public abstract class ImageUtils {
 
 	public static void scale(final InputStream inputStream, final int width, final int height,
 			final OutputStream outputStream, String filetype) throws IOException {
-		final BufferedImage sbi = ImageIO.read(inputStream);
-		if (sbi == null) {
+		final ImageInput input = ImageInput.of(inputStream);
+		if (input == null) {
 			doBufferedImageNull(inputStream, outputStream);
 			return;
 		}
 
+		final BufferedImage sbi;
 		int w, h;
-		if (width == 0 && height == 0) {
-			w = sbi.getWidth();
-			h = sbi.getHeight();
-		} else {
-			w = width;
-			h = height;
-			final double d0 = (double) sbi.getWidth() / (double) sbi.getHeight();
-			if (w == 0) {
-				w = (int) (h * d0);
-			} else if (h == 0) {
-				h = (int) (w / d0);
+		try {
+			final int sw = input.getWidth(), sh = input.getHeight();
+			if (width == 0 && height == 0) {
+				w = sw;
+				h = sh;
+			} else {
+				w = width;
+				h = height;
+				final double d0 = (double) sw / (double) sh;
+				if (w == 0) {
+					w = (int) (h * d0);
+				} else if (h == 0) {
+					h = (int) (w / d0);
+				}
 			}
+			sbi = input.read(w, h);
+		} finally {
+			input.close();
 		}
 
 		final BufferedImage bi = new BufferedImage(w, h, getType(sbi));
@@ -209,7 +240,7 @@ public abstract class ImageUtils {
 			g.setBackground(Color.white);
 			g.fillRect(0, 0, width, height);
 		}
-		g.drawImage(sbi, 0, 0, w, h, null);
+		g.drawImage(resize(sbi, w, h), 0, 0, null);
 		g.dispose();
 		if (filetype == null) {
 			filetype = alpha ? "png" : "jpg";
@@ -217,6 +248,89 @@ public abstract class ImageUtils {
 		ImageIO.write(bi, filetype, outputStream);
 	}
 
+	/**
+	 * 缩放图片。缩小时每次最多缩小一半，多次双线性插值，比一次缩放的质量好
+	 * 
+	 * @param sbi
+	 * @param width
+	 * @param height
+	 * @return
+	 */
+	public static BufferedImage resize(final BufferedImage sbi, final int width, final int height) {
+		BufferedImage bi = sbi;
+		int w = sbi.getWidth(), h = sbi.getHeight();
+		if (w == width && h == height) {
+			return sbi;
+		}
+		// 带透明色的索引图（如gif、png8）没有alpha通道，也需保留透明
+		final int type = sbi.getTransparency() != Transparency.OPAQUE ? BufferedImage.TYPE_INT_ARGB
+				: BufferedImage.TYPE_INT_RGB;
+		do {
+			w = w > width ? Math.max(w / 2, width) : width;
+			h = h > height ? Math.max(h / 2, height) : height;
+			final BufferedImage tmp = new BufferedImage(w, h, type);
+			final Graphics2D g = createGraphics(tmp);
+			g.drawImage(bi, 0, 0, w, h, null);
+			g.dispose();
+			bi = tmp;
+		} while (w != width || h != height);
+		return bi;
+	}
+
+	/**
+	 * 按目标大小解码图片。源图远大于目标时，解码时隔行隔列采样（保留目标的2倍以上，再由resize缩小），
+	 * 避免大图整张解码到内存
+	 */
+	static class ImageInput {
+		static ImageInput of(final InputStream inputStream) throws IOException {
+			final ImageInputStream iis = ImageIO.createImageInputStream(inputStream);
+			if (iis == null) {
+				return null;
+			}
+			final Iterator<ImageReader> it = ImageIO.getImageReaders(iis);
+			if (!it.hasNext()) {
+				iis.close();
+				return null;
+			}
+			final ImageReader reader = it.next();
+			reader.setInput(iis, true, true);
+			return new ImageInput(reader, iis);
+		}
+
+		private final ImageReader reader;
+
+		private final ImageInputStream iis;
+
+		private ImageInput(final ImageReader reader, final ImageInputStream iis) {
+			this.reader = reader;
+			this.iis = iis;
+		}
+
+		int getWidth() throws IOException {
+			return reader.getWidth(0);
+		}
+
+		int getHeight() throws IOException {
+			return reader.getHeight(0);
+		}
+
+		BufferedImage read(final int width, final int height) throws IOException {
+			final ImageReadParam param = reader.getDefaultReadParam();
+			if (width > 0 && height > 0) {
+				final int s = Math.min(getWidth() / (width * 2), getHeight() / (height * 2));
+				if (s > 1) {
+					param.setSourceSubsampling(s, s, 0, 0);
+				}
+			}
+			return reader.read(0, param);
+		}
+
+		void close() throws IOException {
+			reader.dispose();
+			iis.close();
+		}
+	}
+
 	private static int getType(final BufferedImage sbi) {
 		final int type = sbi.getType();
 		return type == 0 ? BufferedImage.TYPE_3BYTE_BGR : type;
@@ -225,6 +339,8 @@ public abstract class ImageUtils {
 	private static Graphics2D createGraphics(final BufferedImage bi) {
 		final Graphics2D g = bi.createGraphics();
 		g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+				RenderingHints.VALUE_INTERPOLATION_BILINEAR);
 		return g;
 	}
 
@@ -1,18 +1,26 @@
 package net.simpleframework.common;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.PrintWriter;
 import java.io.Reader;
-import java.io.StringWriter;
 import java.lang.reflect.Method;
 import java.net.InetAddress;
 import java.net.NetworkInterface;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -37,25 +45,38 @@ public abstract class IoUtils {
 
 	public static String getStringFromInputStream(final InputStream inputStream,
 			final String charsetName) throws IOException {
-		return getStringFromReader(new InputStreamReader(inputStream, charsetName));
+		if (inputStream == null) {
+			return null;
+		}
+		try {
+			// 整体读取后一次解码
+			final ByteArrayOutputStream bos = new ByteArrayOutputStream(
+					Math.max(inputStream.available(), BUFFER));
+			copy(inputStream, bos);
+			return bos.toString(charsetName);
+		} finally {
+			inputStream.close();
+		}
 	}
 
+	/**
+	 * 读取reader的全部内容，保留原有的换行
+	 * 
+	 * @param reader
+	 * @return
+	 * @throws IOException
+	 */
 	public static String getStringFromReader(final Reader reader) throws IOException {
-		BufferedReader br = null;
 		try {
-			br = new BufferedReader(reader);
-			final StringWriter sw = new StringWriter();
-			final PrintWriter writer = new PrintWriter(sw);
-			String s;
-			while ((s = br.readLine()) != null) {
-				writer.println(s);
+			final StringBuilder sb = new StringBuilder(BUFFER);
+			final char[] cbuf = new char[BUFFER / 2];
+			int n;
+			while ((n = reader.read(cbuf)) != -1) {
+				sb.append(cbuf, 0, n);
 			}
-			writer.flush();
-			return sw.toString();
+			return sb.toString();
 		} finally {
-			if (br != null) {
-				br.close();
-			}
+			reader.close();
 		}
 	}
 
@@ -86,18 +107,173 @@ public abstract class IoUtils {
 		if (inputStream == null || outputStream == null) {
 			return 0;
 		}
-		int result = 0;
-		final byte[] buf = new byte[bufferSize];
-		for (;;) {
-			final int numRead = inputStream.read(buf);
-			if (numRead == -1) {
+		final long result = copy(inputStream, outputStream, bufferSize);
+		outputStream.flush();
+		return (int) result;
+	}
+
+	public static long copy(final InputStream inputStream, final OutputStream outputStream)
+			throws IOException {
+		return copy(inputStream, outputStream, BUFFER);
+	}
+
+	/**
+	 * 复制流，返回复制的字节数。输入为有长度的普通文件时使用FileChannel的transferTo
+	 * 
+	 * @param inputStream
+	 * @param outputStream
+	 * @param bufferSize
+	 * @return
+	 * @throws IOException
+	 */
+	public static long copy(final InputStream inputStream, final OutputStream outputStream,
+			final int bufferSize) throws IOException {
+		// 子类可能改写了read/write，只处理文件流本身
+		if (inputStream.getClass() == FileInputStream.class) {
+			final FileChannel in = ((FileInputStream) inputStream).getChannel();
+			if (isTransferable(in)) {
+				if (outputStream.getClass() == FileOutputStream.class) {
+					return transferTo(in, ((FileOutputStream) outputStream).getChannel());
+				}
+				return transferTo(in, Channels.newChannel(outputStream));
+			}
+		}
+
+		// 缺省大小的缓冲线程内复用
+		final byte[] cached = bufferSize == BUFFER ? BUFFERS.get() : null;
+		final byte[] buf;
+		if (cached != null) {
+			// 使用期间置空，重入时（如write中再次copy）另建缓冲
+			BUFFERS.set(null);
+			buf = cached;
+		} else {
+			buf = new byte[bufferSize];
+		}
+		try {
+			long result = 0;
+			int n;
+			while ((n = inputStream.read(buf)) != -1) {
+				outputStream.write(buf, 0, n);
+				result += n;
+			}
+			return result;
+		} finally {
+			if (cached != null) {
+				BUFFERS.set(cached);
+			}
+		}
+	}
+
+	/**
+	 * 复制通道，返回复制的字节数。输入为有长度的普通文件时不经过用户空间的缓冲
+	 * 
+	 * @param in
+	 * @param out
+	 * @return
+	 * @throws IOException
+	 */
+	public static long copy(final ReadableByteChannel in, final WritableByteChannel out)
+			throws IOException {
+		if (in instanceof FileChannel && isTransferable((FileChannel) in)) {
+			return transferTo((FileChannel) in, out);
+		}
+		final ByteBuffer buffer = acquireBuffer();
+		try {
+			long result = 0;
+			while (in.read(buffer) != -1) {
+				buffer.flip();
+				while (buffer.hasRemaining()) {
+					result += out.write(buffer);
+				}
+				buffer.clear();
+			}
+			return result;
+		} finally {
+			releaseBuffer(buffer);
+		}
+	}
+
+	/*
+	 * 管道、设备及/proc下的文件size()为0，transferTo读不到内容，需按流读取
+	 */
+	private static boolean isTransferable(final FileChannel in) throws IOException {
+		return in.size() > 0;
+	}
+
+	/**
+	 * 从in的当前位置复制到末尾，完成后in的位置移到末尾。in须为普通文件，按size()确定末尾
+	 */
+	public static long transferTo(final FileChannel in, final WritableByteChannel out)
+			throws IOException {
+		final long start = in.position(), size = in.size();
+		long pos = start;
+		while (pos < size) {
+			final long n = in.transferTo(pos, size - pos, out);
+			if (n <= 0) {
 				break;
 			}
-			outputStream.write(buf, 0, numRead);
-			result += numRead;
+			pos += n;
+		}
+		in.position(pos);
+		return pos - start;
+	}
+
+	/**
+	 * 从out的当前位置写入in的全部内容，完成后out的位置移到写入的末尾
+	 */
+	public static long transferFrom(final ReadableByteChannel in, final FileChannel out)
+			throws IOException {
+		final long start = out.position();
+		long pos = start;
+		if (in instanceof FileChannel) {
+			final FileChannel fin = (FileChannel) in;
+			final long count = fin.size() - fin.position();
+			while (pos - start < count) {
+				final long n = out.transferFrom(fin, pos, count - (pos - start));
+				if (n <= 0) {
+					break;
+				}
+				pos += n;
+			}
+			fin.position(fin.position() + (pos - start));
+		} else {
+			for (;;) {
+				final long n = out.transferFrom(in, pos, TRANSFER_SIZE);
+				if (n <= 0) {
+					// 非阻塞通道可能返回0，这里只处理阻塞的流
+					break;
+				}
+				pos += n;
+			}
+		}
+		out.position(pos);
+		return pos - start;
+	}
+
+	static final long TRANSFER_SIZE = 8 * 1024 * 1024;
+
+	private static final ThreadLocal<byte[]> BUFFERS = new ThreadLocal<byte[]>() {
+		@Override
+		protected byte[] initialValue() {
+			return new byte[BUFFER];
+		}
+	};
+
+	static final int DIRECT_BUFFER = 64 * 1024, MAX_DIRECT_BUFFERS = 16;
+
+	private static final Queue<ByteBuffer> DIRECT_BUFFERS = new ConcurrentLinkedQueue<>();
+
+	private static ByteBuffer acquireBuffer() {
+		final ByteBuffer buffer = DIRECT_BUFFERS.poll();
+		return buffer != null ? buffer : ByteBuffer.allocateDirect(DIRECT_BUFFER);
+	}
+
+	private static void releaseBuffer(final ByteBuffer buffer) {
+		buffer.clear();
+		// size()需遍历，这里只是粗略限制
+		if (DIRECT_BUFFERS.size() < MAX_DIRECT_BUFFERS) {
+			DIRECT_BUFFERS.offer(buffer);
 		}
-		outputStream.flush();
-		return result;
 	}
 
 	/*********************************
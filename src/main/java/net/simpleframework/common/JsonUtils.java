@@ -3,6 +3,9 @@ package net.simpleframework.common;
 import static net.simpleframework.lib.net.minidev.json.parser.JSONParser.DEFAULT_PERMISSIVE_MODE;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -47,6 +50,247 @@ public abstract class JsonUtils {
 		return sb.toString();
 	}
 
+	/**
+	 * 以utf-8直接写入输出流，不生成中间的字符串。编码使用线程内复用的缓冲区
+	 * 
+	 * @param data
+	 * @param out
+	 * @param style
+	 *        为null时使用JSONValue.COMPRESSION
+	 * @throws IOException
+	 */
+	public static void writeJSON(final Object data, final OutputStream out, final JSONStyle style)
+			throws IOException {
+		final Utf8Appender appender = Utf8Appender.get();
+		try {
+			appender.out = out;
+			JSONValue.writeJSONString(data, appender, style != null ? style : JSONValue.COMPRESSION);
+			appender.flush();
+		} finally {
+			appender.release();
+		}
+	}
+
+	/**
+	 * 以utf-8写入buffer，空间不足时抛出BufferOverflowException，已写入的部分不回退
+	 * 
+	 * @param data
+	 * @param buffer
+	 * @param style
+	 *        为null时使用JSONValue.COMPRESSION
+	 * @throws IOException
+	 */
+	public static void writeJSON(final Object data, final ByteBuffer buffer, final JSONStyle style)
+			throws IOException {
+		final Utf8Appender appender = Utf8Appender.get();
+		try {
+			appender.buffer = buffer;
+			JSONValue.writeJSONString(data, appender, style != null ? style : JSONValue.COMPRESSION);
+			appender.flush();
+		} finally {
+			appender.release();
+		}
+	}
+
+	public static void writeJSON(final Object data, final Writer out, final JSONStyle style)
+			throws IOException {
+		// Writer.append(csq, start, end)会产生子串，先写入字符缓冲区
+		final CharAppender appender = new CharAppender(out);
+		JSONValue.writeJSONString(data, appender, style != null ? style : JSONValue.COMPRESSION);
+		appender.flush();
+	}
+
+	/**
+	 * 清除当前线程缓存的输出缓冲及共享解析器的状态，并一并清除Convert、BinarySerializer的线程缓存。容器的线程在应用卸载后仍然存在，
+	 * 请求结束时（如在Filter中）调用，避免线程继续引用应用的ClassLoader
+	 */
+	public static void clearThreadCache() {
+		Utf8Appender.appenders.remove();
+		JSONParser.clearThreadCache();
+		Convert.clearThreadCache();
+		BinarySerializer.clearThreadCache();
+	}
+
+	private static class Utf8Appender implements Appendable {
+		private static ThreadLocal<Utf8Appender> appenders = new ThreadLocal<>();
+
+		static Utf8Appender get() {
+			Utf8Appender appender = appenders.get();
+			if (appender == null) {
+				appenders.set(appender = new Utf8Appender());
+			} else if (appender.inUse) {
+				// 重入时使用临时的
+				return new Utf8Appender();
+			}
+			appender.inUse = true;
+			return appender;
+		}
+
+		private final byte[] buf = new byte[8 * 1024];
+
+		private int count;
+
+		/* 未配对的高位代理字符 */
+		private char high;
+
+		private boolean inUse;
+
+		OutputStream out;
+
+		ByteBuffer buffer;
+
+		@Override
+		public Appendable append(final CharSequence csq) throws IOException {
+			return csq == null ? append("null", 0, 4) : append(csq, 0, csq.length());
+		}
+
+		@Override
+		public Appendable append(final CharSequence csq, final int start, final int end)
+				throws IOException {
+			if (csq == null) {
+				return append("null", start, end);
+			}
+			final byte[] buf = this.buf;
+			for (int i = start; i < end; i++) {
+				if (count > buf.length - 4) {
+					flushBuffer();
+				}
+				final char c = csq.charAt(i);
+				if (c < 0x80 && high == 0) {
+					buf[count++] = (byte) c;
+				} else {
+					encode(c);
+				}
+			}
+			return this;
+		}
+
+		@Override
+		public Appendable append(final char c) throws IOException {
+			if (count > buf.length - 4) {
+				flushBuffer();
+			}
+			encode(c);
+			return this;
+		}
+
+		private void encode(final char c) {
+			final byte[] buf = this.buf;
+			if (high != 0) {
+				final char h = high;
+				high = 0;
+				if (Character.isLowSurrogate(c)) {
+					final int cp = Character.toCodePoint(h, c);
+					buf[count++] = (byte) (0xF0 | cp >> 18);
+					buf[count++] = (byte) (0x80 | cp >> 12 & 0x3F);
+					buf[count++] = (byte) (0x80 | cp >> 6 & 0x3F);
+					buf[count++] = (byte) (0x80 | cp & 0x3F);
+					return;
+				}
+				// 与String.getBytes一致，不能编码的字符写为?
+				buf[count++] = '?';
+			}
+			if (c < 0x80) {
+				buf[count++] = (byte) c;
+			} else if (c < 0x800) {
+				buf[count++] = (byte) (0xC0 | c >> 6);
+				buf[count++] = (byte) (0x80 | c & 0x3F);
+			} else if (Character.isHighSurrogate(c)) {
+				high = c;
+			} else if (Character.isLowSurrogate(c)) {
+				buf[count++] = '?';
+			} else {
+				buf[count++] = (byte) (0xE0 | c >> 12);
+				buf[count++] = (byte) (0x80 | c >> 6 & 0x3F);
+				buf[count++] = (byte) (0x80 | c & 0x3F);
+			}
+		}
+
+		private void flushBuffer() throws IOException {
+			if (count > 0) {
+				if (out != null) {
+					out.write(buf, 0, count);
+				} else {
+					buffer.put(buf, 0, count);
+				}
+				count = 0;
+			}
+		}
+
+		void flush() throws IOException {
+			if (high != 0) {
+				high = 0;
+				buf[count++] = '?';
+			}
+			flushBuffer();
+		}
+
+		void release() {
+			out = null;
+			buffer = null;
+			count = 0;
+			high = 0;
+			inUse = false;
+		}
+	}
+
+	private static class CharAppender implements Appendable {
+		private final char[] buf = new char[4 * 1024];
+
+		private int count;
+
+		private final Writer out;
+
+		CharAppender(final Writer out) {
+			this.out = out;
+		}
+
+		@Override
+		public Appendable append(final CharSequence csq) throws IOException {
+			return csq == null ? append("null", 0, 4) : append(csq, 0, csq.length());
+		}
+
+		@Override
+		public Appendable append(final CharSequence csq, int start, final int end)
+				throws IOException {
+			if (csq == null) {
+				return append("null", start, end);
+			}
+			while (start < end) {
+				if (count == buf.length) {
+					flush();
+				}
+				final int n = Math.min(end - start, buf.length - count);
+				if (csq instanceof String) {
+					((String) csq).getChars(start, start + n, buf, count);
+					count += n;
+					start += n;
+				} else {
+					for (int i = 0; i < n; i++) {
+						buf[count++] = csq.charAt(start++);
+					}
+				}
+			}
+			return this;
+		}
+
+		@Override
+		public Appendable append(final char c) throws IOException {
+			if (count == buf.length) {
+				flush();
+			}
+			buf[count++] = c;
+			return this;
+		}
+
+		void flush() throws IOException {
+			if (count > 0) {
+				out.write(buf, 0, count);
+				count = 0;
+			}
+		}
+	}
+
 	/*-------------------------------json-to-bean-------------------------------*/
 
 	public static Map<String, Object> toMap(final String json) {
@@ -62,12 +306,12 @@ public abstract class JsonUtils {
 		return toList(json, JSONObject.class);
 	}
 
-	private static JSONParser JSON_PARSER = new JSONParser(DEFAULT_PERMISSIVE_MODE);
-
 	@SuppressWarnings("unchecked")
 	public static <T, M extends T> List<T> toList(final String json, final Class<M> beanClass) {
 		try {
-			return (List<T>) JSON_PARSER.parse(json, new ListMapper<T>(beanClass));
+			// 共享的解析器，各线程使用自己的解析状态
+			return (List<T>) JSONParser.getShared(DEFAULT_PERMISSIVE_MODE).parse(json,
+					new ListMapper<T>(beanClass));
 		} catch (final ParseException e) {
 			log.warn(e);
 			return null;
@@ -0,0 +1,268 @@
+package net.simpleframework.common;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import net.simpleframework.common.logger.Log;
+import net.simpleframework.common.logger.LogFactory;
+
+/**
+ * Licensed under the Apache License, Version 2.0
+ *
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public abstract class ResourceIndex {
+	static Log log = LogFactory.getLogger(ResourceIndex.class);
+
+	/* jar的绝对路径 -> 条目 */
+	private static final Map<String, JarIndex> jars = new ConcurrentHashMap<>();
+
+	private static volatile boolean loaded, dirty;
+
+	private static volatile File cacheFile = getDefaultCacheFile();
+
+	/*
+	 * 缺省只在内存中索引。缓存文件的内容不再校验，需由系统属性指定到只有当前用户可写的位置
+	 */
+	private static File getDefaultCacheFile() {
+		final String path = System.getProperty("simpleframework.resources.index");
+		return path != null && path.length() > 0 ? new File(path) : null;
+	}
+
+	public static File getCacheFile() {
+		return cacheFile;
+	}
+
+	/**
+	 * 设置索引的缓存文件，为null时不保存。文件所在的目录不应被其它用户写入
+	 *
+	 * @param file
+	 */
+	public static synchronized void setCacheFile(final File file) {
+		cacheFile = file;
+		loaded = false;
+	}
+
+	public static void clear() {
+		jars.clear();
+	}
+
+	/**
+	 * 取jar中的所有条目，按jar中的顺序。jar的修改时间或大小变化时重建
+	 *
+	 * @param jarFile
+	 * @return
+	 * @throws IOException
+	 */
+	public static String[] getEntries(final File jarFile) throws IOException {
+		load();
+		final String key = jarFile.getAbsolutePath();
+		final long lastModified = jarFile.lastModified(), length = jarFile.length();
+		JarIndex index = jars.get(key);
+		if (index == null || index.lastModified != lastModified || index.length != length) {
+			index = new JarIndex(lastModified, length, readEntries(jarFile));
+			jars.put(key, index);
+			dirty = true;
+		}
+		return index.entries;
+	}
+
+	/**
+	 * 并行建立多个jar的索引
+	 *
+	 * @param jarFiles
+	 * @throws IOException
+	 */
+	public static void index(final Collection<File> jarFiles) throws IOException {
+		load();
+		final List<File> list = new ArrayList<>();
+		for (final File jarFile : jarFiles) {
+			final JarIndex index = jars.get(jarFile.getAbsolutePath());
+			if (index == null || index.lastModified != jarFile.lastModified()
+					|| index.length != jarFile.length()) {
+				list.add(jarFile);
+			}
+		}
+		final List<Callable<String[]>> tasks = new ArrayList<>(list.size());
+		for (final File jarFile : list) {
+			tasks.add(new Callable<String[]>() {
+				@Override
+				public String[] call() {
+					try {
+						return getEntries(jarFile);
+					} catch (final IOException e) {
+						// 出错的jar在扫描时再次读取并抛出
+						log.warn(e);
+						return null;
+					}
+				}
+			});
+		}
+		FileUtils.invokeAll(tasks, 0);
+	}
+
+	static String[] readEntries(final File jarFile) throws IOException {
+		final JarFile jar = new JarFile(jarFile);
+		try {
+			final List<String> list = new ArrayList<>(jar.size());
+			final Enumeration<JarEntry> entries = jar.entries();
+			while (entries.hasMoreElements()) {
+				// 目录以/结尾
+				list.add(entries.nextElement().getName());
+			}
+			return list.toArray(new String[list.size()]);
+		} finally {
+			jar.close();
+		}
+	}
+
+	/**
+	 * 取jar:协议url所在的本地jar文件，jar中嵌套的jar返回null
+	 *
+	 * @param url
+	 * @return
+	 * @throws IOException
+	 */
+	static File getJarFile(final URL url) throws IOException {
+		final String spec = url.getFile();
+		final int pos = spec.indexOf("!/");
+		if (pos < 0 || spec.indexOf("!/", pos + 2) > -1) {
+			return null;
+		}
+		// 只解析url，不打开jar
+		final URLConnection conn = url.openConnection();
+		if (!(conn instanceof JarURLConnection)) {
+			return null;
+		}
+		final URL jarFileURL = ((JarURLConnection) conn).getJarFileURL();
+		if (!"file".equals(jarFileURL.getProtocol())) {
+			return null;
+		}
+		try {
+			return new File(jarFileURL.toURI());
+		} catch (final URISyntaxException | IllegalArgumentException e) {
+			// 未编码的路径或UNC路径，按嵌套的jar读取
+			return null;
+		}
+	}
+
+	private static synchronized void load() {
+		if (loaded) {
+			return;
+		}
+		loaded = true;
+		final File file = cacheFile;
+		if (file == null || !file.isFile()) {
+			return;
+		}
+		try {
+			final DataInputStream in = new DataInputStream(new BufferedInputStream(
+					new GZIPInputStream(new FileInputStream(file), IoUtils.BUFFER)));
+			try {
+				if (in.readInt() != MAGIC) {
+					return;
+				}
+				final int size = in.readInt();
+				for (int i = 0; i < size; i++) {
+					final String key = in.readUTF();
+					final long lastModified = in.readLong(), length = in.readLong();
+					final String[] entries = new String[in.readInt()];
+					for (int j = 0; j < entries.length; j++) {
+						entries[j] = in.readUTF();
+					}
+					// 本次运行已建立的索引优先
+					if (!jars.containsKey(key)) {
+						jars.put(key, new JarIndex(lastModified, length, entries));
+					}
+				}
+			} finally {
+				in.close();
+			}
+		} catch (final IOException e) {
+			log.warn(e);
+		}
+	}
+
+	/**
+	 * 保存索引到缓存文件，没有变化时忽略
+	 */
+	public static synchronized void save() {
+		final File file = cacheFile;
+		if (!dirty || file == null) {
+			return;
+		}
+		dirty = false;
+		final Map<String, JarIndex> map = new HashMap<>();
+		for (final Map.Entry<String, JarIndex> e : jars.entrySet()) {
+			// 不存在的jar不再保存
+			if (new File(e.getKey()).isFile()) {
+				map.put(e.getKey(), e.getValue());
+			}
+		}
+		// 先写临时文件再改名，避免其它进程读到写了一半的索引
+		try {
+			FileUtils.writeFile(file, new FileUtils.IFileWriter() {
+				@Override
+				public void write(final OutputStream os) throws IOException {
+					final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+							new GZIPOutputStream(os, IoUtils.BUFFER)));
+					try {
+						out.writeInt(MAGIC);
+						out.writeInt(map.size());
+						for (final Map.Entry<String, JarIndex> e : map.entrySet()) {
+							final JarIndex index = e.getValue();
+							out.writeUTF(e.getKey());
+							out.writeLong(index.lastModified);
+							out.writeLong(index.length);
+							out.writeInt(index.entries.length);
+							for (final String entry : index.entries) {
+								out.writeUTF(entry);
+							}
+						}
+					} finally {
+						out.close();
+					}
+				}
+			});
+		} catch (final IOException e) {
+			log.warn(e);
+		}
+	}
+
+	static final int MAGIC = 0x53524931; // SRI1
+
+	static class JarIndex {
+		final long lastModified, length;
+
+		final String[] entries;
+
+		JarIndex(final long lastModified, final long length, final String[] entries) {
+			this.lastModified = lastModified;
+			this.length = length;
+			this.entries = entries;
+		}
+	}
+}
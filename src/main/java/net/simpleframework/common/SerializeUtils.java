@@ -17,12 +17,52 @@ import com.caucho.hessian.io.HessianOutput;
  *         http://www.simpleframework.net
  */
 public abstract class SerializeUtils {
+
+	public static final ISerializer HESSIAN = new ISerializer() {
+		@Override
+		public byte[] serialize(final Object obj) throws IOException {
+			return hessian_serialize(obj);
+		}
+
+		@Override
+		public Object deserialize(final byte[] bytes) throws IOException, ClassNotFoundException {
+			return hessian_deserialize(bytes);
+		}
+	};
+
+	public static final ISerializer JDK = new ISerializer() {
+		@Override
+		public byte[] serialize(final Object obj) throws IOException {
+			return jdk_serialize(obj);
+		}
+
+		@Override
+		public Object deserialize(final byte[] bytes) throws IOException, ClassNotFoundException {
+			return jdk_deserialize(bytes);
+		}
+	};
+
+	private static volatile ISerializer _serializer = HESSIAN;
+
+	public static ISerializer getSerializer() {
+		return _serializer;
+	}
+
+	/**
+	 * 设置缺省的序列化，缺省为HESSIAN
+	 * 
+	 * @param serializer
+	 */
+	public static void setSerializer(final ISerializer serializer) {
+		_serializer = serializer != null ? serializer : HESSIAN;
+	}
+
 	public static byte[] serialize(final Object obj) throws IOException {
-		return hessian_serialize(obj);
+		return _serializer.serialize(obj);
 	}
 
 	public static Object deserialize(final byte[] bytes) throws IOException, ClassNotFoundException {
-		return hessian_deserialize(bytes);
+		return _serializer.deserialize(bytes);
 	}
 
 	static byte[] jdk_serialize(final Object obj) throws IOException {
@@ -67,4 +107,26 @@ public abstract class SerializeUtils {
 		final HessianInput hi = new HessianInput(is);
 		return hi.readObject();
 	}
+
+	public static interface ISerializer {
+
+		/**
+		 * 序列化，obj为null时返回null
+		 * 
+		 * @param obj
+		 * @return
+		 * @throws IOException
+		 */
+		byte[] serialize(Object obj) throws IOException;
+
+		/**
+		 * 反序列化，bytes为空时返回null
+		 * 
+		 * @param bytes
+		 * @return
+		 * @throws IOException
+		 * @throws ClassNotFoundException
+		 */
+		Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException;
+	}
 }
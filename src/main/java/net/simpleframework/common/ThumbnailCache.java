@@ -0,0 +1,218 @@
+package net.simpleframework.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Licensed under the Apache License, Version 2.0
+ *
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public class ThumbnailCache {
+
+	private final File dir;
+
+	private final ExecutorService executor;
+
+	/* 正在执行及等待的任务数，满时调用者等待 */
+	private final Semaphore permits;
+
+	/* 同一缩略图同时只生成一次 */
+	private final ConcurrentHashMap<String, Future<File>> pending = new ConcurrentHashMap<>();
+
+	private final AtomicLong hits = new AtomicLong(), misses = new AtomicLong();
+
+	public ThumbnailCache(final File dir) {
+		this(dir, Runtime.getRuntime().availableProcessors(), 64);
+	}
+
+	/**
+	 * @param dir
+	 *        缩略图的缓存目录
+	 * @param threads
+	 *        生成缩略图的线程数
+	 * @param queueSize
+	 *        等待的任务数，超出时调用者等待
+	 */
+	public ThumbnailCache(final File dir, final int threads, final int queueSize) {
+		this.dir = dir;
+		final AtomicInteger count = new AtomicInteger();
+		executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			@Override
+			public Thread newThread(final Runnable r) {
+				final Thread thread = new Thread(r, "thumbnail-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		permits = new Semaphore(threads + queueSize);
+	}
+
+	public File getThumbnail(final File file, final int width, final int height)
+			throws IOException {
+		return getThumbnail(file, width, height, false, "png");
+	}
+
+	/**
+	 * 取缩略图文件。按内容的md5及大小缓存，已生成的直接返回
+	 *
+	 * @param file
+	 * @param width
+	 * @param height
+	 * @param stretch
+	 * @param filetype
+	 *        为null时有透明通道的用png，否则用jpg
+	 * @return
+	 * @throws IOException
+	 */
+	public File getThumbnail(final File file, final int width, final int height,
+			final boolean stretch, final String filetype) throws IOException {
+		final InputStream inputStream = new FileInputStream(file);
+		final String md5;
+		try {
+			md5 = AlgorithmUtils.md5Hex(inputStream);
+		} finally {
+			inputStream.close();
+		}
+		return getThumbnail(md5, new Callable<InputStream>() {
+			@Override
+			public InputStream call() throws IOException {
+				return new FileInputStream(file);
+			}
+		}, width, height, stretch, filetype);
+	}
+
+	public File getThumbnail(final byte[] data, final int width, final int height,
+			final boolean stretch, final String filetype) throws IOException {
+		return getThumbnail(AlgorithmUtils.md5Hex(data), new Callable<InputStream>() {
+			@Override
+			public InputStream call() {
+				return new ByteArrayInputStream(data);
+			}
+		}, width, height, stretch, filetype);
+	}
+
+	protected File getThumbnail(final String md5, final Callable<InputStream> source,
+			final int width, final int height, final boolean stretch, final String filetype)
+			throws IOException {
+		final String key = md5 + "_" + width + "x" + height + (stretch ? "s" : "")
+				+ (filetype != null ? "." + filetype : "");
+		final File target = new File(dir, md5.substring(0, 2) + File.separator + key);
+		if (target.exists()) {
+			hits.incrementAndGet();
+			return target;
+		}
+
+		Future<File> future = pending.get(key);
+		if (future == null) {
+			// 先取得许可再发布任务，中断时不会影响等待同一任务的其它调用者
+			try {
+				permits.acquire();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			}
+			final ThumbnailTask task = new ThumbnailTask(new Callable<File>() {
+				@Override
+				public File call() throws Exception {
+					try {
+						if (!target.exists()) {
+							misses.incrementAndGet();
+							create(source, target, width, height, stretch, filetype);
+						}
+						return target;
+					} finally {
+						pending.remove(key);
+						permits.release();
+					}
+				}
+			});
+			future = pending.putIfAbsent(key, task);
+			if (future == null) {
+				future = task;
+				try {
+					executor.execute(task);
+				} catch (final RuntimeException e) {
+					// 如已shutdown，任务不会执行，由此释放并通知等待者
+					pending.remove(key, task);
+					permits.release();
+					task.fail(e);
+				}
+			} else {
+				permits.release();
+			}
+		}
+		try {
+			return future.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (final CancellationException e) {
+			throw new IOException(e);
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+		}
+	}
+
+	private void create(final Callable<InputStream> source, final File target, final int width,
+			final int height, final boolean stretch, final String filetype) throws Exception {
+		FileUtils.createDirectoryRecursively(target.getParentFile());
+		final InputStream inputStream = source.call();
+		try {
+			FileUtils.writeFile(target, new FileUtils.IFileWriter() {
+				@Override
+				public void write(final OutputStream out) throws IOException {
+					ImageUtils.thumbnail(inputStream, width, height, stretch, out, filetype);
+				}
+			});
+		} finally {
+			inputStream.close();
+		}
+	}
+
+	private static class ThumbnailTask extends FutureTask<File> {
+
+		ThumbnailTask(final Callable<File> callable) {
+			super(callable);
+		}
+
+		void fail(final Throwable t) {
+			setException(t);
+		}
+	}
+
+	public File getDir() {
+		return dir;
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	public void shutdown() {
+		executor.shutdown();
+	}
+}
@@ -1,5 +1,7 @@
 package net.simpleframework.common.coll;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
@@ -56,6 +58,10 @@ public abstract class AbstractKVMap<T, M extends AbstractKVMap<T, M>>
 		return JsonUtils.toJSON(kv);
 	}
 
+	public void writeJSON(final OutputStream out) throws IOException {
+		JsonUtils.writeJSON(kv, out, null);
+	}
+
 	// for caseInsensitive
 
 	private Map<String, String> caseInsensitiveKeys;
@@ -1,16 +1,26 @@
 package net.simpleframework.common.jedis;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import net.simpleframework.common.Convert;
 import net.simpleframework.common.SerializeUtils;
+import net.simpleframework.common.SerializeUtils.ISerializer;
 import net.simpleframework.common.logger.Log;
 import net.simpleframework.common.logger.LogFactory;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
 
 /**
  * Licensed under the Apache License, Version 2.0
@@ -27,6 +37,10 @@ public class JedisMap extends HashMap<String, Object> {
 
 	private JedisPool pool;
 
+	private ISerializer serializer;
+
+	private JedisNearCache nearCache;
+
 	public JedisMap(final JedisPool _pool, final boolean _hash, final String _mkey,
 			final int _expire) {
 		pool = _pool;
@@ -51,22 +65,84 @@ public class JedisMap extends HashMap<String, Object> {
 		this(_pool, _key, 0);
 	}
 
+	/**
+	 * 设置值的序列化方式，缺省为SerializeUtils
+	 * 
+	 * @param serializer
+	 * @return
+	 */
+	public JedisMap setSerializer(final ISerializer serializer) {
+		this.serializer = serializer;
+		return this;
+	}
+
+	/**
+	 * 开启进程内缓存，读取时先查本地。本地缓存的值被多个调用者共享，应作为只读对象使用
+	 * 
+	 * @param maxSize
+	 *        本地缓存的最大个数
+	 * @return
+	 */
+	public JedisMap setNearCache(final int maxSize) {
+		if (nearCache != null) {
+			nearCache.close();
+			nearCache = null;
+		}
+		if (pool != null && maxSize > 0) {
+			nearCache = new JedisNearCache(pool, mkey, maxSize, expire);
+		}
+		return this;
+	}
+
+	public JedisNearCache getNearCache() {
+		return nearCache;
+	}
+
 	private String gkey(final String sk) {
 		return mkey + ":" + sk;
 	}
 
+	/*
+	 * hash不存在时才设置过期时间，exists、hset、expire在一次往返中完成。ARGV[1]为expire，之后为field、value对
+	 */
+	private static final byte[] HSET_EXPIRE_SCRIPT = ("local n = redis.call('exists', KEYS[1]) "
+			+ "local r = 0 "
+			+ "for i = 2, #ARGV, 2 do r = r + redis.call('hset', KEYS[1], ARGV[i], ARGV[i + 1]) end "
+			+ "if n == 0 then redis.call('expire', KEYS[1], ARGV[1]) end " + "return r").getBytes();
+
 	@Override
 	public Object get(final Object key) {
 		if (pool != null) {
+			final String sk = Convert.toString(key);
+			final JedisNearCache _nearCache = nearCache;
+			long ver = 0;
+			if (_nearCache != null) {
+				final Object val = _nearCache.get(sk);
+				if (val != null) {
+					return val;
+				}
+				ver = _nearCache.version();
+			}
 			Jedis jedis = null;
 			try {
 				jedis = pool.getResource();
-				final String sk = Convert.toString(key);
-				if (hash) {
-					return deserialize(jedis.hget(mkey.getBytes(), sk.getBytes()));
+				final Object val;
+				if (_nearCache != null) {
+					// 值和剩余过期时间在一次往返中读取，近端缓存不会比redis中的值活得更久
+					final byte[] bkey = hash ? mkey.getBytes() : gkey(sk).getBytes();
+					final Pipeline pipeline = jedis.pipelined();
+					final Response<byte[]> r = hash ? pipeline.hget(bkey, sk.getBytes()) : pipeline
+							.get(bkey);
+					final Response<Long> pttl = pipeline.pttl(bkey);
+					pipeline.sync();
+					val = deserialize(r.get());
+					_nearCache.put(sk, val, ver, toLong(pttl.get()));
+				} else if (hash) {
+					val = deserialize(jedis.hget(mkey.getBytes(), sk.getBytes()));
 				} else {
-					return deserialize(jedis.get(gkey(sk).getBytes()));
+					val = deserialize(jedis.get(gkey(sk).getBytes()));
 				}
+				return val;
 			} catch (final Exception e) {
 				log.warn(e);
 				return null;
@@ -80,24 +156,110 @@ public class JedisMap extends HashMap<String, Object> {
 		}
 	}
 
+	/**
+	 * 批量获取，一次往返完成
+	 * 
+	 * @param keys
+	 * @return
+	 */
+	public Map<String, Object> getAll(final Collection<String> keys) {
+		final Map<String, Object> map = new HashMap<>();
+		if (keys == null || keys.isEmpty()) {
+			return map;
+		}
+		if (pool != null) {
+			final JedisNearCache _nearCache = nearCache;
+			final List<String> list = new ArrayList<>(keys.size());
+			long ver = 0;
+			if (_nearCache != null) {
+				for (final String key : keys) {
+					final Object val = _nearCache.get(key);
+					if (val != null) {
+						map.put(key, val);
+					} else {
+						list.add(key);
+					}
+				}
+				if (list.isEmpty()) {
+					return map;
+				}
+				ver = _nearCache.version();
+			} else {
+				list.addAll(keys);
+			}
+			final byte[][] bkeys = toBytes(list, !hash);
+			Jedis jedis = null;
+			try {
+				jedis = pool.getResource();
+				final List<byte[]> vals;
+				final long[] pttls = new long[bkeys.length];
+				if (_nearCache != null) {
+					// 同get，剩余过期时间在同一次往返中读取，hash只有一个过期时间
+					final Pipeline pipeline = jedis.pipelined();
+					final Response<List<byte[]>> r = hash ? pipeline.hmget(mkey.getBytes(), bkeys)
+							: pipeline.mget(bkeys);
+					final List<Response<Long>> rttls = new ArrayList<>();
+					if (hash) {
+						rttls.add(pipeline.pttl(mkey.getBytes()));
+					} else {
+						for (final byte[] bkey : bkeys) {
+							rttls.add(pipeline.pttl(bkey));
+						}
+					}
+					pipeline.sync();
+					vals = r.get();
+					for (int i = 0; i < pttls.length; i++) {
+						pttls[i] = toLong(rttls.get(hash ? 0 : i).get());
+					}
+				} else {
+					vals = hash ? jedis.hmget(mkey.getBytes(), bkeys) : jedis.mget(bkeys);
+				}
+				for (int i = 0; i < bkeys.length; i++) {
+					final String key = list.get(i);
+					final Object val = deserialize(vals.get(i));
+					if (val != null) {
+						map.put(key, val);
+						if (_nearCache != null) {
+							_nearCache.put(key, val, ver, pttls[i]);
+						}
+					}
+				}
+			} catch (final Exception e) {
+				log.warn(e);
+			} finally {
+				if (jedis != null) {
+					jedis.close();
+				}
+			}
+		} else {
+			for (final String key : keys) {
+				final Object val = super.get(key);
+				if (val != null) {
+					map.put(key, val);
+				}
+			}
+		}
+		return map;
+	}
+
 	@Override
 	public Object put(final String key, final Object value) {
 		if (pool != null) {
 			Jedis jedis = null;
 			try {
-				jedis = pool.getResource();
 				if (value == null) {
 					remove(key);
 					return null;
 				} else {
+					jedis = pool.getResource();
 					if (hash) {
 						final byte[] sbytes = mkey.getBytes();
-						final boolean set_expire = expire > 0 && !jedis.exists(sbytes);
-						final Long ret = jedis.hset(sbytes, key.getBytes(), serialize(value));
-						if (set_expire) {
-							jedis.expire(sbytes, expire);
+						if (expire > 0) {
+							return jedis.eval(HSET_EXPIRE_SCRIPT, Arrays.asList(sbytes), Arrays.asList(
+									String.valueOf(expire).getBytes(), key.getBytes(), serialize(value)));
+						} else {
+							return jedis.hset(sbytes, key.getBytes(), serialize(value));
 						}
-						return ret;
 					} else {
 						if (expire > 0) {
 							return jedis.setex(gkey(key).getBytes(), expire, serialize(value));
@@ -113,26 +275,99 @@ public class JedisMap extends HashMap<String, Object> {
 				if (jedis != null) {
 					jedis.close();
 				}
+				if (nearCache != null && value != null) {
+					nearCache.invalidate(key);
+				}
 			}
 		} else {
 			return super.put(key, value);
 		}
 	}
 
+	/**
+	 * 批量设置，一次往返完成。值为null的key将被删除
+	 */
 	@Override
-	public Object remove(final Object key) {
+	public void putAll(final Map<? extends String, ? extends Object> m) {
+		if (m == null || m.isEmpty()) {
+			return;
+		}
 		if (pool != null) {
+			final List<String> nulls = new ArrayList<>();
+			final List<byte[]> args = new ArrayList<>(m.size() * 2 + 1);
 			Jedis jedis = null;
 			try {
+				for (final Map.Entry<? extends String, ? extends Object> e : m.entrySet()) {
+					final Object value = e.getValue();
+					if (value == null) {
+						nulls.add(e.getKey());
+					} else {
+						args.add(e.getKey().getBytes());
+						args.add(serialize(value));
+					}
+				}
 				jedis = pool.getResource();
-				final String sk = Convert.toString(key);
 				if (hash) {
 					final byte[] sbytes = mkey.getBytes();
-					final Long ret = jedis.hdel(sbytes, sk.getBytes());
-					if (jedis.hlen(sbytes) == 0) {
-						jedis.del(sbytes);
+					final Pipeline pipeline = jedis.pipelined();
+					if (args.size() > 0) {
+						if (expire > 0) {
+							args.add(0, String.valueOf(expire).getBytes());
+							pipeline.eval(HSET_EXPIRE_SCRIPT, Arrays.asList(sbytes), args);
+						} else {
+							final Map<byte[], byte[]> hm = new HashMap<>();
+							for (int i = 0; i < args.size(); i += 2) {
+								hm.put(args.get(i), args.get(i + 1));
+							}
+							pipeline.hmset(sbytes, hm);
+						}
+					}
+					if (nulls.size() > 0) {
+						pipeline.hdel(sbytes, toBytes(nulls, false));
+					}
+					pipeline.sync();
+				} else {
+					final Pipeline pipeline = jedis.pipelined();
+					for (int i = 0; i < args.size(); i += 2) {
+						final byte[] k = gkey(new String(args.get(i))).getBytes();
+						if (expire > 0) {
+							pipeline.setex(k, expire, args.get(i + 1));
+						} else {
+							pipeline.set(k, args.get(i + 1));
+						}
 					}
-					return ret;
+					if (nulls.size() > 0) {
+						pipeline.del(toBytes(nulls, true));
+					}
+					pipeline.sync();
+				}
+			} catch (final IOException e) {
+				log.warn(e);
+			} finally {
+				if (jedis != null) {
+					jedis.close();
+				}
+				if (nearCache != null) {
+					nearCache.invalidate(m.keySet().toArray(new String[m.size()]));
+				}
+			}
+		} else {
+			for (final Map.Entry<? extends String, ? extends Object> e : m.entrySet()) {
+				put(e.getKey(), e.getValue());
+			}
+		}
+	}
+
+	@Override
+	public Object remove(final Object key) {
+		if (pool != null) {
+			Jedis jedis = null;
+			try {
+				jedis = pool.getResource();
+				final String sk = Convert.toString(key);
+				if (hash) {
+					// 删除最后一个field时，redis会自动删除hash
+					return jedis.hdel(mkey.getBytes(), sk.getBytes());
 				} else {
 					return jedis.del(gkey(sk).getBytes());
 				}
@@ -140,12 +375,56 @@ public class JedisMap extends HashMap<String, Object> {
 				if (jedis != null) {
 					jedis.close();
 				}
+				if (nearCache != null) {
+					nearCache.invalidate(Convert.toString(key));
+				}
 			}
 		} else {
 			return super.remove(key);
 		}
 	}
 
+	/**
+	 * 批量删除，一次往返完成
+	 * 
+	 * @param keys
+	 * @return 删除的个数
+	 */
+	public long removeAll(final Collection<String> keys) {
+		if (keys == null || keys.isEmpty()) {
+			return 0;
+		}
+		if (pool != null) {
+			Jedis jedis = null;
+			try {
+				jedis = pool.getResource();
+				final Long ret;
+				if (hash) {
+					ret = jedis.hdel(mkey.getBytes(), toBytes(keys, false));
+				} else {
+					ret = jedis.del(toBytes(keys, true));
+				}
+				return ret != null ? ret : 0;
+			} finally {
+				if (jedis != null) {
+					jedis.close();
+				}
+				if (nearCache != null) {
+					nearCache.invalidate(keys.toArray(new String[keys.size()]));
+				}
+			}
+		} else {
+			long ret = 0;
+			for (final String key : keys) {
+				if (super.containsKey(key)) {
+					super.remove(key);
+					ret++;
+				}
+			}
+			return ret;
+		}
+	}
+
 	@Override
 	public boolean containsKey(final Object key) {
 		if (pool != null) {
@@ -168,21 +447,65 @@ public class JedisMap extends HashMap<String, Object> {
 		}
 	}
 
+	@Override
+	public int size() {
+		if (pool != null) {
+			if (hash) {
+				Jedis jedis = null;
+				try {
+					jedis = pool.getResource();
+					final Long len = jedis.hlen(mkey.getBytes());
+					return len != null ? len.intValue() : 0;
+				} finally {
+					if (jedis != null) {
+						jedis.close();
+					}
+				}
+			} else {
+				return keySet().size();
+			}
+		} else {
+			return super.size();
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
 	@Override
 	public Set<String> keySet() {
 		if (pool != null) {
 			Jedis jedis = null;
 			try {
 				jedis = pool.getResource();
-				Set<byte[]> _set;
+				final Set<String> set = new HashSet<>();
 				if (hash) {
-					_set = jedis.hkeys(mkey.getBytes());
+					// 同样使用hscan代替hkeys，避免大hash阻塞redis
+					final byte[] hkey = mkey.getBytes();
+					final ScanParams params = new ScanParams().count(SCAN_COUNT);
+					byte[] cursor = ScanParams.SCAN_POINTER_START_BINARY;
+					do {
+						final ScanResult<Map.Entry<byte[], byte[]>> result = jedis.hscan(hkey, cursor,
+								params);
+						for (final Map.Entry<byte[], byte[]> e : result.getResult()) {
+							set.add(new String(e.getKey()));
+						}
+						cursor = result.getCursorAsBytes();
+					} while (!Arrays.equals(cursor, ScanParams.SCAN_POINTER_START_BINARY));
 				} else {
-					_set = jedis.keys((mkey + ":*").getBytes());
-				}
-				final Set<String> set = new HashSet<>();
-				for (final byte[] k : _set) {
-					set.add(new String(k));
+					// 使用scan代替keys，避免阻塞redis
+					final ScanParams params = new ScanParams().match((mkey + ":*").getBytes()).count(
+							SCAN_COUNT);
+					byte[] cursor = ScanParams.SCAN_POINTER_START_BINARY;
+					do {
+						final ScanResult<byte[]> result = jedis.scan(cursor, params);
+						for (final byte[] k : result.getResult()) {
+							set.add(new String(k));
+						}
+						cursor = result.getCursorAsBytes();
+					} while (!Arrays.equals(cursor, ScanParams.SCAN_POINTER_START_BINARY));
 				}
 				return set;
 			} finally {
@@ -195,12 +518,28 @@ public class JedisMap extends HashMap<String, Object> {
 		}
 	}
 
+	private static final int SCAN_COUNT = 500;
+
+	private static long toLong(final Long l) {
+		return l != null ? l.longValue() : 0;
+	}
+
+	private byte[][] toBytes(final Collection<String> keys, final boolean gkey) {
+		final byte[][] arr = new byte[keys.size()][];
+		int i = 0;
+		for (final String k : keys) {
+			arr[i++] = gkey ? gkey(k).getBytes() : k.getBytes();
+		}
+		return arr;
+	}
+
 	private byte[] serialize(final Object obj) throws IOException {
-		return SerializeUtils.serialize(obj);
+		return serializer != null ? serializer.serialize(obj) : SerializeUtils.serialize(obj);
 	}
 
 	private Object deserialize(final byte[] bytes) throws IOException, ClassNotFoundException {
-		return SerializeUtils.deserialize(bytes);
+		return serializer != null ? serializer.deserialize(bytes) : SerializeUtils
+				.deserialize(bytes);
 	}
 
 	private static Log log = LogFactory.getLogger(JedisMap.class);
@@ -0,0 +1,348 @@
+package net.simpleframework.common.jedis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.simpleframework.common.logger.Log;
+import net.simpleframework.common.logger.LogFactory;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.Pipeline;
+
+/**
+ * Licensed under the Apache License, Version 2.0
+ * 
+ * @author 陈侃(cknet@126.com, 13910090885)
+ *         https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public class JedisNearCache {
+	private final JedisPool pool;
+
+	private final String channel;
+
+	private final int maxSize;
+
+	/* 毫秒，0表示不过期 */
+	private final long ttl;
+
+	private final LinkedHashMap<String, CacheEntry> cache;
+
+	/* 每次失效递增，用于丢弃失效期间从redis读取的旧值 */
+	private final AtomicLong version = new AtomicLong();
+
+	private final AtomicLong hits = new AtomicLong(), misses = new AtomicLong(),
+			evictions = new AtomicLong(), invalidations = new AtomicLong();
+
+	private volatile boolean closed;
+
+	JedisNearCache(final JedisPool pool, final String mkey, final int maxSize, final int expire) {
+		this.pool = pool;
+		this.channel = CHANNEL_PREFIX + mkey;
+		this.maxSize = maxSize;
+		this.ttl = expire > 0 ? expire * 1000l : 0;
+		cache = new LinkedHashMap<String, CacheEntry>(16, .75f, true) {
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, CacheEntry> eldest) {
+				if (size() > JedisNearCache.this.maxSize) {
+					evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+
+			private static final long serialVersionUID = 2497451733640417735L;
+		};
+		Subscriber.register(this);
+	}
+
+	/**
+	 * 返回缓存的值，未命中时返回null
+	 * 
+	 * @param key
+	 * @return
+	 */
+	Object get(final String key) {
+		CacheEntry entry;
+		synchronized (cache) {
+			entry = cache.get(key);
+			if (entry != null && entry.expired()) {
+				cache.remove(key);
+				evictions.incrementAndGet();
+				entry = null;
+			}
+		}
+		if (entry != null) {
+			hits.incrementAndGet();
+			return entry.value;
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+
+	long version() {
+		return version.get();
+	}
+
+	/**
+	 * 缓存从redis读取的值，如果读取期间发生过失效，则丢弃
+	 * 
+	 * @param key
+	 * @param value
+	 * @param ver
+	 *        读取前的version()
+	 * @param pttl
+	 *        同一次往返读取的redis剩余过期毫秒，小于等于0表示redis中不过期。
+	 *        redis过期不会发布通知，所以本地过期不能晚于redis
+	 */
+	void put(final String key, final Object value, final long ver, final long pttl) {
+		if (value == null || closed) {
+			return;
+		}
+		long _ttl = ttl;
+		if (pttl > 0 && (_ttl == 0 || pttl < _ttl)) {
+			_ttl = pttl;
+		}
+		synchronized (cache) {
+			if (version.get() == ver) {
+				cache.put(key, new CacheEntry(value, _ttl > 0 ? System.currentTimeMillis() + _ttl : 0));
+			}
+		}
+	}
+
+	/**
+	 * 本地失效，并通知其它节点
+	 * 
+	 * @param keys
+	 *        为空时失效全部
+	 */
+	void invalidate(final String... keys) {
+		invalidateLocal(keys);
+		Jedis jedis = null;
+		try {
+			jedis = pool.getResource();
+			final byte[] bchannel = channel.getBytes(StandardCharsets.UTF_8);
+			if (keys == null || keys.length == 0) {
+				jedis.publish(bchannel, new byte[0]);
+			} else if (keys.length == 1) {
+				jedis.publish(bchannel, keys[0].getBytes(StandardCharsets.UTF_8));
+			} else {
+				final Pipeline pipeline = jedis.pipelined();
+				for (final String key : keys) {
+					pipeline.publish(bchannel, key.getBytes(StandardCharsets.UTF_8));
+				}
+				pipeline.sync();
+			}
+		} catch (final Exception e) {
+			log.warn(e);
+		} finally {
+			if (jedis != null) {
+				jedis.close();
+			}
+		}
+	}
+
+	void invalidateLocal(final String... keys) {
+		synchronized (cache) {
+			version.incrementAndGet();
+			if (keys == null || keys.length == 0) {
+				cache.clear();
+			} else {
+				for (final String key : keys) {
+					cache.remove(key);
+				}
+			}
+		}
+		invalidations.incrementAndGet();
+	}
+
+	/**
+	 * 停止订阅并清空缓存
+	 */
+	public void close() {
+		closed = true;
+		Subscriber.unregister(this);
+		invalidateLocal();
+	}
+
+	public int size() {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	public long getInvalidations() {
+		return invalidations.get();
+	}
+
+	public double getHitRate() {
+		final long h = hits.get(), total = h + misses.get();
+		return total == 0 ? 0 : (double) h / total;
+	}
+
+	@Override
+	public String toString() {
+		return channel + "[size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses()
+				+ ", evictions=" + getEvictions() + ", invalidations=" + getInvalidations() + "]";
+	}
+
+	private static class CacheEntry {
+		final Object value;
+
+		final long expireAt;
+
+		CacheEntry(final Object value, final long expireAt) {
+			this.value = value;
+			this.expireAt = expireAt;
+		}
+
+		boolean expired() {
+			return expireAt > 0 && System.currentTimeMillis() > expireAt;
+		}
+	}
+
+	private static final String CHANNEL_PREFIX = JedisNearCache.class.getSimpleName() + ":";
+
+	/**
+	 * 同一连接池的所有近端缓存共用一个订阅线程和连接，按频道分发
+	 */
+	private static class Subscriber extends Thread {
+		private static final Map<JedisPool, Subscriber> subscribers = new HashMap<>();
+
+		static void register(final JedisNearCache cache) {
+			synchronized (subscribers) {
+				Subscriber subscriber = subscribers.get(cache.pool);
+				if (subscriber == null) {
+					subscribers.put(cache.pool, subscriber = new Subscriber(cache.pool));
+					subscriber.start();
+				}
+				List<JedisNearCache> l = subscriber.caches.get(cache.channel);
+				if (l == null) {
+					subscriber.caches.put(cache.channel, l = new CopyOnWriteArrayList<>());
+				}
+				l.add(cache);
+			}
+		}
+
+		static void unregister(final JedisNearCache cache) {
+			synchronized (subscribers) {
+				final Subscriber subscriber = subscribers.get(cache.pool);
+				if (subscriber == null) {
+					return;
+				}
+				final List<JedisNearCache> l = subscriber.caches.get(cache.channel);
+				if (l != null && l.remove(cache) && l.isEmpty()) {
+					subscriber.caches.remove(cache.channel);
+				}
+				if (subscriber.caches.isEmpty()) {
+					subscribers.remove(cache.pool);
+					subscriber.close();
+				}
+			}
+		}
+
+		private final JedisPool pool;
+
+		private final Map<String, List<JedisNearCache>> caches = new ConcurrentHashMap<>();
+
+		private volatile boolean closed;
+
+		private volatile JedisPubSub pubSub;
+
+		Subscriber(final JedisPool pool) {
+			super(CHANNEL_PREFIX + "*");
+			this.pool = pool;
+			setDaemon(true);
+		}
+
+		@Override
+		public void run() {
+			while (!closed) {
+				Jedis jedis = null;
+				try {
+					jedis = pool.getResource();
+					final JedisPubSub _pubSub = new JedisPubSub() {
+						@Override
+						public void onPSubscribe(final String pattern, final int subscribedChannels) {
+							// close()在psubscribe之前执行时，由这里退订
+							if (closed) {
+								punsubscribe();
+							}
+						}
+
+						@Override
+						public void onPMessage(final String pattern, final String channel,
+								final String message) {
+							final List<JedisNearCache> l = caches.get(channel);
+							if (l == null) {
+								return;
+							}
+							for (final JedisNearCache cache : l) {
+								if (message == null || message.length() == 0) {
+									cache.invalidateLocal();
+								} else {
+									cache.invalidateLocal(message);
+								}
+							}
+						}
+					};
+					pubSub = _pubSub;
+					if (closed) {
+						break;
+					}
+					jedis.psubscribe(_pubSub, CHANNEL_PREFIX + "*");
+				} catch (final Exception e) {
+					if (!closed) {
+						log.warn(e);
+					}
+				} finally {
+					if (jedis != null) {
+						jedis.close();
+					}
+				}
+				// 订阅断开期间可能丢失失效通知
+				for (final List<JedisNearCache> l : caches.values()) {
+					for (final JedisNearCache cache : l) {
+						cache.invalidateLocal();
+					}
+				}
+				if (!closed) {
+					try {
+						Thread.sleep(1000);
+					} catch (final InterruptedException e) {
+						return;
+					}
+				}
+			}
+		}
+
+		void close() {
+			closed = true;
+			final JedisPubSub _pubSub = pubSub;
+			if (_pubSub != null && _pubSub.isSubscribed()) {
+				_pubSub.punsubscribe();
+			}
+		}
+	}
+
+	private static Log log = LogFactory.getLogger(JedisNearCache.class);
+}
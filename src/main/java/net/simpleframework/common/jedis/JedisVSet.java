@@ -1,10 +1,15 @@
 package net.simpleframework.common.jedis;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
 
 /**
  * Licensed under the Apache License, Version 2.0
@@ -35,7 +40,19 @@ public class JedisVSet extends HashSet<String> {
 			Jedis jedis = null;
 			try {
 				jedis = pool.getResource();
-				return new HashSet<>(jedis.smembers(key));
+				// 分批读取，避免大集合阻塞redis
+				final Set<String> set = new HashSet<>();
+				final ScanParams params = new ScanParams().count(SCAN_COUNT);
+				final byte[] bkey = key.getBytes(StandardCharsets.UTF_8);
+				byte[] cursor = ScanParams.SCAN_POINTER_START_BINARY;
+				do {
+					final ScanResult<byte[]> result = jedis.sscan(bkey, cursor, params);
+					for (final byte[] e : result.getResult()) {
+						set.add(new String(e, StandardCharsets.UTF_8));
+					}
+					cursor = result.getCursorAsBytes();
+				} while (!Arrays.equals(cursor, ScanParams.SCAN_POINTER_START_BINARY));
+				return set;
 			} finally {
 				if (jedis != null) {
 					jedis.close();
@@ -56,8 +73,8 @@ public class JedisVSet extends HashSet<String> {
 			Jedis jedis = null;
 			try {
 				jedis = pool.getResource();
-				final Set<String> set = jedis.smembers(key);
-				return set != null ? set.size() : 0;
+				final Long len = jedis.scard(key);
+				return len != null ? len.intValue() : 0;
 			} finally {
 				if (jedis != null) {
 					jedis.close();
@@ -86,6 +103,27 @@ public class JedisVSet extends HashSet<String> {
 		}
 	}
 
+	@Override
+	public boolean addAll(final Collection<? extends String> c) {
+		if (pool != null) {
+			if (c == null || c.isEmpty()) {
+				return false;
+			}
+			Jedis jedis = null;
+			try {
+				jedis = pool.getResource();
+				final Long ret = jedis.sadd(key, c.toArray(new String[c.size()]));
+				return ret != null && ret > 0;
+			} finally {
+				if (jedis != null) {
+					jedis.close();
+				}
+			}
+		} else {
+			return super.addAll(c);
+		}
+	}
+
 	@Override
 	public boolean contains(final Object o) {
 		final String e = o.toString();
@@ -123,14 +161,39 @@ public class JedisVSet extends HashSet<String> {
 		}
 	}
 
+	@Override
+	public boolean removeAll(final Collection<?> c) {
+		if (pool != null) {
+			if (c == null || c.isEmpty()) {
+				return false;
+			}
+			final String[] arr = new String[c.size()];
+			int i = 0;
+			for (final Object o : c) {
+				arr[i++] = o.toString();
+			}
+			Jedis jedis = null;
+			try {
+				jedis = pool.getResource();
+				final Long ret = jedis.srem(key, arr);
+				return ret != null && ret > 0;
+			} finally {
+				if (jedis != null) {
+					jedis.close();
+				}
+			}
+		} else {
+			return super.removeAll(c);
+		}
+	}
+
 	@Override
 	public void clear() {
 		if (pool != null) {
 			Jedis jedis = null;
 			try {
 				jedis = pool.getResource();
-				final Set<String> set = jedis.smembers(key);
-				jedis.srem(key, set.toArray(new String[set.size()]));
+				jedis.del(key);
 			} finally {
 				if (jedis != null) {
 					jedis.close();
@@ -141,5 +204,7 @@ public class JedisVSet extends HashSet<String> {
 		}
 	}
 
+	private static final int SCAN_COUNT = 500;
+
 	private static final long serialVersionUID = -8332247234732521904L;
 }
@@ -1,10 +1,18 @@
 package net.simpleframework.common.object;
 
 import java.lang.reflect.Modifier;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import net.simpleframework.common.ClassUtils;
 import net.simpleframework.common.coll.ArrayUtils;
@@ -32,6 +40,17 @@ public class ObjectFactory {
 		return get()._singleton(className, listeners);
 	}
 
+	/**
+	 * 启动时预先并行创建一组单例
+	 * 
+	 * @param classes
+	 * @param threads
+	 *        并行线程数，小于1时取cpu个数
+	 */
+	public static void warmup(final Collection<Class<?>> classes, final int threads) {
+		get()._warmup(classes, threads);
+	}
+
 	public static <T> T create(final Class<T> oClass, final IObjectCreatorListener... listeners) {
 		return get()._create(oClass, listeners);
 	}
@@ -53,14 +72,26 @@ public class ObjectFactory {
 		singletonCache = new ConcurrentHashMap<>();
 	}
 
-	private IObjectCreator _creator;
+	/* 正在创建中的单例，每个类一个，不同的类互不阻塞 */
+	private final ConcurrentHashMap<Class<?>, SingletonCreation> creations = new ConcurrentHashMap<>();
+
+	/* 线程 -> 正在等待的创建，用于检测循环等待 */
+	private final ConcurrentHashMap<Thread, SingletonCreation> waitings = new ConcurrentHashMap<>();
+
+	/* 创建可能在多个线程中并行进行 */
+	private volatile IObjectCreator _creator = new IObjectCreator() {
+		@Override
+		public Object create(final Class<?> oClass) {
+			return newInstance(oClass);
+		}
+	};
 
 	public ObjectFactory set(final IObjectCreator creator) {
 		_creator = creator;
 		return this;
 	}
 
-	private final Set<IObjectCreatorListener> listenerSet = new HashSet<>();
+	private final Set<IObjectCreatorListener> listenerSet = new CopyOnWriteArraySet<>();
 
 	public ObjectFactory addListener(final IObjectCreatorListener listener) {
 		listenerSet.add(listener);
@@ -72,16 +103,96 @@ public class ObjectFactory {
 		if (oClass == null) {
 			return null;
 		}
+		// 已创建的单例不加锁
+		T o = (T) singletonCache.get(oClass);
+		if (o != null) {
+			return o;
+		}
 		oClass = (Class<T>) original(oClass);
-		synchronized (singletonCache) {
-			T o = (T) singletonCache.get(oClass);
-			if (o == null) {
-				o = _create(oClass, listeners);
-				if (o != null) {
-					singletonCache.put(oClass, o);
+		o = (T) singletonCache.get(oClass);
+		if (o != null) {
+			return o;
+		}
+		return (T) _singletonCreate(oClass, listeners);
+	}
+
+	private Object _singletonCreate(final Class<?> oClass,
+			final IObjectCreatorListener... listeners) {
+		final Thread current = Thread.currentThread();
+		final SingletonCreation creation = new SingletonCreation(oClass, current);
+		while (true) {
+			final SingletonCreation c = creations.putIfAbsent(oClass, creation);
+			if (c == null) {
+				// 由当前线程创建
+				Object o = null;
+				Throwable error = null;
+				try {
+					o = singletonCache.get(oClass);
+					if (o == null) {
+						o = _create(oClass, listeners);
+						if (o != null) {
+							singletonCache.put(oClass, o);
+						}
+					}
+					return o;
+				} catch (final Throwable e) {
+					// 包括Error，等待的线程据此重试，而不是得到null
+					error = e;
+					throw e;
+				} finally {
+					creations.remove(oClass, creation);
+					creation.done(o, error);
 				}
 			}
-			return o;
+
+			if (c.owner == current) {
+				throw ObjectInstanceException.of("Circular singleton creation: " + oClass.getName());
+			}
+			c.await(current);
+			if (c.error == null) {
+				return c.o;
+			}
+			// 其它线程创建失败，由当前线程重试
+		}
+	}
+
+	private void _warmup(final Collection<Class<?>> classes, int threads) {
+		if (classes == null || classes.isEmpty()) {
+			return;
+		}
+		if (threads < 1) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads,
+				classes.size()));
+		try {
+			final List<Future<Object>> futures = new ArrayList<>();
+			for (final Class<?> oClass : classes) {
+				futures.add(executor.submit(new Callable<Object>() {
+					@Override
+					public Object call() throws Exception {
+						return _singleton(oClass);
+					}
+				}));
+			}
+			RuntimeException ex = null;
+			for (final Future<Object> future : futures) {
+				try {
+					future.get();
+				} catch (final ExecutionException e) {
+					if (ex == null) {
+						ex = ObjectInstanceException.of(e.getCause());
+					}
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw ObjectInstanceException.of(e);
+				}
+			}
+			if (ex != null) {
+				throw ex;
+			}
+		} finally {
+			executor.shutdown();
 		}
 	}
 
@@ -107,15 +218,6 @@ public class ObjectFactory {
 				l.onBefore(oClass);
 			}
 
-			if (_creator == null) {
-				_creator = new IObjectCreator() {
-					@Override
-					public Object create(final Class<?> oClass) {
-						return newInstance(oClass);
-					}
-				};
-			}
-
 			@SuppressWarnings("unchecked")
 			final T t = (T) _creator.create(oClass);
 
@@ -161,6 +263,55 @@ public class ObjectFactory {
 		return proxy;
 	}
 
+	private class SingletonCreation {
+		final Class<?> oClass;
+
+		final Thread owner;
+
+		boolean finished;
+
+		Object o;
+
+		Throwable error;
+
+		SingletonCreation(final Class<?> oClass, final Thread owner) {
+			this.oClass = oClass;
+			this.owner = owner;
+		}
+
+		synchronized void done(final Object o, final Throwable error) {
+			this.o = o;
+			this.error = error;
+			finished = true;
+			notifyAll();
+		}
+
+		void await(final Thread current) {
+			waitings.put(current, this);
+			try {
+				// 沿着等待链查找，如果回到当前线程，说明跨线程循环依赖，等待将导致死锁
+				SingletonCreation c = this;
+				for (int i = waitings.size(); c != null && i >= 0; i--) {
+					if (c.owner == current) {
+						throw ObjectInstanceException
+								.of("Circular singleton creation: " + oClass.getName());
+					}
+					c = waitings.get(c.owner);
+				}
+				synchronized (this) {
+					while (!finished) {
+						wait();
+					}
+				}
+			} catch (final InterruptedException e) {
+				current.interrupt();
+				throw ObjectInstanceException.of(e);
+			} finally {
+				waitings.remove(current);
+			}
+		}
+	}
+
 	public static boolean isAbstract(final Class<?> oClass) {
 		int m;
 		return oClass == null || Modifier.isInterface(m = oClass.getModifiers())
@@ -0,0 +1,166 @@
+package net.simpleframework.common.web;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import net.simpleframework.common.AlgorithmUtils;
+import net.simpleframework.common.FileUtils;
+import net.simpleframework.common.IoUtils;
+
+/**
+ * Licensed under the Apache License, Version 2.0
+ *
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public class JavascriptBundle {
+
+	private final boolean js;
+
+	private final List<Callable<String>> sources = new ArrayList<>();
+
+	private boolean compress = true;
+
+	private boolean gzip = true;
+
+	/**
+	 * 把多个js或css合并成一个文件，各部分并行压缩
+	 *
+	 * @param js
+	 *        js或css
+	 */
+	public JavascriptBundle(final boolean js) {
+		this.js = js;
+	}
+
+	public JavascriptBundle add(final String content) {
+		sources.add(new Callable<String>() {
+			@Override
+			public String call() {
+				return content;
+			}
+		});
+		return this;
+	}
+
+	public JavascriptBundle add(final File file) {
+		sources.add(new Callable<String>() {
+			@Override
+			public String call() throws IOException {
+				return IoUtils.getStringFromInputStream(new FileInputStream(file), "utf-8");
+			}
+		});
+		return this;
+	}
+
+	public JavascriptBundle add(final InputStream inputStream) {
+		sources.add(new Callable<String>() {
+			@Override
+			public String call() throws IOException {
+				return IoUtils.getStringFromInputStream(inputStream, "utf-8");
+			}
+		});
+		return this;
+	}
+
+	public JavascriptBundle setCompress(final boolean compress) {
+		this.compress = compress;
+		return this;
+	}
+
+	/**
+	 * @param gzip
+	 *        是否同时生成.gz文件
+	 * @return
+	 */
+	public JavascriptBundle setGzip(final boolean gzip) {
+		this.gzip = gzip;
+		return this;
+	}
+
+	/**
+	 * 合并后的内容
+	 *
+	 * @return
+	 * @throws IOException
+	 */
+	public String build() throws IOException {
+		final List<Callable<String>> tasks = new ArrayList<>(sources.size());
+		for (final Callable<String> source : sources) {
+			tasks.add(new Callable<String>() {
+				@Override
+				public String call() throws Exception {
+					final String content = source.call();
+					return compress ? JavascriptUtils.compress(content, js, -1) : content;
+				}
+			});
+		}
+		final StringBuilder sb = new StringBuilder();
+		for (final String content : FileUtils.invokeAll(tasks, 0)) {
+			if (content == null) {
+				continue;
+			}
+			sb.append(content);
+			// 避免前一个js缺少结尾的分号
+			sb.append(js ? ";\n" : "\n");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * 写入到目录，文件名为name.[内容的md5前8位].js(css)，内容不变时文件名不变，可长期缓存
+	 *
+	 * @param dir
+	 * @param name
+	 * @return 生成的文件
+	 * @throws IOException
+	 */
+	public File build(final File dir, final String name) throws IOException {
+		final byte[] bytes = build().getBytes(JavascriptUtils.UTF_8);
+		final String filename = name + "." + AlgorithmUtils.md5Hex(bytes).substring(0, 8)
+				+ (js ? ".js" : ".css");
+		final File file = new File(dir, filename);
+		if (!file.exists() || file.length() != bytes.length) {
+			FileUtils.createDirectoryRecursively(dir);
+			write(file, bytes, false);
+		}
+		if (gzip) {
+			final File gz = new File(dir, filename + ".gz");
+			if (!gz.exists()) {
+				write(gz, bytes, true);
+			}
+		}
+		return file;
+	}
+
+	private static void write(final File file, final byte[] bytes, final boolean gzip)
+			throws IOException {
+		FileUtils.writeFile(file, new FileUtils.IFileWriter() {
+			@Override
+			public void write(final OutputStream out) throws IOException {
+				if (gzip) {
+					final GZIPOutputStream gout = new GZIPOutputStream(out, 8 * 1024) {
+						{
+							def.setLevel(Deflater.BEST_COMPRESSION);
+						}
+					};
+					try {
+						gout.write(bytes);
+					} finally {
+						gout.close();
+					}
+				} else {
+					out.write(bytes);
+				}
+			}
+		});
+	}
+}
@@ -2,13 +2,20 @@ package net.simpleframework.common.web;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStreamWriter;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 
+import net.simpleframework.common.AlgorithmUtils;
 import net.simpleframework.common.FileUtils;
 import net.simpleframework.common.IoUtils;
 import net.simpleframework.common.StringUtils;
@@ -72,22 +79,102 @@ public abstract class JavascriptUtils implements HtmlConst {
 	}
 
 	public static String jsCompress(final String js) {
-		if (!compressorEnabled) {
-			return js;
+		return compress(js, true, -1);
+	}
+
+	public static String cssCompress(final String css) {
+		return compress(css, false, -1);
+	}
+
+	/**
+	 * 压缩js或css，结果按内容的md5缓存在内存中，设置了缓存目录时同时保存到磁盘。压缩出错时返回原内容
+	 * 
+	 * @param content
+	 * @param js
+	 *        js或css
+	 * @param linebreak
+	 *        超过此长度时换行，-1不换行
+	 * @return
+	 */
+	public static String compress(final String content, final boolean js, final int linebreak) {
+		if (!compressorEnabled || !StringUtils.hasText(content)) {
+			return content;
 		}
-		final StringWriter oWriter = new StringWriter();
-		try {
-			new com.yahoo.platform.yui.compressor.JavaScriptCompressor(new StringReader(js), null)
-					.compress(oWriter, -1, true, false, false, false);
-			return oWriter.toString();
-		} catch (final Throwable e) {
-			return js;
-		} finally {
+		final String key = AlgorithmUtils.md5Hex(content.getBytes(UTF_8)) + "." + linebreak
+				+ (js ? ".js" : ".css");
+		String c = cache.get(key);
+		if (c != null) {
+			return c;
+		}
+		final File dir = cacheDir;
+		final File file = dir != null ? new File(dir, key.substring(0, 2) + File.separator + key)
+				: null;
+		if (file != null && file.exists()) {
 			try {
-				oWriter.close();
+				c = IoUtils.getStringFromInputStream(new FileInputStream(file), "utf-8");
 			} catch (final IOException e) {
+				log.warn(e);
+			}
+		}
+		if (c == null) {
+			c = _compress(content, js, linebreak);
+			if (file != null) {
+				try {
+					FileUtils.createDirectoryRecursively(file.getParentFile());
+					final byte[] bytes = c.getBytes(UTF_8);
+					FileUtils.writeFile(file, new FileUtils.IFileWriter() {
+						@Override
+						public void write(final OutputStream out) throws IOException {
+							out.write(bytes);
+						}
+					});
+				} catch (final IOException e) {
+					log.warn(e);
+				}
 			}
 		}
+		if (cache.size() >= MAX_CACHE) {
+			cache.clear();
+		}
+		cache.put(key, c);
+		return c;
+	}
+
+	private static String _compress(final String content, final boolean js, final int linebreak) {
+		final StringWriter oWriter = new StringWriter(content.length());
+		try {
+			if (js) {
+				new com.yahoo.platform.yui.compressor.JavaScriptCompressor(new StringReader(content),
+						null).compress(oWriter, linebreak, true, false, false, false);
+			} else {
+				new com.yahoo.platform.yui.compressor.CssCompressor(new StringReader(content))
+						.compress(oWriter, linebreak);
+			}
+			return oWriter.toString();
+		} catch (final Throwable e) {
+			return content;
+		}
+	}
+
+	static final Charset UTF_8 = Charset.forName("utf-8");
+
+	static final int MAX_CACHE = 1024;
+
+	private static final Map<String, String> cache = new ConcurrentHashMap<>();
+
+	private static volatile File cacheDir;
+
+	public static File getCacheDir() {
+		return cacheDir;
+	}
+
+	/**
+	 * 设置压缩结果的缓存目录，为null时只缓存在内存中
+	 * 
+	 * @param dir
+	 */
+	public static void setCacheDir(final File dir) {
+		cacheDir = dir;
 	}
 
 	public static String wrapWhenReady(final String functionBody) {
@@ -120,35 +207,37 @@ public abstract class JavascriptUtils implements HtmlConst {
 			FileUtils.copyFile(inputStream, to);
 			return;
 		}
-		final String encode = "utf-8";
 		final String filename = to.getName();
-		if ((jsCompress && filename.endsWith(".js")) || (cssCompress && filename.endsWith(".css"))) {
-			OutputStreamWriter oWriter = null;
-			String c = null;
-			try {
-				c = IoUtils.getStringFromInputStream(inputStream, encode);
-				if (!to.exists()) {
-					FileUtils.createFile(to);
-				}
-				oWriter = new OutputStreamWriter(new FileOutputStream(to), encode);
-				if (filename.endsWith(".js")) {
-					new com.yahoo.platform.yui.compressor.JavaScriptCompressor(new StringReader(c), null)
-							.compress(oWriter, 200, true, false, false, false);
-				} else {
-					new com.yahoo.platform.yui.compressor.CssCompressor(new StringReader(c))
-							.compress(oWriter, 200);
-				}
-			} catch (final Exception e) {
-				if (c != null) {
-					FileUtils.copyFile(new ByteArrayInputStream(c.getBytes(encode)), to);
-				}
-			} finally {
-				if (oWriter != null) {
-					oWriter.close();
-				}
-			}
+		final boolean js = filename.endsWith(".js");
+		if ((jsCompress && js) || (cssCompress && filename.endsWith(".css"))) {
+			final String c = compress(IoUtils.getStringFromInputStream(inputStream, "utf-8"), js, 200);
+			FileUtils.copyFile(new ByteArrayInputStream(c.getBytes(UTF_8)), to);
 		} else {
 			FileUtils.copyFile(inputStream, to);
 		}
 	}
+
+	/**
+	 * 并行复制并压缩多个文件
+	 * 
+	 * @param files
+	 *        目标文件 -> 源
+	 * @param jsCompress
+	 * @param cssCompress
+	 * @throws IOException
+	 */
+	public static void copyFiles(final Map<File, InputStream> files, final boolean jsCompress,
+			final boolean cssCompress) throws IOException {
+		final List<Callable<Object>> tasks = new ArrayList<>(files.size());
+		for (final Map.Entry<File, InputStream> e : files.entrySet()) {
+			tasks.add(new Callable<Object>() {
+				@Override
+				public Object call() throws IOException {
+					copyFile(e.getValue(), e.getKey(), jsCompress, cssCompress);
+					return null;
+				}
+			});
+		}
+		FileUtils.invokeAll(tasks, 0);
+	}
 }
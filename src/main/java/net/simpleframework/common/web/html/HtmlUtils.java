@@ -1,10 +1,13 @@
 package net.simpleframework.common.web.html;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -60,7 +63,64 @@ public abstract class HtmlUtils implements HtmlConst {
 
 	public static String truncateHtml(final String htmlString, final int length,
 			final String newLine) {
-		return truncateHtml(createHtmlDocument(htmlString), length, newLine);
+		return truncateHtml(htmlString, length, newLine, true, false);
+	}
+
+	/**
+	 * 截取html的文字。截取的长度远小于html时，先只解析前面的一段，文字已截满且后面的内容不会改变已解析的节点时直接返回，
+	 * 结果与解析整个html相同
+	 * 
+	 * @param htmlString
+	 * @param length
+	 * @param newLine
+	 * @param showLink
+	 * @param dot
+	 * @return
+	 */
+	public static String truncateHtml(final String htmlString, final int length,
+			final String newLine, final boolean showLink, final boolean dot) {
+		final String html = StringUtils.blank(htmlString);
+		if (length > 0) {
+			int end = prefixEnd(html, length * 8 + 256);
+			while (end < html.length()) {
+				final Document doc = createHtmlDocument(html.substring(0, end));
+				final TextBuilder builder = new TextBuilder(length, newLine, showLink);
+				final String text = builder.text(doc, dot);
+				if (builder.length <= 0 && isStable(doc)) {
+					return text;
+				}
+				end = prefixEnd(html, end * 4);
+			}
+		}
+		return truncateHtml(createHtmlDocument(html), length, newLine, showLink, dot);
+	}
+
+	/* 在n之后的第一个结束标签处截断，避免截断实体，且末端通常没有打开的格式元素 */
+	private static int prefixEnd(final String html, final int n) {
+		if (n >= html.length()) {
+			return html.length();
+		}
+		int i = html.indexOf("</", n);
+		if (i > -1) {
+			i = html.indexOf('>', i);
+		}
+		return i < 0 ? html.length() : i + 1;
+	}
+
+	/* 后面的标签可能移动已有节点（格式元素的adoption agency、表格的foster parenting），末端打开的元素中有这些标签时需解析全部 */
+	private static final Set<String> UNSTABLE_TAGS = new HashSet<>(Arrays.asList("a", "b", "big",
+			"code", "em", "font", "i", "nobr", "s", "small", "strike", "strong", "tt", "u", "table"));
+
+	private static boolean isStable(final Document doc) {
+		Node node = doc;
+		int size;
+		while ((size = node.childNodeSize()) > 0) {
+			node = node.childNode(size - 1);
+			if (node instanceof Element && UNSTABLE_TAGS.contains(((Element) node).tagName())) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	public static String truncateHtml(final Document doc, final int length) {
@@ -76,78 +136,113 @@ public abstract class HtmlUtils implements HtmlConst {
 		if (doc == null) {
 			return null;
 		}
-		doc.attr("length", String.valueOf(length));
-		String html = elementText(doc, doc.childNodes(), newLine, showLink);
-		if (dot) {
-			if (Convert.toInt(doc.attr("length")) <= 0) {
-				html += "...";
-			}
-		}
-		doc.removeAttr("length");
-		doc.removeAttr("br");
-		return html != null ? html.trim() : null;
+		return new TextBuilder(length, newLine, showLink).text(doc, dot);
 	}
 
 	// 0x3000 全角空格
 	// 0xA0 Unicode编码后的non-breaking space
-	private static final char[] BLANK_CHARs = { (char) 0x3000, (char) 0xC2, (char) 0xA0 };
-
 	public static String trim(final String str) {
-		String txt = str;
-		for (final char c : BLANK_CHARs) {
-			txt = txt.replace(c, ' ');
+		final int len = str.length();
+		StringBuilder sb = null;
+		for (int i = 0; i < len; i++) {
+			final char c = str.charAt(i);
+			if (c == 0x3000 || c == 0xC2 || c == 0xA0) {
+				if (sb == null) {
+					sb = new StringBuilder(len).append(str, 0, i);
+				}
+				sb.append(' ');
+			} else if (c == '&' && str.startsWith("&nbsp;", i)) {
+				if (sb == null) {
+					sb = new StringBuilder(len).append(str, 0, i);
+				}
+				sb.append(' ');
+				i += 5;
+			} else if (sb != null) {
+				sb.append(c);
+			}
 		}
-		txt = StringUtils.replace(txt, "&nbsp;", " ").trim();
-		return txt;
+		return (sb != null ? sb.toString() : str).trim();
 	}
 
-	private static String elementText(final Document doc, final List<Node> nodes,
-			final String newLine, final boolean showLink) {
-		final StringBuilder sb = new StringBuilder();
-		for (final Node child : nodes) {
-			final int length = Convert.toInt(doc.attr("length"));
-			if (length <= 0) {
-				break;
+	/* 截取文字时的状态，剩余的长度及是否刚输出过换行 */
+	private static class TextBuilder {
+		int length;
+
+		boolean br;
+
+		final String newLine;
+
+		final boolean hasNewLine, showLink;
+
+		TextBuilder(final int length, final String newLine, final boolean showLink) {
+			this.length = length;
+			this.newLine = newLine;
+			this.hasNewLine = StringUtils.hasText(newLine);
+			this.showLink = showLink;
+		}
+
+		String text(final Document doc, final boolean dot) {
+			final StringBuilder sb = new StringBuilder();
+			elementText(sb, doc.childNodes());
+			if (dot && length <= 0) {
+				sb.append("...");
 			}
-			if (child instanceof TextNode) {
-				String txt = ((TextNode) child).text();
-				if (StringUtils.hasText(txt)) {
-					txt = trim(txt);
-					txt = StringUtils.substring(txt, length);
-					sb.append(HtmlEncoder.text(txt));
-					doc.attr("length", String.valueOf(length - txt.length()));
-					doc.removeAttr("br");
+			return sb.toString().trim();
+		}
+
+		void elementText(final StringBuilder sb, final List<Node> nodes) {
+			for (final Node child : nodes) {
+				if (length <= 0) {
+					break;
 				}
-			} else if (child instanceof Element) {
-				final Element element = (Element) child;
-				final String tagName = element.tagName();
-				String href;
-				if (showLink && "a".equalsIgnoreCase(tagName) && element.children().size() == 0
-						&& StringUtils.hasText(href = element.attr("href"))
-						&& !href.toLowerCase().startsWith("javascript:")) {
-					doc.attr("length", String.valueOf(length - element.text().length()));
-					element.removeAttr("style").removeAttr("class").attr("target", "_blank");
-					sb.append(element.outerHtml());
-				} else if ("br".equalsIgnoreCase(tagName)) {
-					if (StringUtils.hasText(newLine) && !doc.attr("br").equals("true")) {
-						sb.append(newLine);
-						doc.attr("br", "true");
-					}
-				} else {
-					final String txt = elementText(doc, element.childNodes(), newLine, showLink);
+				if (child instanceof TextNode) {
+					String txt = ((TextNode) child).text();
 					if (StringUtils.hasText(txt)) {
-						sb.append(txt);
-						if (StringUtils.hasText(newLine) && element.isBlock()
-								&& Convert.toInt(doc.attr("length")) > 0
-								&& !doc.attr("br").equals("true")) {
+						txt = trim(txt);
+						txt = StringUtils.substring(txt, length);
+						sb.append(HtmlEncoder.text(txt));
+						length -= txt.length();
+						br = false;
+					}
+				} else if (child instanceof Element) {
+					final Element element = (Element) child;
+					final String tagName = element.tagName();
+					String href;
+					if (showLink && "a".equalsIgnoreCase(tagName) && element.children().size() == 0
+							&& StringUtils.hasText(href = element.attr("href"))
+							&& !href.toLowerCase().startsWith("javascript:")) {
+						length -= element.text().length();
+						element.removeAttr("style").removeAttr("class").attr("target", "_blank");
+						sb.append(element.outerHtml());
+					} else if ("br".equalsIgnoreCase(tagName)) {
+						if (hasNewLine && !br) {
 							sb.append(newLine);
-							doc.attr("br", "true");
+							br = true;
+						}
+					} else {
+						final int start = sb.length();
+						elementText(sb, element.childNodes());
+						if (hasText(sb, start)) {
+							if (hasNewLine && element.isBlock() && length > 0 && !br) {
+								sb.append(newLine);
+								br = true;
+							}
+						} else {
+							sb.setLength(start);
 						}
 					}
 				}
 			}
 		}
-		return sb.toString();
+
+		private static boolean hasText(final StringBuilder sb, final int start) {
+			for (int i = start; i < sb.length(); i++) {
+				if (!Character.isWhitespace(sb.charAt(i))) {
+					return true;
+				}
+			}
+			return false;
+		}
 	}
 
 	public static String htmlToText(final String htmlString, final boolean showLink) {
@@ -0,0 +1,454 @@
+package net.simpleframework.lib.com.oreilly.servlet;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.InvalidPathException;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+
+import net.simpleframework.lib.com.oreilly.servlet.multipart.AsyncMultipartParser;
+import net.simpleframework.lib.com.oreilly.servlet.multipart.FileRenamePolicy;
+import net.simpleframework.lib.com.oreilly.servlet.multipart.MacBinaryDecoderOutputStream;
+
+/**
+ * A non-blocking variant of <code>MultipartRequest</code> for Servlet 3.1
+ * containers. Instead of reading the whole upload on the calling thread, it
+ * puts the request into asynchronous mode, registers a
+ * <code>ReadListener</code> and parses the parts as bytes arrive, writing
+ * files with an <code>AsynchronousFileChannel</code>. A slow client then no
+ * longer holds a container thread for the length of the upload.
+ * <p>
+ * When the request has been read and every file is on disk, the
+ * {@link Callback} is invoked with this object, which then answers
+ * <code>getParameter</code>, <code>getFile</code> and the other
+ * <code>MultipartRequest</code> methods. The callback is responsible for
+ * finishing the request through {@link #getAsyncContext()}, with
+ * <code>complete()</code> or <code>dispatch()</code>.
+ *
+ * <pre>
+ * AsyncMultipartRequest.start(req, dir, maxSize, "utf-8", null, new Callback() {
+ * 	public void onComplete(AsyncMultipartRequest mreq) {
+ * 		File file = mreq.getFile("upload");
+ * 		...
+ * 		mreq.getAsyncContext().complete();
+ * 	}
+ *
+ * 	public void onError(AsyncMultipartRequest mreq, Throwable t) {
+ * 		...
+ * 		mreq.getAsyncContext().complete();
+ * 	}
+ * });
+ * </pre>
+ *
+ * The asynchronous context is started without a timeout; idle connections
+ * are still bounded by the container's read timeout.
+ * <p>
+ * At most {@link #MAX_WRITES} file writes are in flight per request. Past
+ * that, reading stops until the disk catches up, so a fast client cannot
+ * queue the upload in memory.
+ *
+ * @see MultipartRequest
+ * @see AsyncMultipartParser
+ */
+public class AsyncMultipartRequest extends MultipartRequest {
+
+	/**
+	 * Invoked once, from a container or file I/O thread.
+	 */
+	public interface Callback {
+
+		void onComplete(AsyncMultipartRequest mreq);
+
+		void onError(AsyncMultipartRequest mreq, Throwable t);
+	}
+
+	public static AsyncMultipartRequest start(final HttpServletRequest request,
+			final String saveDirectory, final Callback callback) throws IOException {
+		return start(request, saveDirectory, DEFAULT_MAX_POST_SIZE, null, null, callback);
+	}
+
+	/**
+	 * Starts reading the request asynchronously and returns at once.
+	 *
+	 * @param request
+	 *        the servlet request, which must support asynchronous mode.
+	 * @param saveDirectory
+	 *        the directory in which to save any uploaded files.
+	 * @param maxPostSize
+	 *        the maximum size of the POST content.
+	 * @param encoding
+	 *        the encoding of the response, such as ISO-8859-1
+	 * @param policy
+	 *        a pluggable file rename policy, may be null
+	 * @exception IOException
+	 *            if the content type or declared length is rejected; errors
+	 *            while reading are passed to the callback instead.
+	 */
+	public static AsyncMultipartRequest start(final HttpServletRequest request,
+			final String saveDirectory, final int maxPostSize, final String encoding,
+			final FileRenamePolicy policy, final Callback callback) throws IOException {
+		if (request == null) {
+			throw new IllegalArgumentException("request cannot be null");
+		}
+		if (maxPostSize <= 0) {
+			throw new IllegalArgumentException("maxPostSize must be positive");
+		}
+		if (callback == null) {
+			throw new IllegalArgumentException("callback cannot be null");
+		}
+		final AsyncMultipartRequest mreq = new AsyncMultipartRequest(
+				getSaveDirectory(saveDirectory), encoding, policy, callback);
+		mreq.parser = AsyncMultipartParser.of(request, maxPostSize, encoding, mreq.handler);
+		mreq.addQueryParameters(request);
+
+		mreq.asyncContext = request.isAsyncStarted() ? request.getAsyncContext() : request
+				.startAsync();
+		mreq.asyncContext.setTimeout(0);
+		final ServletInputStream in = request.getInputStream();
+		mreq.reader = mreq.new Reader(in);
+		in.setReadListener(mreq.reader);
+		return mreq;
+	}
+
+	private final File dir;
+
+	private final String encoding;
+
+	private final FileRenamePolicy policy;
+
+	private final Callback callback;
+
+	private final Handler handler = new Handler();
+
+	private Reader reader;
+
+	private AsyncMultipartParser parser;
+
+	private AsyncContext asyncContext;
+
+	/* 1 for the request body, plus 1 for each file write in progress */
+	private final AtomicInteger pending = new AtomicInteger(1);
+
+	/**
+	 * The number of buffered writes a request may have in flight before it
+	 * stops reading; each holds at most one read's worth of data.
+	 */
+	public static final int MAX_WRITES = 16;
+
+	/* writes handed to a channel and not completed yet */
+	private final AtomicInteger writing = new AtomicInteger();
+
+	private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+	private AsyncMultipartRequest(final File dir, final String encoding,
+			final FileRenamePolicy policy, final Callback callback) {
+		this.dir = dir;
+		this.encoding = encoding != null ? encoding : "ISO-8859-1";
+		this.policy = policy;
+		this.callback = callback;
+	}
+
+	public AsyncContext getAsyncContext() {
+		return asyncContext;
+	}
+
+	private void fail(final Throwable t) {
+		error.compareAndSet(null, t);
+	}
+
+	private void release() {
+		if (pending.decrementAndGet() == 0) {
+			final Throwable t = error.get();
+			if (t == null) {
+				callback.onComplete(this);
+			} else {
+				callback.onError(this, t);
+			}
+		}
+	}
+
+	/*
+	 * Reading, parsing and the final close run on one thread at a time: the
+	 * container callbacks and completed writes only record what happened and
+	 * signal(), and whichever thread holds the reader does the work, so the
+	 * parser and the open file are never touched concurrently.
+	 */
+	private class Reader implements ReadListener {
+		private final ServletInputStream in;
+
+		private final byte[] b = new byte[8 * 1024];
+
+		/* signals not yet handled; the thread raising it from 0 holds the reader */
+		private final AtomicInteger wip = new AtomicInteger();
+
+		/* set when reading stopped with data still ready, cleared by whoever resumes */
+		private final AtomicBoolean suspended = new AtomicBoolean();
+
+		private volatile boolean allDataRead;
+
+		private final AtomicBoolean closed = new AtomicBoolean();
+
+		Reader(final ServletInputStream in) {
+			this.in = in;
+		}
+
+		@Override
+		public void onDataAvailable() {
+			signal();
+		}
+
+		/* called from a completed write */
+		void resume() {
+			if (suspended.compareAndSet(true, false) || (error.get() != null && !closed.get())) {
+				signal();
+			}
+		}
+
+		@Override
+		public void onAllDataRead() {
+			allDataRead = true;
+			signal();
+		}
+
+		@Override
+		public void onError(final Throwable t) {
+			fail(t);
+			signal();
+		}
+
+		/* a caller finding another thread at work leaves it to that thread */
+		private void signal() {
+			if (wip.getAndIncrement() != 0) {
+				return;
+			}
+			int missed = 1;
+			do {
+				drain();
+			} while ((missed = wip.addAndGet(-missed)) != 0);
+		}
+
+		private void drain() {
+			if (closed.get()) {
+				return;
+			}
+			try {
+				int n;
+				// keep reading while data is ready, otherwise no further callback comes;
+				// a failed write or a container error stops reading
+				while (error.get() == null && !suspended.get() && in.isReady()) {
+					if (writing.get() >= MAX_WRITES) {
+						// no callback comes either while isReady() is true; the last
+						// write to complete calls resume()
+						suspended.set(true);
+						if (writing.get() >= MAX_WRITES || !suspended.compareAndSet(true, false)) {
+							break;
+						}
+						// a write completed in between and saw nothing to resume
+						continue;
+					}
+					if ((n = in.read(b)) == -1) {
+						break;
+					}
+					parser.write(b, 0, n);
+				}
+			} catch (final Exception e) {
+				// too large or malformed, stop reading
+				fail(e);
+			}
+			if (error.get() != null || (allDataRead && !suspended.get())) {
+				close();
+			}
+		}
+
+		private void close() {
+			if (!closed.compareAndSet(false, true)) {
+				return;
+			}
+			try {
+				parser.close();
+			} catch (final IOException e) {
+				fail(e);
+			}
+			if (error.get() != null) {
+				handler.abort();
+			}
+			release();
+		}
+	}
+
+	private class Handler implements AsyncMultipartParser.PartHandler {
+		private String name, fileName, originalFileName, contentType;
+
+		/* parameter value, or null for a file part */
+		private ByteArrayOutputStream value;
+
+		/* file being written, or null when the part data is skipped */
+		private OutputStream out;
+
+		@Override
+		public void startPart(final String name, final String fileName, final String filePath,
+				final String contentType) throws IOException {
+			if (name == null) {
+				throw new IOException("Malformed input: parameter name missing (known Opera 7 bug)");
+			}
+			this.name = name;
+			this.contentType = contentType;
+			this.fileName = this.originalFileName = fileName;
+			value = null;
+			out = null;
+			if (fileName == null) {
+				value = new ByteArrayOutputStream(128);
+			} else if (fileName.length() > 0) {
+				File file = new File(dir, fileName);
+				if (policy != null) {
+					file = policy.rename(file);
+					this.fileName = file.getName();
+				}
+				final AsynchronousFileChannel channel;
+				try {
+					channel = AsynchronousFileChannel.open(file.toPath(), StandardOpenOption.WRITE,
+							StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+				} catch (final InvalidPathException e) {
+					// a name the file system cannot encode
+					throw new IOException(e.getMessage());
+				}
+				out = new FileChannelOutputStream(channel);
+				if ("application/x-macbinary".equals(contentType)) {
+					// the decoder writes its header byte by byte
+					out = new MacBinaryDecoderOutputStream(new BufferedOutputStream(out));
+				}
+			}
+		}
+
+		@Override
+		public void data(final byte[] b, final int off, final int len) throws IOException {
+			if (value != null) {
+				value.write(b, off, len);
+			} else if (out != null) {
+				out.write(b, off, len);
+			}
+		}
+
+		@Override
+		public void endPart() throws IOException {
+			if (value != null) {
+				addParameter(name, value.toString(encoding));
+			} else if (out != null) {
+				out.close();
+				files.put(name, new UploadedFile(dir.toString(), fileName, originalFileName,
+						contentType));
+			} else {
+				// The field did not contain a file
+				files.put(name, new UploadedFile(null, null, null, null));
+			}
+			value = null;
+			out = null;
+		}
+
+		/* closes the file of a part cut short, so its pending writes are counted down */
+		void abort() {
+			if (out != null) {
+				try {
+					out.close();
+				} catch (final IOException e) {
+					fail(e);
+				}
+				out = null;
+			}
+		}
+	}
+
+	/**
+	 * Copies each write and hands it to the channel without waiting; the
+	 * channel is closed once the last write has finished.
+	 */
+	private class FileChannelOutputStream extends OutputStream {
+		private final AsynchronousFileChannel channel;
+
+		private long position;
+
+		/* 1 until close(), plus 1 for each write in progress */
+		private final AtomicInteger writes = new AtomicInteger(1);
+
+		FileChannelOutputStream(final AsynchronousFileChannel channel) {
+			this.channel = channel;
+			pending.incrementAndGet();
+		}
+
+		@Override
+		public void write(final int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) throws IOException {
+			if (len == 0) {
+				return;
+			}
+			final byte[] copy = new byte[len];
+			System.arraycopy(b, off, copy, 0, len);
+			writes.incrementAndGet();
+			writing.incrementAndGet();
+			write(ByteBuffer.wrap(copy), position);
+			position += len;
+		}
+
+		/* position is where the start of bb goes in the file */
+		private void write(final ByteBuffer bb, final long position) {
+			channel.write(bb, position + bb.position(), null,
+					new CompletionHandler<Integer, Object>() {
+						@Override
+						public void completed(final Integer result, final Object attachment) {
+							if (bb.hasRemaining()) {
+								write(bb, position);
+							} else {
+								written();
+							}
+						}
+
+						@Override
+						public void failed(final Throwable t, final Object attachment) {
+							fail(t);
+							written();
+						}
+					});
+		}
+
+		private void written() {
+			final int n = writing.decrementAndGet();
+			done();
+			if (n < MAX_WRITES) {
+				reader.resume();
+			}
+		}
+
+		@Override
+		public void close() {
+			done();
+		}
+
+		private void done() {
+			if (writes.decrementAndGet() == 0) {
+				try {
+					channel.close();
+				} catch (final IOException e) {
+					fail(e);
+				}
+				release();
+			}
+		}
+	}
+}
@@ -17,6 +17,7 @@ import java.util.Vector;
 
 import javax.servlet.ServletException;
 import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -275,6 +276,11 @@ class CacheHttpServletResponse implements HttpServletResponse {
 		// No need to save the length; we can calculate it later
 	}
 
+	@Override
+	public void setContentLengthLong(final long len) {
+		delegate.setContentLengthLong(len);
+	}
+
 	@Override
 	public void setContentType(final String type) {
 		delegate.setContentType(type);
@@ -493,4 +499,14 @@ class CacheServletOutputStream extends ServletOutputStream {
 		delegate.write(buf, offset, len);
 		cache.write(buf, offset, len);
 	}
+
+	@Override
+	public boolean isReady() {
+		return delegate.isReady();
+	}
+
+	@Override
+	public void setWriteListener(final WriteListener listener) {
+		delegate.setWriteListener(listener);
+	}
 }
@@ -19,6 +19,12 @@ import javax.servlet.http.HttpServletRequest;
  * A filter for easy semi-automatic handling of multipart/form-data requests
  * (file uploads). The filter capability requires Servlet API 2.3.
  * <p>
+ * With the <code>async</code> init parameter set to true, and a request that
+ * supports asynchronous mode, the upload is read without blocking by
+ * <code>AsyncMultipartRequest</code> and the request is then dispatched
+ * again. This requires Servlet API 3.1, and the filter must be declared
+ * async-supported and mapped for the ASYNC dispatcher as well.
+ * <p>
  * See Jason Hunter's June 2001 article in JavaWorld for a full explanation of
  * the class usage.
  *
@@ -29,6 +35,7 @@ public class MultipartFilter implements Filter {
 
 	private FilterConfig config = null;
 	private String dir = null;
+	private boolean async = false;
 
 	@Override
 	public void init(final FilterConfig config) throws ServletException {
@@ -49,6 +56,7 @@ public class MultipartFilter implements Filter {
 								+ "directory is valid");
 			}
 		}
+		async = Boolean.parseBoolean(config.getInitParameter("async"));
 	}
 
 	@Override
@@ -60,14 +68,43 @@ public class MultipartFilter implements Filter {
 	public void doFilter(final ServletRequest request, final ServletResponse response,
 			final FilterChain chain) throws IOException, ServletException {
 		final HttpServletRequest req = (HttpServletRequest) request;
+
+		// Dispatched again after an asynchronous parse
+		final Object parsed = req.getAttribute(PARSED_ATTRIBUTE);
+		if (parsed != null) {
+			req.removeAttribute(PARSED_ATTRIBUTE);
+			if (parsed instanceof IOException) {
+				throw (IOException) parsed;
+			}
+			chain.doFilter(new MultipartWrapper(req, (MultipartRequest) parsed), response);
+			return;
+		}
+
 		final String type = req.getHeader("Content-Type");
 
 		// If this is not a multipart/form-data request continue
 		if (type == null || !type.startsWith("multipart/form-data")) {
 			chain.doFilter(request, response);
+		} else if (async && req.isAsyncSupported()) {
+			AsyncMultipartRequest.start(req, dir, new AsyncMultipartRequest.Callback() {
+				@Override
+				public void onComplete(final AsyncMultipartRequest mreq) {
+					req.setAttribute(PARSED_ATTRIBUTE, mreq);
+					mreq.getAsyncContext().dispatch();
+				}
+
+				@Override
+				public void onError(final AsyncMultipartRequest mreq, final Throwable t) {
+					req.setAttribute(PARSED_ATTRIBUTE, t instanceof IOException ? t
+							: new IOException(t));
+					mreq.getAsyncContext().dispatch();
+				}
+			});
 		} else {
 			final MultipartWrapper multi = new MultipartWrapper(req, dir);
 			chain.doFilter(multi, response);
 		}
 	}
+
+	static final String PARSED_ATTRIBUTE = MultipartFilter.class.getName() + ".parsed";
 }
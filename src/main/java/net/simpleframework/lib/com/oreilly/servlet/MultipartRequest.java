@@ -73,7 +73,7 @@ import net.simpleframework.lib.com.oreilly.servlet.multipart.Part;
  */
 public class MultipartRequest {
 
-	private static final int DEFAULT_MAX_POST_SIZE = 1024 * 1024; // 1 Meg
+	static final int DEFAULT_MAX_POST_SIZE = 1024 * 1024; // 1 Meg
 
 	protected Hashtable parameters = new Hashtable(); // name - Vector of values
 	protected Hashtable files = new Hashtable(); // name - UploadedFile
@@ -231,49 +231,19 @@ public class MultipartRequest {
 		if (request == null) {
 			throw new IllegalArgumentException("request cannot be null");
 		}
-		if (saveDirectory == null) {
-			throw new IllegalArgumentException("saveDirectory cannot be null");
-		}
 		if (maxPostSize <= 0) {
 			throw new IllegalArgumentException("maxPostSize must be positive");
 		}
 
 		// Save the dir
-		final File dir = new File(saveDirectory);
-
-		// Check saveDirectory is truly a directory
-		if (!dir.isDirectory()) {
-			throw new IllegalArgumentException("Not a directory: " + saveDirectory);
-		}
-
-		// Check saveDirectory is writable
-		if (!dir.canWrite()) {
-			throw new IllegalArgumentException("Not writable: " + saveDirectory);
-		}
+		final File dir = getSaveDirectory(saveDirectory);
 
 		// Parse the incoming multipart, storing files in the dir provided,
 		// and populate the meta objects which describe what we found
 		final MultipartParser parser = new MultipartParser(request, maxPostSize, true, true,
 				encoding);
 
-		// Some people like to fetch query string parameters from
-		// MultipartRequest, so here we make that possible. Thanks to
-		// Ben Johnson, ben.johnson@merrillcorp.com, for the idea.
-		if (request.getQueryString() != null) {
-			// Let HttpUtils create a name->String[] structure
-			final Hashtable queryParameters = HttpUtils.parseQueryString(request.getQueryString());
-			// For our own use, name it a name->Vector structure
-			final Enumeration queryParameterNames = queryParameters.keys();
-			while (queryParameterNames.hasMoreElements()) {
-				final Object paramName = queryParameterNames.nextElement();
-				final String[] values = (String[]) queryParameters.get(paramName);
-				final Vector newValues = new Vector();
-				for (int i = 0; i < values.length; i++) {
-					newValues.add(values[i]);
-				}
-				parameters.put(paramName, newValues);
-			}
-		}
+		addQueryParameters(request);
 
 		Part part;
 		while ((part = parser.readNextPart()) != null) {
@@ -284,13 +254,7 @@ public class MultipartRequest {
 			if (part.isParam()) {
 				// It's a parameter part, add it to the vector of values
 				final ParamPart paramPart = (ParamPart) part;
-				final String value = paramPart.getStringValue();
-				Vector existingValues = (Vector) parameters.get(name);
-				if (existingValues == null) {
-					existingValues = new Vector();
-					parameters.put(name, existingValues);
-				}
-				existingValues.addElement(value);
+				addParameter(name, paramPart.getStringValue());
 			} else if (part.isFile()) {
 				// It's a file part
 				final FilePart filePart = (FilePart) part;
@@ -309,6 +273,63 @@ public class MultipartRequest {
 		}
 	}
 
+	/**
+	 * For subclasses that fill in the parameters and files themselves, such
+	 * as <code>AsyncMultipartRequest</code>.
+	 */
+	protected MultipartRequest() {
+	}
+
+	static File getSaveDirectory(final String saveDirectory) {
+		if (saveDirectory == null) {
+			throw new IllegalArgumentException("saveDirectory cannot be null");
+		}
+		final File dir = new File(saveDirectory);
+
+		// Check saveDirectory is truly a directory
+		if (!dir.isDirectory()) {
+			throw new IllegalArgumentException("Not a directory: " + saveDirectory);
+		}
+
+		// Check saveDirectory is writable
+		if (!dir.canWrite()) {
+			throw new IllegalArgumentException("Not writable: " + saveDirectory);
+		}
+		return dir;
+	}
+
+	/**
+	 * Some people like to fetch query string parameters from
+	 * MultipartRequest, so here we make that possible. Thanks to
+	 * Ben Johnson, ben.johnson@merrillcorp.com, for the idea.
+	 */
+	protected void addQueryParameters(final HttpServletRequest request) {
+		if (request.getQueryString() != null) {
+			// Let HttpUtils create a name->String[] structure
+			final Hashtable queryParameters = HttpUtils.parseQueryString(request.getQueryString());
+			// For our own use, name it a name->Vector structure
+			final Enumeration queryParameterNames = queryParameters.keys();
+			while (queryParameterNames.hasMoreElements()) {
+				final Object paramName = queryParameterNames.nextElement();
+				final String[] values = (String[]) queryParameters.get(paramName);
+				final Vector newValues = new Vector();
+				for (int i = 0; i < values.length; i++) {
+					newValues.add(values[i]);
+				}
+				parameters.put(paramName, newValues);
+			}
+		}
+	}
+
+	protected void addParameter(final String name, final String value) {
+		Vector existingValues = (Vector) parameters.get(name);
+		if (existingValues == null) {
+			existingValues = new Vector();
+			parameters.put(name, existingValues);
+		}
+		existingValues.addElement(value);
+	}
+
 	/**
 	 * Constructor with an old signature, kept for backward compatibility.
 	 * Without this constructor, a servlet compiled against a previous version
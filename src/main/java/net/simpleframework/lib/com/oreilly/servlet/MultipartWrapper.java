@@ -34,6 +34,15 @@ public class MultipartWrapper extends HttpServletRequestWrapper {
 		mreq = new MultipartRequest(req, dir);
 	}
 
+	/**
+	 * Wraps a request whose multipart content has already been parsed, such
+	 * as by <code>AsyncMultipartRequest</code>.
+	 */
+	public MultipartWrapper(final HttpServletRequest req, final MultipartRequest mreq) {
+		super(req);
+		this.mreq = mreq;
+	}
+
 	// Methods to replace HSR methods
 	@Override
 	public Enumeration getParameterNames() {
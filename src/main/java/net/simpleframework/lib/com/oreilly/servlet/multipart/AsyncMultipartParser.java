@@ -0,0 +1,305 @@
+package net.simpleframework.lib.com.oreilly.servlet.multipart;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * A "push" <code>multipart/form-data</code> parser for non-blocking input.
+ * Where <code>MultipartStream</code> pulls from an <code>InputStream</code>,
+ * this class is fed whatever bytes have arrived through
+ * {@link #write(byte[], int, int)} and reports parts to a
+ * {@link PartHandler} as soon as they can be recognized, so a
+ * <code>ReadListener</code> never has to block waiting for the rest of the
+ * request. The boundary search and header rules are shared with
+ * <code>MultipartStream</code>.
+ * <p>
+ * An instance is not thread-safe; the callbacks run on the thread calling
+ * <code>write</code> or <code>close</code>.
+ */
+public class AsyncMultipartParser {
+
+	/**
+	 * Receives the parts of the request in order.
+	 */
+	public interface PartHandler {
+
+		/**
+		 * @param fileName
+		 *        the filename without any path, empty if the file input was
+		 *        left blank, or null for a parameter part.
+		 */
+		void startPart(String name, String fileName, String filePath, String contentType)
+				throws IOException;
+
+		/**
+		 * Part data. The bytes belong to the parser's buffer and are only
+		 * valid until the method returns.
+		 */
+		void data(byte[] b, int off, int len) throws IOException;
+
+		void endPart() throws IOException;
+	}
+
+	/**
+	 * Creates a parser for the request body, checking the content type and
+	 * the declared length the same way <code>MultipartParser</code> does.
+	 */
+	public static AsyncMultipartParser of(final HttpServletRequest req, final long maxSize,
+			final String encoding, final PartHandler handler) throws IOException {
+		final String type = MultipartStream.getContentType(req);
+		if (type == null || !type.toLowerCase().startsWith("multipart/form-data")) {
+			throw new IOException("Posted content type isn't multipart/form-data");
+		}
+		final long length = req.getContentLength();
+		if (maxSize >= 0 && length > maxSize) {
+			throw new ExceededSizeException(
+					"Posted content length of " + length + " exceeds limit of " + maxSize);
+		}
+		final String boundary = MultipartParser.extractBoundary(type);
+		if (boundary == null) {
+			throw new IOException("Separation boundary was not specified");
+		}
+		final AsyncMultipartParser parser = new AsyncMultipartParser(boundary.substring(2),
+				encoding, handler);
+		parser.setMaxSize(maxSize);
+		return parser;
+	}
+
+	private static final int BODY = 0, DELIMITER = 1, HEADERS = 2, DONE = 3;
+
+	private final PartHandler handler;
+
+	private final DelimiterMatcher matcher;
+
+	private final String encoding;
+
+	private byte[] buf;
+
+	private int pos, count;
+
+	private int state = BODY;
+
+	/** whether the data in BODY state belongs to a part, false for the preamble */
+	private boolean inPart;
+
+	/** where to continue looking for the end of a header line */
+	private int lineFrom;
+
+	private final List<String> headers = new ArrayList<>(4);
+
+	private String header;
+
+	private long maxSize = -1, total;
+
+	/**
+	 * @param boundary
+	 *        the boundary parameter of the content type, without the
+	 *        leading "--"
+	 * @param encoding
+	 *        the encoding of headers, ISO-8859-1 if null
+	 */
+	public AsyncMultipartParser(final String boundary, final String encoding,
+			final PartHandler handler) throws IOException {
+		this.handler = handler;
+		this.encoding = encoding != null ? encoding : "ISO-8859-1";
+		matcher = new DelimiterMatcher(boundary);
+		buf = MultipartStream.acquireBuffer();
+		// a body starting directly with the boundary has no preceding CRLF
+		buf[0] = '\r';
+		buf[1] = '\n';
+		count = 2;
+	}
+
+	public void setMaxSize(final long maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @return true once the closing boundary has been seen; anything written
+	 *         after it is ignored.
+	 */
+	public boolean isFinished() {
+		return state == DONE;
+	}
+
+	/**
+	 * Feeds the next bytes of the request body.
+	 */
+	public void write(final byte[] b, int off, int len) throws IOException {
+		if (buf == null) {
+			throw new IOException("Parser closed");
+		}
+		total += len;
+		if (maxSize >= 0 && total > maxSize) {
+			throw new ExceededSizeException("Posted content exceeds limit of " + maxSize);
+		}
+		while (len > 0 && state != DONE) {
+			if (count == buf.length) {
+				if (pos == 0) {
+					throw new IOException("Header line too long");
+				}
+				System.arraycopy(buf, pos, buf, 0, count - pos);
+				count -= pos;
+				lineFrom -= pos;
+				pos = 0;
+			}
+			final int n = Math.min(len, buf.length - count);
+			System.arraycopy(b, off, buf, count, n);
+			count += n;
+			off += n;
+			len -= n;
+			parse(false);
+		}
+	}
+
+	/**
+	 * Signals the end of the request body and returns the buffer to the pool.
+	 *
+	 * @exception IOException
+	 *            if the input ended inside a part.
+	 */
+	public void close() throws IOException {
+		if (buf == null) {
+			return;
+		}
+		try {
+			parse(true);
+			if (state == BODY) {
+				throw new IOException("unexpected end of part");
+			}
+		} finally {
+			state = DONE;
+			MultipartStream.releaseBuffer(buf);
+			buf = null;
+		}
+	}
+
+	private void parse(final boolean eos) throws IOException {
+		for (;;) {
+			switch (state) {
+			case BODY:
+				if (!body()) {
+					return;
+				}
+				break;
+			case DELIMITER:
+				if (!afterDelimiter(eos)) {
+					return;
+				}
+				break;
+			case HEADERS:
+				if (!headers(eos)) {
+					return;
+				}
+				break;
+			default:
+				return;
+			}
+		}
+	}
+
+	/** Hands out the part data up to the next delimiter. */
+	private boolean body() throws IOException {
+		final int i = matcher.find(buf, pos, count);
+		if (i >= 0) {
+			if (inPart) {
+				if (i > pos) {
+					handler.data(buf, pos, i - pos);
+				}
+				inPart = false;
+				handler.endPart();
+			}
+			pos = i + matcher.length();
+			state = DELIMITER;
+			return true;
+		}
+		// keep a possible partial delimiter at the end of the buffer
+		final int limit = matcher.safeEnd(pos, count);
+		if (limit > pos) {
+			if (inPart) {
+				handler.data(buf, pos, limit - pos);
+			}
+			pos = limit;
+		}
+		return false;
+	}
+
+	/** After a delimiter comes "--" for the last one, or padding and CRLF. */
+	private boolean afterDelimiter(final boolean eos) {
+		if (count - pos < 2) {
+			if (eos) {
+				state = DONE;
+			}
+			return eos;
+		}
+		if (buf[pos] == '-' && buf[pos + 1] == '-') {
+			state = DONE;
+			return true;
+		}
+		for (int i = pos; i < count; i++) {
+			if (buf[i] == '\n') {
+				pos = lineFrom = i + 1;
+				state = HEADERS;
+				return true;
+			}
+		}
+		if (eos) {
+			state = DONE;
+		}
+		return eos;
+	}
+
+	private boolean headers(final boolean eos) throws IOException {
+		for (;;) {
+			int i = lineFrom;
+			while (i < count && buf[i] != '\n') {
+				i++;
+			}
+			if (i == count) {
+				lineFrom = count;
+				if (eos) {
+					// same as MultipartStream, a truncated header block is dropped
+					state = DONE;
+				}
+				return eos;
+			}
+			int end = i;
+			if (end > pos && buf[end - 1] == '\r') {
+				end--;
+			}
+			final String line = new String(buf, pos, end - pos, encoding);
+			pos = lineFrom = i + 1;
+
+			if (header == null) {
+				if (line.length() == 0) {
+					// same as MultipartParser, an empty header block ends the request
+					state = DONE;
+					return true;
+				}
+				header = line;
+			} else if (line.startsWith(" ") || line.startsWith("\t")) {
+				header = header + line;
+			} else {
+				headers.add(header);
+				if (line.length() > 0) {
+					header = line;
+				} else {
+					header = null;
+					startPart();
+					state = BODY;
+					return true;
+				}
+			}
+		}
+	}
+
+	private void startPart() throws IOException {
+		final String[] info = MultipartStream.parseHeaders(headers);
+		headers.clear();
+		inPart = true;
+		handler.startPart(info[0], info[1], info[2], info[3]);
+	}
+}
@@ -6,6 +6,7 @@ package net.simpleframework.lib.com.oreilly.servlet.multipart;
 
 import java.io.IOException;
 
+import javax.servlet.ReadListener;
 import javax.servlet.ServletInputStream;
 
 /**
@@ -212,4 +213,24 @@ public class BufferedServletInputStream extends ServletInputStream {
 		}
 		return total;
 	}
+
+	@Override
+	public boolean isFinished() {
+		return pos >= count && in.isFinished();
+	}
+
+	@Override
+	public boolean isReady() {
+		return pos < count || in.isReady();
+	}
+
+	/**
+	 * Buffering is for blocking reads only; use the container's stream with
+	 * a <code>ReadListener</code> directly.
+	 */
+	@Override
+	public void setReadListener(final ReadListener listener) {
+		throw new IllegalStateException(
+				"Buffering is for blocking reads only, set the listener on the container's stream");
+	}
 }
@@ -0,0 +1,67 @@
+package net.simpleframework.lib.com.oreilly.servlet.multipart;
+
+import java.io.UnsupportedEncodingException;
+
+/**
+ * The part delimiter search shared by <code>MultipartStream</code> and
+ * <code>AsyncMultipartParser</code>: a Boyer-Moore-Horspool search for
+ * CRLF + "--" + boundary.
+ */
+final class DelimiterMatcher {
+
+	/** CRLF + "--" + boundary */
+	private final byte[] delimiter;
+
+	/** Horspool shift table */
+	private final int[] shift = new int[256];
+
+	/**
+	 * @param boundary
+	 *        the boundary parameter of the content type, without the
+	 *        leading "--"
+	 */
+	DelimiterMatcher(final String boundary) throws UnsupportedEncodingException {
+		delimiter = ("\r\n--" + boundary).getBytes("ISO-8859-1");
+		final int n = delimiter.length;
+		for (int i = 0; i < shift.length; i++) {
+			shift[i] = n;
+		}
+		for (int i = 0; i < n - 1; i++) {
+			shift[delimiter[i] & 0xff] = n - 1 - i;
+		}
+	}
+
+	int length() {
+		return delimiter.length;
+	}
+
+	/**
+	 * @return the index of the first delimiter lying entirely within
+	 *         <code>buf[from, to)</code>, or -1 if there is none.
+	 */
+	int find(final byte[] buf, final int from, final int to) {
+		final byte[] d = delimiter;
+		final int last = d.length - 1;
+		int i = from;
+		while (i + last < to) {
+			int j = last;
+			while (buf[i + j] == d[j]) {
+				if (j == 0) {
+					return i;
+				}
+				j--;
+			}
+			i += shift[buf[i + last] & 0xff];
+		}
+		return -1;
+	}
+
+	/**
+	 * When {@link #find} found nothing, returns the end of the data that can
+	 * be handed out; the bytes after it may be the start of a delimiter
+	 * completed by the next read.
+	 */
+	int safeEnd(final int from, final int to) {
+		return Math.max(from, to - (delimiter.length - 1));
+	}
+}
@@ -6,6 +6,7 @@ package net.simpleframework.lib.com.oreilly.servlet.multipart;
 
 import java.io.IOException;
 
+import javax.servlet.ReadListener;
 import javax.servlet.ServletInputStream;
 
 /**
@@ -122,4 +123,24 @@ public class LimitedServletInputStream extends ServletInputStream {
 		}
 		return result;
 	}
+
+	@Override
+	public boolean isFinished() {
+		return totalRead >= totalExpected || in.isFinished();
+	}
+
+	@Override
+	public boolean isReady() {
+		return totalRead >= totalExpected || in.isReady();
+	}
+
+	/**
+	 * The limit is only applied to blocking reads; use the container's
+	 * stream with a <code>ReadListener</code> directly.
+	 */
+	@Override
+	public void setReadListener(final ReadListener listener) {
+		throw new IllegalStateException(
+				"The limit is only applied to blocking reads, set the listener on the container's stream");
+	}
 }
@@ -338,7 +338,7 @@ public class MultipartParser {
 	 * 
 	 * @return the boundary token.
 	 */
-	private String extractBoundary(final String line) {
+	static String extractBoundary(final String line) {
 		// Use lastIndexOf() because IE 4.01 on Win98 has been known to send the
 		// "boundary=" string multiple times. Thanks to David Wall for this fix.
 		int index = line.lastIndexOf("boundary=");
@@ -366,7 +366,7 @@ public class MultipartParser {
 	 * @exception IOException
 	 *            if the line is malformatted.
 	 */
-	private String[] extractDispositionInfo(String line) throws IOException {
+	static String[] extractDispositionInfo(String line) throws IOException {
 		// Return the line's data as an array: disposition, name, filename
 		final String[] retval = new String[4];
 
@@ -436,7 +436,7 @@ public class MultipartParser {
 	 * @exception IOException
 	 *            if the line is malformatted.
 	 */
-	private static String extractContentType(String line) throws IOException {
+	static String extractContentType(String line) throws IOException {
 		// Convert the line to a lowercase string
 		line = line.toLowerCase();
 
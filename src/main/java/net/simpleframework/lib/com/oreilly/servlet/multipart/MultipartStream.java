@@ -0,0 +1,510 @@
+package net.simpleframework.lib.com.oreilly.servlet.multipart;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * A streaming <code>multipart/form-data</code> parser meant for large and
+ * concurrent uploads. Unlike <code>MultipartParser</code> it reads the
+ * request through a single pooled buffer, finds part boundaries with a
+ * Boyer-Moore-Horspool search instead of line by line, and hands file data
+ * to a <code>FileChannel</code> straight from that buffer.
+ * <p>
+ * Typical use:
+ *
+ * <pre>
+ * MultipartStream ms = MultipartStream.of(req, maxSize, "utf-8");
+ * try {
+ * 	while (ms.nextPart()) {
+ * 		if (ms.isFile()) {
+ * 			ms.writeTo(file, md5);
+ * 		} else {
+ * 			String value = ms.getString();
+ * 		}
+ * 	}
+ * } finally {
+ * 	ms.close();
+ * }
+ * </pre>
+ *
+ * An instance is not thread-safe.
+ */
+public class MultipartStream implements Closeable {
+
+	static final int BUFFER_SIZE = 64 * 1024;
+
+	static final int MAX_POOLED = 64;
+
+	private static final Queue<byte[]> POOL = new ConcurrentLinkedQueue<>();
+
+	private static final AtomicInteger pooled = new AtomicInteger();
+
+	static byte[] acquireBuffer() {
+		final byte[] buf = POOL.poll();
+		if (buf != null) {
+			pooled.decrementAndGet();
+			return buf;
+		}
+		return new byte[BUFFER_SIZE];
+	}
+
+	static void releaseBuffer(final byte[] buf) {
+		if (pooled.incrementAndGet() <= MAX_POOLED) {
+			POOL.offer(buf);
+		} else {
+			pooled.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Creates a parser for the request body, checking the content type and
+	 * the declared length the same way <code>MultipartParser</code> does.
+	 *
+	 * @param maxSize
+	 *        the maximum size of the POST content, also enforced while
+	 *        reading when the client does not send a Content-Length.
+	 */
+	public static MultipartStream of(final HttpServletRequest req, final long maxSize,
+			final String encoding) throws IOException {
+		final String type = getContentType(req);
+		if (type == null || !type.toLowerCase().startsWith("multipart/form-data")) {
+			throw new IOException("Posted content type isn't multipart/form-data");
+		}
+		final long length = req.getContentLength();
+		if (maxSize >= 0 && length > maxSize) {
+			throw new ExceededSizeException(
+					"Posted content length of " + length + " exceeds limit of " + maxSize);
+		}
+		final String boundary = MultipartParser.extractBoundary(type);
+		if (boundary == null) {
+			throw new IOException("Separation boundary was not specified");
+		}
+		final MultipartStream ms = new MultipartStream(req.getInputStream(), boundary.substring(2),
+				encoding);
+		ms.setMaxSize(maxSize);
+		return ms;
+	}
+
+	static String getContentType(final HttpServletRequest req) {
+		// Access header two ways to work around WebSphere oddities
+		final String type1 = req.getHeader("Content-Type");
+		final String type2 = req.getContentType();
+		if (type1 == null) {
+			return type2;
+		} else if (type2 == null) {
+			return type1;
+		}
+		return type1.length() > type2.length() ? type1 : type2;
+	}
+
+	private final InputStream in;
+
+	private final DelimiterMatcher matcher;
+
+	private final String encoding;
+
+	private byte[] buf;
+
+	private int pos, count;
+
+	/** end of the part data that can be handed out without crossing a delimiter */
+	private int limit;
+
+	/** whether the delimiter starts at <code>limit</code> */
+	private boolean atDelimiter;
+
+	private boolean eos, finished, inBody;
+
+	private long maxSize = -1, total;
+
+	private String name, fileName, filePath, contentType;
+
+	private boolean file;
+
+	private final InputStream partStream = new PartStream();
+
+	/**
+	 * @param in
+	 *        the request body
+	 * @param boundary
+	 *        the boundary parameter of the content type, without the
+	 *        leading "--"
+	 * @param encoding
+	 *        the encoding of headers and parameter values, ISO-8859-1 if null
+	 */
+	public MultipartStream(final InputStream in, final String boundary, final String encoding)
+			throws IOException {
+		this.in = in;
+		this.encoding = encoding != null ? encoding : "ISO-8859-1";
+		matcher = new DelimiterMatcher(boundary);
+		buf = acquireBuffer();
+		// a body starting directly with the boundary has no preceding CRLF
+		buf[0] = '\r';
+		buf[1] = '\n';
+		count = 2;
+		// the preamble is skipped like the data of a part
+		inBody = true;
+		scan();
+	}
+
+	public void setMaxSize(final long maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Moves to the next part, skipping whatever is left of the current one.
+	 *
+	 * @return false when there are no more parts.
+	 */
+	public boolean nextPart() throws IOException {
+		if (buf == null) {
+			throw new IOException("Stream closed");
+		}
+		while (inBody) {
+			final int n = chunk();
+			if (n > 0) {
+				pos += n;
+			}
+		}
+		if (finished) {
+			return false;
+		}
+
+		file = false;
+
+		String line = readLine();
+		if (line == null || line.length() == 0) {
+			// same as MultipartParser, an empty header block ends the request
+			finished = true;
+			return false;
+		}
+		final List<String> headers = new ArrayList<>(4);
+		while (line != null && line.length() > 0) {
+			String nextLine;
+			while ((nextLine = readLine()) != null
+					&& (nextLine.startsWith(" ") || nextLine.startsWith("\t"))) {
+				line = line + nextLine;
+			}
+			headers.add(line);
+			line = nextLine;
+		}
+		if (line == null) {
+			finished = true;
+			return false;
+		}
+		final String[] info = parseHeaders(headers);
+		name = info[0];
+		fileName = info[1];
+		filePath = info[2];
+		contentType = info[3];
+		if (fileName != null) {
+			file = true;
+			if (fileName.equals("")) {
+				fileName = null; // empty filename, probably an "empty" file param
+			}
+		}
+		inBody = true;
+		scan();
+		return true;
+	}
+
+	/**
+	 * Applies the rfc1867 rules to the headers of a part.
+	 *
+	 * @return the name, filename, file path and content type
+	 */
+	static String[] parseHeaders(final List<String> headers) throws IOException {
+		String name = null, fileName = null, filePath = null;
+		String contentType = "text/plain"; // rfc1867 says this is the default
+		for (final String header : headers) {
+			final String lower = header.toLowerCase();
+			if (lower.startsWith("content-disposition:")) {
+				final String[] dispInfo = MultipartParser.extractDispositionInfo(header);
+				name = dispInfo[1];
+				fileName = dispInfo[2];
+				filePath = dispInfo[3];
+			} else if (lower.startsWith("content-type:")) {
+				final String type = MultipartParser.extractContentType(header);
+				if (type != null) {
+					contentType = type;
+				}
+			}
+		}
+		return new String[] { name, fileName, filePath, contentType };
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return true if the part was sent with a filename attribute, even an
+	 *         empty one.
+	 */
+	public boolean isFile() {
+		return file;
+	}
+
+	/**
+	 * @return the filename without any path, or null if no file was selected.
+	 */
+	public String getFileName() {
+		return fileName;
+	}
+
+	public String getFilePath() {
+		return filePath;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	/**
+	 * @return the data of the current part; it ends at the next boundary.
+	 */
+	public InputStream getInputStream() {
+		return partStream;
+	}
+
+	/**
+	 * Reads the current part as a parameter value.
+	 */
+	public String getString() throws IOException {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream(128);
+		int n;
+		while ((n = chunk()) > 0) {
+			baos.write(buf, pos, n);
+			pos += n;
+		}
+		return baos.toString(encoding);
+	}
+
+	/**
+	 * Writes the current part to a file through its channel, updating the
+	 * digests (if any) with the same bytes.
+	 *
+	 * @return the number of bytes written
+	 */
+	public long writeTo(final File file, final MessageDigest... digests) throws IOException {
+		if ("application/x-macbinary".equals(contentType)) {
+			final OutputStream out = new FileOutputStream(file);
+			try {
+				return writeTo(new MacBinaryDecoderOutputStream(out), digests);
+			} finally {
+				out.close();
+			}
+		}
+		final FileOutputStream out = new FileOutputStream(file);
+		try {
+			final FileChannel channel = out.getChannel();
+			long size = 0;
+			int n;
+			while ((n = chunk()) > 0) {
+				update(digests, n);
+				final ByteBuffer bb = ByteBuffer.wrap(buf, pos, n);
+				while (bb.hasRemaining()) {
+					channel.write(bb);
+				}
+				pos += n;
+				size += n;
+			}
+			return size;
+		} finally {
+			out.close();
+		}
+	}
+
+	public long writeTo(final OutputStream out, final MessageDigest... digests)
+			throws IOException {
+		long size = 0;
+		int n;
+		while ((n = chunk()) > 0) {
+			update(digests, n);
+			out.write(buf, pos, n);
+			pos += n;
+			size += n;
+		}
+		return size;
+	}
+
+	private void update(final MessageDigest[] digests, final int n) {
+		if (digests != null) {
+			for (final MessageDigest digest : digests) {
+				digest.update(buf, pos, n);
+			}
+		}
+	}
+
+	/**
+	 * Returns the buffered bytes of the current part available at
+	 * <code>pos</code>, reading more input if needed, or -1 once the
+	 * delimiter is reached.
+	 */
+	private int chunk() throws IOException {
+		while (inBody) {
+			if (limit > pos) {
+				return limit - pos;
+			}
+			if (atDelimiter) {
+				pos = limit + matcher.length();
+				inBody = false;
+				afterDelimiter();
+				break;
+			}
+			if (!fill()) {
+				throw new IOException("unexpected end of part");
+			}
+			scan();
+		}
+		return -1;
+	}
+
+	/** After a delimiter comes "--" for the last one, or padding and CRLF. */
+	private void afterDelimiter() throws IOException {
+		while (count - pos < 2) {
+			if (!fill()) {
+				finished = true;
+				return;
+			}
+		}
+		if (buf[pos] == '-' && buf[pos + 1] == '-') {
+			finished = true;
+			return;
+		}
+		readLine();
+	}
+
+	/** Finds the next delimiter from <code>pos</code>. */
+	private void scan() {
+		final int i = matcher.find(buf, pos, count);
+		atDelimiter = i >= 0;
+		// keep a possible partial delimiter at the end of the buffer
+		limit = atDelimiter ? i : matcher.safeEnd(pos, count);
+	}
+
+	private boolean fill() throws IOException {
+		if (eos) {
+			return false;
+		}
+		if (pos > 0) {
+			System.arraycopy(buf, pos, buf, 0, count - pos);
+			count -= pos;
+			limit -= pos;
+			pos = 0;
+		}
+		if (count == buf.length) {
+			throw new IOException("Header line too long");
+		}
+		int n;
+		while ((n = in.read(buf, count, buf.length - count)) == 0) {
+		}
+		if (n < 0) {
+			eos = true;
+			return false;
+		}
+		count += n;
+		total += n;
+		if (maxSize >= 0 && total > maxSize) {
+			throw new ExceededSizeException("Posted content exceeds limit of " + maxSize);
+		}
+		return true;
+	}
+
+	/**
+	 * Reads a header line without its trailing \r\n or \n, or null at the
+	 * end of the input.
+	 */
+	private String readLine() throws IOException {
+		int from = pos;
+		for (;;) {
+			for (int i = from; i < count; i++) {
+				if (buf[i] == '\n') {
+					int end = i;
+					if (end > pos && buf[end - 1] == '\r') {
+						end--;
+					}
+					final String line = new String(buf, pos, end - pos, encoding);
+					pos = i + 1;
+					return line;
+				}
+			}
+			from = count - pos;
+			if (!fill()) {
+				if (count > pos) {
+					final String line = new String(buf, pos, count - pos, encoding);
+					pos = count;
+					return line;
+				}
+				return null;
+			}
+			from += pos;
+		}
+	}
+
+	/**
+	 * Returns the buffer to the pool. The request stream itself is left
+	 * open for the container.
+	 */
+	@Override
+	public void close() {
+		if (buf != null) {
+			releaseBuffer(buf);
+			buf = null;
+		}
+	}
+
+	private class PartStream extends InputStream {
+		@Override
+		public int read() throws IOException {
+			if (chunk() <= 0) {
+				return -1;
+			}
+			return buf[pos++] & 0xff;
+		}
+
+		@Override
+		public int read(final byte[] b, final int off, final int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			final int n = chunk();
+			if (n <= 0) {
+				return -1;
+			}
+			final int copy = Math.min(n, len);
+			System.arraycopy(buf, pos, b, off, copy);
+			pos += copy;
+			return copy;
+		}
+
+		@Override
+		public int available() {
+			return inBody ? limit - pos : 0;
+		}
+
+		@Override
+		public void close() throws IOException {
+			// skip the rest of the part
+			int n;
+			while ((n = chunk()) > 0) {
+				pos += n;
+			}
+		}
+	}
+}
@@ -64,7 +64,7 @@ public class JSONValue {
 	 */
 	public static Object parse(final InputStream in) {
 		try {
-			return new JSONParser(DEFAULT_PERMISSIVE_MODE).parse(in);
+			return JSONParser.getShared(DEFAULT_PERMISSIVE_MODE).parse(in);
 		} catch (final Exception e) {
 			return null;
 		}
@@ -84,7 +84,7 @@ public class JSONValue {
 	 */
 	public static Object parse(final byte[] in) {
 		try {
-			return new JSONParser(DEFAULT_PERMISSIVE_MODE).parse(in);
+			return JSONParser.getShared(DEFAULT_PERMISSIVE_MODE).parse(in);
 		} catch (final Exception e) {
 			return null;
 		}
@@ -99,7 +99,7 @@ public class JSONValue {
 	 */
 	public static <T> T parse(final InputStream in, final Class<T> mapTo) {
 		try {
-			final JSONParser p = new JSONParser(DEFAULT_PERMISSIVE_MODE);
+			final JSONParser p = JSONParser.getShared(DEFAULT_PERMISSIVE_MODE);
 			return p.parse(in, defaultReader.getMapper(mapTo));
 		} catch (final Exception e) {
 			e.printStackTrace();
@@ -121,7 +121,7 @@ public class JSONValue {
 	 */
 	public static Object parse(final Reader in) {
 		try {
-			return new JSONParser(DEFAULT_PERMISSIVE_MODE).parse(in);
+			return JSONParser.getShared(DEFAULT_PERMISSIVE_MODE).parse(in);
 		} catch (final Exception e) {
 			return null;
 		}
@@ -136,7 +136,7 @@ public class JSONValue {
 	 */
 	public static <T> T parse(final byte[] in, final Class<T> mapTo) {
 		try {
-			final JSONParser p = new JSONParser(DEFAULT_PERMISSIVE_MODE);
+			final JSONParser p = JSONParser.getShared(DEFAULT_PERMISSIVE_MODE);
 			return p.parse(in, defaultReader.getMapper(mapTo));
 		} catch (final Exception e) {
 			e.printStackTrace();
@@ -153,7 +153,7 @@ public class JSONValue {
 	 */
 	public static <T> T parse(final Reader in, final Class<T> mapTo) {
 		try {
-			final JSONParser p = new JSONParser(DEFAULT_PERMISSIVE_MODE);
+			final JSONParser p = JSONParser.getShared(DEFAULT_PERMISSIVE_MODE);
 			return p.parse(in, defaultReader.getMapper(mapTo));
 		} catch (final Exception e) {
 			e.printStackTrace();
@@ -170,7 +170,7 @@ public class JSONValue {
 	 */
 	public static <T> T parse(final Reader in, final T toUpdate) {
 		try {
-			final JSONParser p = new JSONParser(DEFAULT_PERMISSIVE_MODE);
+			final JSONParser p = JSONParser.getShared(DEFAULT_PERMISSIVE_MODE);
 			return p.parse(in, new UpdaterMapper<>(defaultReader, toUpdate));
 		} catch (final Exception e) {
 			e.printStackTrace();
@@ -185,7 +185,7 @@ public class JSONValue {
 	 */
 	protected static <T> T parse(final Reader in, final JsonReaderI<T> mapper) {
 		try {
-			final JSONParser p = new JSONParser(DEFAULT_PERMISSIVE_MODE);
+			final JSONParser p = JSONParser.getShared(DEFAULT_PERMISSIVE_MODE);
 			return p.parse(in, mapper);
 		} catch (final Exception e) {
 			e.printStackTrace();
@@ -202,7 +202,7 @@ public class JSONValue {
 	 */
 	public static <T> T parse(final String in, final Class<T> mapTo) {
 		try {
-			final JSONParser p = new JSONParser(DEFAULT_PERMISSIVE_MODE);
+			final JSONParser p = JSONParser.getShared(DEFAULT_PERMISSIVE_MODE);
 			return p.parse(in, defaultReader.getMapper(mapTo));
 		} catch (final Exception e) {
 			e.printStackTrace();
@@ -219,7 +219,7 @@ public class JSONValue {
 	 */
 	public static <T> T parse(final InputStream in, final T toUpdate) {
 		try {
-			final JSONParser p = new JSONParser(DEFAULT_PERMISSIVE_MODE);
+			final JSONParser p = JSONParser.getShared(DEFAULT_PERMISSIVE_MODE);
 			return p.parse(in, new UpdaterMapper<>(defaultReader, toUpdate));
 		} catch (final Exception e) {
 			e.printStackTrace();
@@ -236,7 +236,7 @@ public class JSONValue {
 	 */
 	public static <T> T parse(final String in, final T toUpdate) {
 		try {
-			final JSONParser p = new JSONParser(DEFAULT_PERMISSIVE_MODE);
+			final JSONParser p = JSONParser.getShared(DEFAULT_PERMISSIVE_MODE);
 			return p.parse(in, new UpdaterMapper<>(defaultReader, toUpdate));
 		} catch (final Exception e) {
 			e.printStackTrace();
@@ -251,7 +251,7 @@ public class JSONValue {
 	 */
 	protected static <T> T parse(final byte[] in, final JsonReaderI<T> mapper) {
 		try {
-			final JSONParser p = new JSONParser(DEFAULT_PERMISSIVE_MODE);
+			final JSONParser p = JSONParser.getShared(DEFAULT_PERMISSIVE_MODE);
 			return p.parse(in, mapper);
 		} catch (final Exception e) {
 			return null;
@@ -265,7 +265,7 @@ public class JSONValue {
 	 */
 	protected static <T> T parse(final String in, final JsonReaderI<T> mapper) {
 		try {
-			final JSONParser p = new JSONParser(DEFAULT_PERMISSIVE_MODE);
+			final JSONParser p = JSONParser.getShared(DEFAULT_PERMISSIVE_MODE);
 			return p.parse(in, mapper);
 		} catch (final Exception e) {
 			e.printStackTrace();
@@ -287,7 +287,7 @@ public class JSONValue {
 	 */
 	public static Object parse(final String s) {
 		try {
-			return new JSONParser(DEFAULT_PERMISSIVE_MODE).parse(s);
+			return JSONParser.getShared(DEFAULT_PERMISSIVE_MODE).parse(s);
 		} catch (final Exception e) {
 			return null;
 		}
@@ -300,7 +300,7 @@ public class JSONValue {
 	 */
 	public static Object parseKeepingOrder(final Reader in) {
 		try {
-			return new JSONParser(DEFAULT_PERMISSIVE_MODE).parse(in, defaultReader.DEFAULT_ORDERED);
+			return JSONParser.getShared(DEFAULT_PERMISSIVE_MODE).parse(in, defaultReader.DEFAULT_ORDERED);
 		} catch (final Exception e) {
 			return null;
 		}
@@ -313,7 +313,7 @@ public class JSONValue {
 	 */
 	public static Object parseKeepingOrder(final String in) {
 		try {
-			return new JSONParser(DEFAULT_PERMISSIVE_MODE).parse(in, defaultReader.DEFAULT_ORDERED);
+			return JSONParser.getShared(DEFAULT_PERMISSIVE_MODE).parse(in, defaultReader.DEFAULT_ORDERED);
 		} catch (final Exception e) {
 			return null;
 		}
@@ -349,7 +349,7 @@ public class JSONValue {
 	public static String compress(final String input, final JSONStyle style) {
 		try {
 			final StringBuilder sb = new StringBuilder();
-			new JSONParser(DEFAULT_PERMISSIVE_MODE).parse(input,
+			JSONParser.getShared(DEFAULT_PERMISSIVE_MODE).parse(input,
 					new CompessorMapper(defaultReader, sb, style));
 			return sb.toString();
 		} catch (final Exception e) {
@@ -387,7 +387,7 @@ public class JSONValue {
 	 *         java.lang.Number, java.lang.Boolean, null
 	 */
 	public static Object parseWithException(final byte[] in) throws IOException, ParseException {
-		return new JSONParser(DEFAULT_PERMISSIVE_MODE).parse(in, defaultReader.DEFAULT);
+		return JSONParser.getShared(DEFAULT_PERMISSIVE_MODE).parse(in, defaultReader.DEFAULT);
 	}
 
 	/**
@@ -400,7 +400,7 @@ public class JSONValue {
 	 */
 	public static Object parseWithException(final InputStream in)
 			throws IOException, ParseException {
-		return new JSONParser(DEFAULT_PERMISSIVE_MODE).parse(in, defaultReader.DEFAULT);
+		return JSONParser.getShared(DEFAULT_PERMISSIVE_MODE).parse(in, defaultReader.DEFAULT);
 	}
 
 	/**
@@ -412,7 +412,7 @@ public class JSONValue {
 	 *         java.lang.Number, java.lang.Boolean, null
 	 */
 	public static Object parseWithException(final Reader in) throws IOException, ParseException {
-		return new JSONParser(DEFAULT_PERMISSIVE_MODE).parse(in, defaultReader.DEFAULT);
+		return JSONParser.getShared(DEFAULT_PERMISSIVE_MODE).parse(in, defaultReader.DEFAULT);
 	}
 
 	/**
@@ -424,7 +424,7 @@ public class JSONValue {
 	 *         java.lang.Number, java.lang.Boolean, null
 	 */
 	public static Object parseWithException(final String s) throws ParseException {
-		return new JSONParser(DEFAULT_PERMISSIVE_MODE).parse(s, defaultReader.DEFAULT);
+		return JSONParser.getShared(DEFAULT_PERMISSIVE_MODE).parse(s, defaultReader.DEFAULT);
 	}
 
 	/**
@@ -436,7 +436,7 @@ public class JSONValue {
 	 */
 	public static <T> T parseWithException(final String in, final Class<T> mapTo)
 			throws ParseException {
-		final JSONParser p = new JSONParser(DEFAULT_PERMISSIVE_MODE);
+		final JSONParser p = JSONParser.getShared(DEFAULT_PERMISSIVE_MODE);
 		return p.parse(in, defaultReader.getMapper(mapTo));
 	}
 
@@ -449,7 +449,7 @@ public class JSONValue {
 	 *         java.lang.Number, java.lang.Boolean, null
 	 */
 	public static Object parseStrict(final Reader in) throws IOException, ParseException {
-		return new JSONParser(MODE_RFC4627).parse(in, defaultReader.DEFAULT);
+		return JSONParser.getShared(MODE_RFC4627).parse(in, defaultReader.DEFAULT);
 	}
 
 	/**
@@ -461,7 +461,7 @@ public class JSONValue {
 	 *         java.lang.Number, java.lang.Boolean, null
 	 */
 	public static Object parseStrict(final String s) throws ParseException {
-		return new JSONParser(MODE_RFC4627).parse(s, defaultReader.DEFAULT);
+		return JSONParser.getShared(MODE_RFC4627).parse(s, defaultReader.DEFAULT);
 	}
 
 	/**
@@ -471,7 +471,7 @@ public class JSONValue {
 	 */
 	public static boolean isValidJsonStrict(final Reader in) throws IOException {
 		try {
-			new JSONParser(MODE_RFC4627).parse(in, FakeMapper.DEFAULT);
+			JSONParser.getShared(MODE_RFC4627).parse(in, FakeMapper.DEFAULT);
 			return true;
 		} catch (final ParseException e) {
 			return false;
@@ -485,7 +485,7 @@ public class JSONValue {
 	 */
 	public static boolean isValidJsonStrict(final String s) {
 		try {
-			new JSONParser(MODE_RFC4627).parse(s, FakeMapper.DEFAULT);
+			JSONParser.getShared(MODE_RFC4627).parse(s, FakeMapper.DEFAULT);
 			return true;
 		} catch (final ParseException e) {
 			return false;
@@ -499,7 +499,7 @@ public class JSONValue {
 	 */
 	public static boolean isValidJson(final Reader in) throws IOException {
 		try {
-			new JSONParser(DEFAULT_PERMISSIVE_MODE).parse(in, FakeMapper.DEFAULT);
+			JSONParser.getShared(DEFAULT_PERMISSIVE_MODE).parse(in, FakeMapper.DEFAULT);
 			return true;
 		} catch (final ParseException e) {
 			return false;
@@ -513,7 +513,7 @@ public class JSONValue {
 	 */
 	public static boolean isValidJson(final String s) {
 		try {
-			new JSONParser(DEFAULT_PERMISSIVE_MODE).parse(s, FakeMapper.DEFAULT);
+			JSONParser.getShared(DEFAULT_PERMISSIVE_MODE).parse(s, FakeMapper.DEFAULT);
 			return true;
 		} catch (final ParseException e) {
 			return false;
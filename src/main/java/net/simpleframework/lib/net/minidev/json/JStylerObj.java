@@ -236,6 +236,72 @@ class JStylerObj {
 		public void escape(String s, Appendable out);
 	}
 
+	/**
+	 * Replacement of each char below U+00A0, null when the char is copied as
+	 * is.
+	 */
+	private final static String[] ESCAPES_LT = new String[0xA0];
+	private final static String[] ESCAPES_WEB;
+
+	private final static String HEX = "0123456789ABCDEF";
+
+	static {
+		// Reference:
+		// http://www.unicode.org/versions/Unicode5.1.0/
+		for (int ch = 0; ch < ESCAPES_LT.length; ch++) {
+			if (ch <= '\u001F' || ch >= '\u007F') {
+				ESCAPES_LT[ch] = "\\u00" + HEX.charAt(ch >> 4 & 0x0F) + HEX.charAt(ch & 0x0F);
+			}
+		}
+		ESCAPES_LT['"'] = "\\\"";
+		ESCAPES_LT['\\'] = "\\\\";
+		ESCAPES_LT['\b'] = "\\b";
+		ESCAPES_LT['\f'] = "\\f";
+		ESCAPES_LT['\n'] = "\\n";
+		ESCAPES_LT['\r'] = "\\r";
+		ESCAPES_LT['\t'] = "\\t";
+		ESCAPES_WEB = ESCAPES_LT.clone();
+		ESCAPES_WEB['/'] = "\\/";
+	}
+
+	/**
+	 * Copies the runs of chars that need no escape in one append each,
+	 * looking the others up in the table.
+	 */
+	private static void escape(final String s, final Appendable out, final String[] escapes)
+			throws IOException {
+		final int len = s.length();
+		int start = 0;
+		for (int i = 0; i < len; i++) {
+			final char ch = s.charAt(i);
+			if (ch < 0xA0) {
+				final String rep = escapes[ch];
+				if (rep == null) {
+					continue;
+				}
+				if (i > start) {
+					out.append(s, start, i);
+				}
+				out.append(rep);
+			} else if (ch >= '\u2000' && ch <= '\u20FF') {
+				if (i > start) {
+					out.append(s, start, i);
+				}
+				out.append("\\u20");
+				out.append(HEX.charAt(ch >> 4 & 0x0F));
+				out.append(HEX.charAt(ch & 0x0F));
+			} else {
+				continue;
+			}
+			start = i + 1;
+		}
+		if (start == 0) {
+			out.append(s);
+		} else if (start < len) {
+			out.append(s, start, len);
+		}
+	}
+
 	private static class EscapeLT implements StringProtector {
 		/**
 		 * Escape special chars form String except /
@@ -247,47 +313,7 @@ class JStylerObj {
 		@Override
 		public void escape(final String s, final Appendable out) {
 			try {
-				final int len = s.length();
-				for (int i = 0; i < len; i++) {
-					final char ch = s.charAt(i);
-					switch (ch) {
-					case '"':
-						out.append("\\\"");
-						break;
-					case '\\':
-						out.append("\\\\");
-						break;
-					case '\b':
-						out.append("\\b");
-						break;
-					case '\f':
-						out.append("\\f");
-						break;
-					case '\n':
-						out.append("\\n");
-						break;
-					case '\r':
-						out.append("\\r");
-						break;
-					case '\t':
-						out.append("\\t");
-						break;
-					default:
-						// Reference:
-						// http://www.unicode.org/versions/Unicode5.1.0/
-						if ((ch >= '\u0000' && ch <= '\u001F') || (ch >= '\u007F' && ch <= '\u009F')
-								|| (ch >= '\u2000' && ch <= '\u20FF')) {
-							out.append("\\u");
-							final String hex = "0123456789ABCDEF";
-							out.append(hex.charAt(ch >> 12 & 0x000F));
-							out.append(hex.charAt(ch >> 8 & 0x000F));
-							out.append(hex.charAt(ch >> 4 & 0x000F));
-							out.append(hex.charAt(ch >> 0 & 0x000F));
-						} else {
-							out.append(ch);
-						}
-					}
-				}
+				JStylerObj.escape(s, out, ESCAPES_LT);
 			} catch (final IOException e) {
 				throw new RuntimeException("Impossible Exeption");
 			}
@@ -306,50 +332,7 @@ class JStylerObj {
 		@Override
 		public void escape(final String s, final Appendable sb) {
 			try {
-				final int len = s.length();
-				for (int i = 0; i < len; i++) {
-					final char ch = s.charAt(i);
-					switch (ch) {
-					case '"':
-						sb.append("\\\"");
-						break;
-					case '\\':
-						sb.append("\\\\");
-						break;
-					case '\b':
-						sb.append("\\b");
-						break;
-					case '\f':
-						sb.append("\\f");
-						break;
-					case '\n':
-						sb.append("\\n");
-						break;
-					case '\r':
-						sb.append("\\r");
-						break;
-					case '\t':
-						sb.append("\\t");
-						break;
-					case '/':
-						sb.append("\\/");
-						break;
-					default:
-						// Reference:
-						// http://www.unicode.org/versions/Unicode5.1.0/
-						if ((ch >= '\u0000' && ch <= '\u001F') || (ch >= '\u007F' && ch <= '\u009F')
-								|| (ch >= '\u2000' && ch <= '\u20FF')) {
-							sb.append("\\u");
-							final String hex = "0123456789ABCDEF";
-							sb.append(hex.charAt(ch >> 12 & 0x0F));
-							sb.append(hex.charAt(ch >> 8 & 0x0F));
-							sb.append(hex.charAt(ch >> 4 & 0x0F));
-							sb.append(hex.charAt(ch >> 0 & 0x0F));
-						} else {
-							sb.append(ch);
-						}
-					}
-				}
+				JStylerObj.escape(s, sb, ESCAPES_WEB);
 			} catch (final IOException e) {
 				throw new RuntimeException("Impossible Error");
 			}
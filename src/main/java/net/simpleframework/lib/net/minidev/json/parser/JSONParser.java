@@ -18,6 +18,8 @@ package net.simpleframework.lib.net.minidev.json.parser;
 import java.io.InputStream;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.simpleframework.lib.net.minidev.json.JSONValue;
 import net.simpleframework.lib.net.minidev.json.writer.JsonReaderI;
@@ -122,52 +124,83 @@ public class JSONParser {
 	 */
 	private final int mode;
 
-	private JSONParserInputStream pBinStream;
-	private JSONParserByteArray pBytes;
-	private JSONParserReader pStream;
-	private JSONParserString pString;
+	private static final int P_BIN_STREAM = 0, P_BYTES = 1, P_STREAM = 2, P_STRING = 3;
 
-	private JSONParserReader getPStream() {
-		if (pStream == null) {
-			pStream = new JSONParserReader(mode);
+	/**
+	 * The front ends keep per-parse state, so each thread gets its own set and
+	 * one JSONParser can be shared between threads. Pooled threads keep theirs
+	 * until {@link #clearThreadCache()} is called.
+	 */
+	private final ThreadLocal<JSONParserBase[]> frontEnds = new ThreadLocal<JSONParserBase[]>() {
+		@Override
+		protected JSONParserBase[] initialValue() {
+			return new JSONParserBase[4];
 		}
-		return pStream;
-	}
+	};
+
+	private static final Map<Integer, JSONParser> shared = new ConcurrentHashMap<>();
 
 	/**
-	 * cached construcor
-	 * 
-	 * @return instance of JSONParserInputStream
-	 */
-	private JSONParserInputStream getPBinStream() {
-		if (pBinStream == null) {
-			pBinStream = new JSONParserInputStream(mode);
+	 * A thread-safe parser for the mode, shared by all callers.
+	 */
+	public static JSONParser getShared(final int permissifMode) {
+		JSONParser parser = shared.get(permissifMode);
+		if (parser == null) {
+			final JSONParser old = shared.putIfAbsent(permissifMode,
+					parser = new JSONParser(permissifMode));
+			if (old != null) {
+				parser = old;
+			}
 		}
-		return pBinStream;
+		return parser;
 	}
 
 	/**
-	 * cached construcor
-	 * 
-	 * @return instance of JSONParserString
-	 */
-	private JSONParserString getPString() {
-		if (pString == null) {
-			pString = new JSONParserString(mode);
+	 * Drops the front ends the current thread keeps for the shared parsers.
+	 * Container threads outlive a web application, so call this when such a
+	 * thread is done with the parsers, at the end of a request for example;
+	 * otherwise the cached front ends keep the application's class loader
+	 * reachable after it is undeployed.
+	 */
+	public static void clearThreadCache() {
+		for (final JSONParser parser : shared.values()) {
+			parser.frontEnds.remove();
 		}
-		return pString;
 	}
 
 	/**
-	 * cached construcor
-	 * 
-	 * @return instance of JSONParserByteArray
-	 */
-	private JSONParserByteArray getPBytes() {
-		if (pBytes == null) {
-			pBytes = new JSONParserByteArray(mode);
+	 * Takes the front end of this thread. A parse started from inside another
+	 * one, by a mapper for example, gets a new front end instead.
+	 */
+	private JSONParserBase acquire(final int type) {
+		final JSONParserBase[] cache = frontEnds.get();
+		JSONParserBase p = cache[type];
+		if (p == null || p.inUse) {
+			p = create(type);
+			if (cache[type] == null) {
+				cache[type] = p;
+			}
+		}
+		p.inUse = true;
+		return p;
+	}
+
+	private void release(final JSONParserBase p) {
+		p.reset();
+		p.inUse = false;
+	}
+
+	private JSONParserBase create(final int type) {
+		switch (type) {
+		case P_BIN_STREAM:
+			return new JSONParserInputStream(mode);
+		case P_BYTES:
+			return new JSONParserByteArray(mode);
+		case P_STREAM:
+			return new JSONParserReader(mode);
+		default:
+			return new JSONParserString(mode);
 		}
-		return pBytes;
 	}
 
 	/**
@@ -187,7 +220,12 @@ public class JSONParser {
 	 * generated by a ContainerFactory
 	 */
 	public Object parse(final byte[] in) throws ParseException {
-		return getPBytes().parse(in);
+		final JSONParserByteArray p = (JSONParserByteArray) acquire(P_BYTES);
+		try {
+			return p.parse(in);
+		} finally {
+			release(p);
+		}
 	}
 
 	/**
@@ -195,7 +233,12 @@ public class JSONParser {
 	 * generated by a ContainerFactory
 	 */
 	public <T> T parse(final byte[] in, final JsonReaderI<T> mapper) throws ParseException {
-		return getPBytes().parse(in, mapper);
+		final JSONParserByteArray p = (JSONParserByteArray) acquire(P_BYTES);
+		try {
+			return p.parse(in, mapper);
+		} finally {
+			release(p);
+		}
 	}
 
 	/**
@@ -203,7 +246,12 @@ public class JSONParser {
 	 * generated by a ContainerFactory
 	 */
 	public <T> T parse(final byte[] in, final Class<T> mapTo) throws ParseException {
-		return getPBytes().parse(in, JSONValue.defaultReader.getMapper(mapTo));
+		final JSONParserByteArray p = (JSONParserByteArray) acquire(P_BYTES);
+		try {
+			return p.parse(in, JSONValue.defaultReader.getMapper(mapTo));
+		} finally {
+			release(p);
+		}
 	}
 
 	/**
@@ -213,7 +261,12 @@ public class JSONParser {
 	 * @throws UnsupportedEncodingException
 	 */
 	public Object parse(final InputStream in) throws ParseException, UnsupportedEncodingException {
-		return getPBinStream().parse(in);
+		final JSONParserInputStream p = (JSONParserInputStream) acquire(P_BIN_STREAM);
+		try {
+			return p.parse(in);
+		} finally {
+			release(p);
+		}
 	}
 
 	/**
@@ -222,7 +275,12 @@ public class JSONParser {
 	 */
 	public <T> T parse(final InputStream in, final JsonReaderI<T> mapper)
 			throws ParseException, UnsupportedEncodingException {
-		return getPBinStream().parse(in, mapper);
+		final JSONParserInputStream p = (JSONParserInputStream) acquire(P_BIN_STREAM);
+		try {
+			return p.parse(in, mapper);
+		} finally {
+			release(p);
+		}
 	}
 
 	/**
@@ -231,7 +289,12 @@ public class JSONParser {
 	 */
 	public <T> T parse(final InputStream in, final Class<T> mapTo)
 			throws ParseException, UnsupportedEncodingException {
-		return getPBinStream().parse(in, JSONValue.defaultReader.getMapper(mapTo));
+		final JSONParserInputStream p = (JSONParserInputStream) acquire(P_BIN_STREAM);
+		try {
+			return p.parse(in, JSONValue.defaultReader.getMapper(mapTo));
+		} finally {
+			release(p);
+		}
 	}
 
 	/**
@@ -239,7 +302,12 @@ public class JSONParser {
 	 * generated by a ContainerFactory
 	 */
 	public Object parse(final Reader in) throws ParseException {
-		return getPStream().parse(in);
+		final JSONParserReader p = (JSONParserReader) acquire(P_STREAM);
+		try {
+			return p.parse(in);
+		} finally {
+			release(p);
+		}
 	}
 
 	/**
@@ -247,7 +315,12 @@ public class JSONParser {
 	 * generated by a ContainerFactory
 	 */
 	public <T> T parse(final Reader in, final JsonReaderI<T> mapper) throws ParseException {
-		return getPStream().parse(in, mapper);
+		final JSONParserReader p = (JSONParserReader) acquire(P_STREAM);
+		try {
+			return p.parse(in, mapper);
+		} finally {
+			release(p);
+		}
 	}
 
 	/**
@@ -255,7 +328,12 @@ public class JSONParser {
 	 * generated by a ContainerFactory
 	 */
 	public <T> T parse(final Reader in, final Class<T> mapTo) throws ParseException {
-		return getPStream().parse(in, JSONValue.defaultReader.getMapper(mapTo));
+		final JSONParserReader p = (JSONParserReader) acquire(P_STREAM);
+		try {
+			return p.parse(in, JSONValue.defaultReader.getMapper(mapTo));
+		} finally {
+			release(p);
+		}
 	}
 
 	/**
@@ -263,7 +341,12 @@ public class JSONParser {
 	 * generated by a ContainerFactory
 	 */
 	public Object parse(final String in) throws ParseException {
-		return getPString().parse(in);
+		final JSONParserString p = (JSONParserString) acquire(P_STRING);
+		try {
+			return p.parse(in);
+		} finally {
+			release(p);
+		}
 	}
 
 	/**
@@ -271,7 +354,12 @@ public class JSONParser {
 	 * generated by a ContainerFactory
 	 */
 	public <T> T parse(final String in, final JsonReaderI<T> mapper) throws ParseException {
-		return getPString().parse(in, mapper);
+		final JSONParserString p = (JSONParserString) acquire(P_STRING);
+		try {
+			return p.parse(in, mapper);
+		} finally {
+			release(p);
+		}
 	}
 
 	/**
@@ -279,6 +367,11 @@ public class JSONParser {
 	 * generated by a ContainerFactory
 	 */
 	public <T> T parse(final String in, final Class<T> mapTo) throws ParseException {
-		return getPString().parse(in, JSONValue.defaultReader.getMapper(mapTo));
+		final JSONParserString p = (JSONParserString) acquire(P_STRING);
+		try {
+			return p.parse(in, JSONValue.defaultReader.getMapper(mapTo));
+		} finally {
+			release(p);
+		}
 	}
 }
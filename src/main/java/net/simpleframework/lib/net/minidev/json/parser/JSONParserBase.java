@@ -65,6 +65,11 @@ abstract class JSONParserBase {
 	//
 	//
 	protected final MSB sb = new MSB(15);
+
+	/**
+	 * set by JSONParser while a parse is running
+	 */
+	boolean inUse;
 	protected Object xo;
 	protected String xs;
 	protected int pos;
@@ -181,6 +186,27 @@ abstract class JSONParserBase {
 		return result;
 	}
 
+	/**
+	 * larger string buffers are dropped on reset instead of being kept by a
+	 * reused parser
+	 */
+	static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+	/**
+	 * Drops every reference to the last input and result so the parser can
+	 * be kept for reuse, whether the last parse succeeded or not.
+	 */
+	protected void reset() {
+		base = null;
+		xs = null;
+		xo = null;
+		lastKey = null;
+		sb.clear();
+		if (sb.b.length > MAX_RETAINED_BUFFER) {
+			sb.b = new char[15];
+		}
+	}
+
 	protected Number parseNumber(final String s) throws ParseException {
 		// pos
 		int p = 0;
@@ -55,6 +55,20 @@ class JSONParserReader extends JSONParserStream {
 		return super.parse(mapper);
 	}
 
+	/**
+	 * set the input without starting a parse, used by {@link JSONTokenizer}
+	 */
+	void setInput(final Reader in) {
+		this.in = in;
+		this.pos = -1;
+	}
+
+	@Override
+	protected void reset() {
+		super.reset();
+		in = null;
+	}
+
 	//
 	//
 	//
@@ -59,6 +59,12 @@ class JSONParserString extends JSONParserMemory {
 		return parse(mapper);
 	}
 
+	@Override
+	protected void reset() {
+		super.reset();
+		in = null;
+	}
+
 	@Override
 	protected void extractString(final int beginIndex, final int endIndex) {
 		xs = in.substring(beginIndex, endIndex);
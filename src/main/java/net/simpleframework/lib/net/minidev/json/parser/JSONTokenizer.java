@@ -0,0 +1,484 @@
+package net.simpleframework.lib.net.minidev.json.parser;
+
+import static net.simpleframework.lib.net.minidev.json.parser.JSONParserBase.EOI;
+import static net.simpleframework.lib.net.minidev.json.parser.ParseException.ERROR_UNEXPECTED_CHAR;
+import static net.simpleframework.lib.net.minidev.json.parser.ParseException.ERROR_UNEXPECTED_EOF;
+import static net.simpleframework.lib.net.minidev.json.parser.ParseException.ERROR_UNEXPECTED_TOKEN;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.simpleframework.lib.net.minidev.json.JSONUtil;
+import net.simpleframework.lib.net.minidev.json.JSONValue;
+import net.simpleframework.lib.net.minidev.json.writer.FakeMapper;
+import net.simpleframework.lib.net.minidev.json.writer.JsonReaderI;
+
+/**
+ * Pull parser for JSON text too large to be held in memory. Each call to
+ * {@link #nextToken()} reads one token; a value the caller is interested
+ * in can be read as a whole with {@link #readValue(Class)}, and a subtree
+ * it is not interested in dropped with {@link #skipChildren()}. Only the
+ * current container nesting is kept, so memory use does not grow with the
+ * size of the input.
+ *
+ * <pre>
+ * JSONTokenizer tokenizer = new JSONTokenizer(in);
+ * while (tokenizer.nextValue("$.rows[*]")) {
+ * 	Row row = tokenizer.readValue(Row.class);
+ * 	...
+ * }
+ * </pre>
+ *
+ * The accepted syntax follows the permissive mode, as in
+ * {@link JSONParser}. Please note that JSONTokenizer is NOT thread-safe.
+ */
+public class JSONTokenizer implements Closeable {
+
+	public enum Token {
+		START_OBJECT, END_OBJECT, START_ARRAY, END_ARRAY, FIELD_NAME, VALUE_STRING, VALUE_NUMBER,
+		VALUE_TRUE, VALUE_FALSE, VALUE_NULL
+	}
+
+	private static final byte OBJECT = 1, ARRAY = 2;
+
+	/* state of a container: first key or value, value after a key, separator */
+	private static final byte FIRST = 0, VALUE = 1, NEXT = 2;
+
+	private final JSONParserReader p;
+
+	private final Reader in;
+
+	/* the containers entered, from 1 to depth */
+	private byte[] types = new byte[16];
+	private byte[] states = new byte[16];
+	private String[] names = new String[16];
+	private int[] indexes = new int[16];
+	private int depth;
+
+	private Token token;
+	private Object value;
+
+	/* the current token starts a container whose bracket is not read yet */
+	private boolean open;
+
+	private boolean started, rootRead, ended;
+
+	private String lastPath;
+	private Object[] lastSegments;
+
+	public JSONTokenizer(final Reader in) {
+		this(in, JSONParser.DEFAULT_PERMISSIVE_MODE);
+	}
+
+	public JSONTokenizer(final Reader in, final int permissiveMode) {
+		this.in = in instanceof BufferedReader ? in : new BufferedReader(in);
+		p = new JSONParserReader(permissiveMode);
+		p.setInput(this.in);
+	}
+
+	public JSONTokenizer(final InputStream in) {
+		this(in, JSONParser.DEFAULT_PERMISSIVE_MODE);
+	}
+
+	public JSONTokenizer(final InputStream in, final int permissiveMode) {
+		this(new InputStreamReader(in, StandardCharsets.UTF_8), permissiveMode);
+	}
+
+	/**
+	 * Read the next token.
+	 *
+	 * @return the token, or null at the end of the input
+	 */
+	public Token nextToken() throws ParseException {
+		try {
+			if (open) {
+				enter();
+			}
+			value = null;
+			return token = next();
+		} catch (final IOException e) {
+			throw new ParseException(p.pos, e);
+		}
+	}
+
+	public Token currentToken() {
+		return token;
+	}
+
+	/**
+	 * @return the key of the current value in its object, or the key read
+	 *         by a FIELD_NAME token; null inside an array
+	 */
+	public String getCurrentName() {
+		return depth > 0 && types[depth] == OBJECT ? names[depth] : null;
+	}
+
+	/**
+	 * @return the value of a VALUE_* token: a String, Number, Boolean or
+	 *         null
+	 */
+	public Object getValue() {
+		return value;
+	}
+
+	/**
+	 * @return the number of containers the current token is in
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * @return the path of the current token, such as $.rows[2].name
+	 */
+	public String getPath() {
+		final StringBuilder sb = new StringBuilder("$");
+		for (int i = 1; i <= depth; i++) {
+			if (types[i] == OBJECT) {
+				if (names[i] != null) {
+					sb.append('.').append(names[i]);
+				}
+			} else if (indexes[i] >= 0) {
+				sb.append('[').append(indexes[i]).append(']');
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * If the current token is START_OBJECT or START_ARRAY, read up to the
+	 * matching end token without building anything. The skipped text is
+	 * still checked.
+	 */
+	public void skipChildren() throws ParseException {
+		if (open) {
+			readValue(FakeMapper.DEFAULT);
+		}
+	}
+
+	/**
+	 * Read the current value as a whole, leaving the tokenizer on its last
+	 * token.
+	 */
+	public Object readValue() throws ParseException {
+		return readValue(JSONValue.defaultReader.DEFAULT);
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T> T readValue(final Class<T> type) throws ParseException {
+		if (open) {
+			return readValue(JSONValue.defaultReader.getMapper(type));
+		}
+		checkValue();
+		return (T) JSONUtil.convertToX(value, type);
+	}
+
+	public <T> T readValue(final JsonReaderI<T> mapper) throws ParseException {
+		if (!open) {
+			checkValue();
+			return mapper.convert(value);
+		}
+		open = false;
+		try {
+			if (token == Token.START_OBJECT) {
+				token = Token.END_OBJECT;
+				return p.readObject(mapper);
+			} else {
+				token = Token.END_ARRAY;
+				return p.readArray(mapper);
+			}
+		} catch (final IOException e) {
+			throw new ParseException(p.pos, e);
+		}
+	}
+
+	/**
+	 * Move to the next value whose path matches, skipping the subtrees that
+	 * cannot contain one. A path starts with $ and is followed by .name,
+	 * ['name'] or [index] for each level, where .* matches any key of an
+	 * object and [*] any element of an array, e.g. $[*] for the elements of
+	 * the top level array.
+	 *
+	 * @return false at the end of the input
+	 */
+	public boolean nextValue(final String path) throws ParseException {
+		if (!path.equals(lastPath)) {
+			lastSegments = compile(path);
+			lastPath = path;
+		}
+		final Object[] segments = lastSegments;
+		Token t;
+		while ((t = nextToken()) != null) {
+			if (t == Token.FIELD_NAME || t == Token.END_OBJECT || t == Token.END_ARRAY) {
+				continue;
+			}
+			final int m = match(segments);
+			if (m > 0) {
+				return true;
+			}
+			if (m < 0) {
+				skipChildren();
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	private Token next() throws ParseException, IOException {
+		if (!started) {
+			started = true;
+			p.read();
+		}
+		if (depth == 0 && rootRead) {
+			checkEnd();
+			return null;
+		}
+		skipSpace();
+		if (depth == 0) {
+			if (p.c == EOI) {
+				ended = true;
+				return null;
+			}
+			rootRead = true;
+			return value(JSONParserBase.stopX);
+		}
+		final char c = p.c;
+		final byte state = states[depth];
+		if (types[depth] == OBJECT) {
+			if (state == VALUE) {
+				states[depth] = NEXT;
+				return value(JSONParserBase.stopValue);
+			}
+			if (c == '}') {
+				return end();
+			}
+			if (c == ',') {
+				if (state != NEXT && !p.acceptUselessComma) {
+					throw unexpected();
+				}
+				p.read();
+				skipSpace();
+				if (p.c == '}' && p.acceptUselessComma) {
+					return end();
+				}
+			} else if (state == NEXT) {
+				throw unexpected();
+			}
+			return key();
+		}
+		if (c == ']') {
+			return end();
+		}
+		if (c == ',') {
+			if (state != NEXT && !p.acceptUselessComma) {
+				throw unexpected();
+			}
+			p.read();
+			skipSpace();
+			if (p.c == ']' && p.acceptUselessComma) {
+				return end();
+			}
+		} else if (state == NEXT) {
+			throw unexpected();
+		}
+		states[depth] = NEXT;
+		indexes[depth]++;
+		return value(JSONParserBase.stopArray);
+	}
+
+	private Token key() throws ParseException, IOException {
+		final char c = p.c;
+		if (c == '"' || c == '\'') {
+			p.readString();
+		} else {
+			if (c == EOI) {
+				throw new ParseException(p.pos - 1, ERROR_UNEXPECTED_EOF, "EOF");
+			}
+			if (c == ':' || c == ',' || c == '{' || c == '}' || c == '[' || c == ']') {
+				throw unexpected();
+			}
+			p.readNQString(JSONParserBase.stopKey);
+			if (!p.acceptNonQuote) {
+				throw new ParseException(p.pos, ERROR_UNEXPECTED_TOKEN, p.xs);
+			}
+		}
+		names[depth] = p.xs;
+		skipSpace();
+		if (p.c != ':') {
+			if (p.c == EOI) {
+				throw new ParseException(p.pos - 1, ERROR_UNEXPECTED_EOF, null);
+			}
+			throw new ParseException(p.pos - 1, ERROR_UNEXPECTED_CHAR, p.c);
+		}
+		p.readNoEnd(); /* skip : */
+		states[depth] = VALUE;
+		return Token.FIELD_NAME;
+	}
+
+	private Token value(final boolean[] stop) throws ParseException, IOException {
+		switch (p.c) {
+		case '{':
+			open = true;
+			return Token.START_OBJECT;
+		case '[':
+			open = true;
+			return Token.START_ARRAY;
+		case EOI:
+			throw new ParseException(p.pos - 1, ERROR_UNEXPECTED_EOF, "EOF");
+		}
+		final Object v = p.readMain(FakeMapper.DEFAULT, stop);
+		value = v;
+		if (v == null) {
+			return Token.VALUE_NULL;
+		}
+		if (v instanceof Boolean) {
+			return (Boolean) v ? Token.VALUE_TRUE : Token.VALUE_FALSE;
+		}
+		return v instanceof Number ? Token.VALUE_NUMBER : Token.VALUE_STRING;
+	}
+
+	private void enter() throws IOException {
+		open = false;
+		p.read(); /* skip { or [ */
+		if (++depth == types.length) {
+			final int n = depth * 2;
+			types = Arrays.copyOf(types, n);
+			states = Arrays.copyOf(states, n);
+			names = Arrays.copyOf(names, n);
+			indexes = Arrays.copyOf(indexes, n);
+		}
+		types[depth] = token == Token.START_OBJECT ? OBJECT : ARRAY;
+		states[depth] = FIRST;
+		names[depth] = null;
+		indexes[depth] = -1;
+	}
+
+	private Token end() throws IOException {
+		p.read(); /* unstack */
+		return types[depth--] == OBJECT ? Token.END_OBJECT : Token.END_ARRAY;
+	}
+
+	private void checkEnd() throws ParseException, IOException {
+		if (ended) {
+			return;
+		}
+		ended = true;
+		if (p.checkTaillingData) {
+			if (!p.checkTaillingSpace) {
+				p.skipSpace();
+			}
+			if (p.c != EOI) {
+				throw new ParseException(p.pos - 1, ERROR_UNEXPECTED_TOKEN, p.c);
+			}
+		}
+	}
+
+	private void checkValue() {
+		if (token == null || token == Token.FIELD_NAME || token == Token.END_OBJECT
+				|| token == Token.END_ARRAY) {
+			throw new IllegalStateException("Current token is not a value: " + token);
+		}
+	}
+
+	private ParseException unexpected() {
+		return new ParseException(p.pos, ERROR_UNEXPECTED_CHAR, p.c);
+	}
+
+	/* same spaces as JSONParserBase.readMain, without storing them */
+	private void skipSpace() throws IOException {
+		for (;;) {
+			switch (p.c) {
+			case ' ':
+			case '\r':
+			case '\n':
+			case '\t':
+				p.read();
+				continue;
+			default:
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return 1 if the current value is at the path, 0 if it may contain
+	 *         values at the path, -1 otherwise
+	 */
+	private int match(final Object[] segments) {
+		if (depth > segments.length) {
+			return -1;
+		}
+		for (int i = 1; i <= depth; i++) {
+			final Object s = segments[i - 1];
+			if (types[i] == OBJECT) {
+				if (s != ANY_NAME && !s.equals(names[i])) {
+					return -1;
+				}
+			} else if (s != ANY_INDEX && !s.equals(indexes[i])) {
+				return -1;
+			}
+		}
+		return depth == segments.length ? 1 : 0;
+	}
+
+	private static final Object ANY_NAME = new Object(), ANY_INDEX = new Object();
+
+	/* a name, an Integer index, ANY_NAME or ANY_INDEX for each level */
+	static Object[] compile(final String path) {
+		if (!path.startsWith("$")) {
+			throw new IllegalArgumentException("Path must start with $: " + path);
+		}
+		final List<Object> segments = new ArrayList<>();
+		final int len = path.length();
+		int i = 1;
+		while (i < len) {
+			final char c = path.charAt(i);
+			if (c == '.') {
+				int j = i + 1;
+				while (j < len && path.charAt(j) != '.' && path.charAt(j) != '[') {
+					j++;
+				}
+				if (j == i + 1) {
+					throw new IllegalArgumentException("Empty name in path: " + path);
+				}
+				final String name = path.substring(i + 1, j);
+				segments.add("*".equals(name) ? ANY_NAME : name);
+				i = j;
+			} else if (c == '[') {
+				final int j = path.indexOf(']', i);
+				if (j < 0) {
+					throw new IllegalArgumentException("Missing ] in path: " + path);
+				}
+				final String s = path.substring(i + 1, j).trim();
+				if ("*".equals(s)) {
+					segments.add(ANY_INDEX);
+				} else if (s.length() >= 2 && (s.charAt(0) == '\'' || s.charAt(0) == '"')
+						&& s.charAt(s.length() - 1) == s.charAt(0)) {
+					segments.add(s.substring(1, s.length() - 1));
+				} else {
+					try {
+						segments.add(Integer.valueOf(s));
+					} catch (final NumberFormatException e) {
+						throw new IllegalArgumentException("Invalid index in path: " + path);
+					}
+				}
+				i = j + 1;
+			} else {
+				throw new IllegalArgumentException("Unexpected '" + c + "' in path: " + path);
+			}
+		}
+		return segments.toArray();
+	}
+}
@@ -1,27 +1,71 @@
 package net.simpleframework.lib.net.minidev.json.reader;
 
 import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.simpleframework.lib.net.minidev.asm.Accessor;
 import net.simpleframework.lib.net.minidev.asm.BeansAccess;
-import net.simpleframework.lib.net.minidev.json.JSONObject;
 import net.simpleframework.lib.net.minidev.json.JSONStyle;
 import net.simpleframework.lib.net.minidev.json.JSONUtil;
+import net.simpleframework.lib.net.minidev.json.JSONValue;
 
 public class BeansWriterASM implements JsonWriterI<Object> {
+	/**
+	 * per class accessors and keys, rendered for the last style used
+	 */
+	private final ConcurrentHashMap<Class<?>, ClassWriter> writers = new ConcurrentHashMap<>();
+
 	@Override
 	public <E> void writeJSONString(final E value, final Appendable out, final JSONStyle compression)
 			throws IOException {
-		try {
-			final Class<?> cls = value.getClass();
-			boolean needSep = false;
+		final Class<?> cls = value.getClass();
+		ClassWriter w = writers.get(cls);
+		if (w == null || w.style != compression) {
 			@SuppressWarnings("rawtypes")
-			final BeansAccess fields = BeansAccess.get(cls, JSONUtil.JSON_SMART_FIELD_FILTER);
+			final BeansAccess fields = w != null ? w.fields : BeansAccess.get(cls,
+					JSONUtil.JSON_SMART_FIELD_FILTER);
+			w = new ClassWriter(fields, compression);
+			writers.put(cls, w);
+		}
+		w.write(value, out);
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static class ClassWriter {
+		final BeansAccess fields;
+
+		final JSONStyle style;
+
+		final int[] indexes;
+
+		/* key and ':', quoted and escaped as the style asks */
+		final String[] keys;
+
+		ClassWriter(final BeansAccess fields, final JSONStyle style) {
+			this.fields = fields;
+			this.style = style;
+			final Accessor[] accessors = fields.getAccessors();
+			indexes = new int[accessors.length];
+			keys = new String[accessors.length];
+			for (int i = 0; i < accessors.length; i++) {
+				indexes[i] = accessors[i].getIndex();
+				final String key = accessors[i].getName();
+				if (key == null) {
+					keys[i] = "null:";
+				} else if (!style.mustProtectKey(key)) {
+					keys[i] = key + ':';
+				} else {
+					keys[i] = '"' + JSONValue.escape(key, style) + "\":";
+				}
+			}
+		}
+
+		void write(final Object value, final Appendable out) throws IOException {
+			boolean needSep = false;
 			out.append('{');
-			for (final Accessor field : fields.getAccessors()) {
-				@SuppressWarnings("unchecked")
-				final Object v = fields.get(value, field.getIndex());
-				if (v == null && compression.ignoreNull()) {
+			for (int i = 0; i < keys.length; i++) {
+				final Object v = fields.get(value, indexes[i]);
+				if (v == null && style.ignoreNull()) {
 					continue;
 				}
 				if (needSep) {
@@ -29,12 +73,14 @@ public class BeansWriterASM implements JsonWriterI<Object> {
 				} else {
 					needSep = true;
 				}
-				final String key = field.getName();
-				JSONObject.writeJSONKV(key, v, out, compression);
+				out.append(keys[i]);
+				if (v instanceof String) {
+					style.writeString(out, (String) v);
+				} else {
+					JSONValue.writeJSONString(v, out, style);
+				}
 			}
 			out.append('}');
-		} catch (final IOException e) {
-			throw e;
 		}
 	}
 }
@@ -24,14 +24,13 @@ import static net.simpleframework.lib.org.mvel2.util.ReflectionUtil.toNonPrimiti
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.simpleframework.lib.org.mvel2.conversion.ArrayHandler;
 import net.simpleframework.lib.org.mvel2.conversion.BigDecimalCH;
@@ -41,6 +40,8 @@ import net.simpleframework.lib.org.mvel2.conversion.ByteCH;
 import net.simpleframework.lib.org.mvel2.conversion.CharArrayCH;
 import net.simpleframework.lib.org.mvel2.conversion.CharCH;
 import net.simpleframework.lib.org.mvel2.conversion.CompositeCH;
+import net.simpleframework.lib.org.mvel2.conversion.Converter;
+import net.simpleframework.lib.org.mvel2.conversion.ConverterResolver;
 import net.simpleframework.lib.org.mvel2.conversion.DoubleCH;
 import net.simpleframework.lib.org.mvel2.conversion.FloatCH;
 import net.simpleframework.lib.org.mvel2.conversion.IntArrayCH;
@@ -62,9 +63,23 @@ import net.simpleframework.lib.org.mvel2.util.FastList;
  * @see ConversionHandler
  */
 public class DataConversion {
-	private static final Map<Class, ConversionHandler> CONVERTERS = new HashMap<>(
+	private static final ConcurrentHashMap<Class, ConversionHandler> CONVERTERS = new ConcurrentHashMap<>(
 			38 * 2, 0.5f);
 
+	/*
+	 * target type -> (source type -> converter), filled the first time a pair
+	 * is converted
+	 */
+	private static final ConcurrentHashMap<Class, ConcurrentHashMap<Class, Converter>> DISPATCH //
+			= new ConcurrentHashMap<>();
+
+	private static final Converter IDENTITY = new Converter() {
+		@Override
+		public Object convert(final Object o) {
+			return o;
+		}
+	};
+
 	private interface ArrayTypeMarker {
 	}
 
@@ -144,18 +159,109 @@ public class DataConversion {
 		if (in == null) {
 			return null;
 		}
-		if (toType == in.getClass() || toType.isAssignableFrom(in.getClass())) {
+		final Class<?> from = in.getClass();
+		if (toType == from) {
 			return (T) in;
 		}
+		return (T) getConverter(from, toType).convert(in);
+	}
+
+	/**
+	 * Returns the converter bound to the (source, target) pair, resolving it
+	 * the first time the pair is seen.
+	 */
+	public static Converter getConverter(final Class from, final Class toType) {
+		ConcurrentHashMap<Class, Converter> m = DISPATCH.get(toType);
+		if (m == null) {
+			final ConcurrentHashMap<Class, Converter> m2 = DISPATCH.putIfAbsent(toType,
+					m = new ConcurrentHashMap<>());
+			if (m2 != null) {
+				m = m2;
+			}
+		}
+		Converter c = m.get(from);
+		if (c == null) {
+			m.put(from, c = resolve(from, toType));
+		}
+		return c;
+	}
+
+	private static Converter resolve(final Class from, final Class toType) {
+		if (toType.isAssignableFrom(from)) {
+			return IDENTITY;
+		}
+		ConversionHandler h = CONVERTERS.get(toType);
+		if (h == null) {
+			if (!toType.isArray()) {
+				throw new ConversionException("cannot convert type: " + from.getName() + " to: "
+						+ toType.getName());
+			}
+			final ConversionHandler h2 = CONVERTERS.putIfAbsent(toType, h = new ArrayHandler(toType));
+			if (h2 != null) {
+				h = h2;
+			}
+		}
+		if (h instanceof ConverterResolver) {
+			final Converter c = ((ConverterResolver) h).getConverter(from);
+			if (c != null) {
+				return c;
+			}
+		}
+		final ConversionHandler handler = h;
+		return new Converter() {
+			@Override
+			public Object convert(final Object o) {
+				return handler.convertFrom(o);
+			}
+		};
+	}
+
+	/*
+	 * Primitive entry points. The common source types are converted without
+	 * boxing; everything else goes through convert() with the same rules.
+	 */
+
+	public static int toInt(final Object in) {
+		if (in instanceof Integer || in instanceof Short || in instanceof Byte) {
+			return ((Number) in).intValue();
+		} else if (in instanceof String) {
+			return Integer.parseInt((String) in);
+		}
+		return convert(in, Integer.class);
+	}
+
+	public static long toLong(final Object in) {
+		if (in instanceof Long || in instanceof Integer || in instanceof Short
+				|| in instanceof Byte) {
+			return ((Number) in).longValue();
+		} else if (in instanceof String) {
+			final String s = (String) in;
+			return s.length() == 0 ? 0 : Long.parseLong(s);
+		}
+		return convert(in, Long.class);
+	}
+
+	public static double toDouble(final Object in) {
+		if (in instanceof Double || in instanceof Float || in instanceof Long
+				|| in instanceof Integer || in instanceof Short || in instanceof Byte) {
+			return ((Number) in).doubleValue();
+		}
+		return convert(in, Double.class);
+	}
+
+	public static float toFloat(final Object in) {
+		if (in instanceof Float || in instanceof Integer || in instanceof Short
+				|| in instanceof Byte) {
+			return ((Number) in).floatValue();
+		}
+		return convert(in, Float.class);
+	}
 
-		final ConversionHandler h = CONVERTERS.get(toType);
-		if (h == null && toType.isArray()) {
-			ArrayHandler ah;
-			CONVERTERS.put(toType, ah = new ArrayHandler(toType));
-			return (T) ah.convertFrom(in);
-		} else {
-			return (T) h.convertFrom(in);
+	public static boolean toBoolean(final Object in) {
+		if (in instanceof Boolean) {
+			return (Boolean) in;
 		}
+		return convert(in, Boolean.class);
 	}
 
 	/**
@@ -168,6 +274,8 @@ public class DataConversion {
 	 */
 	public static void addConversionHandler(final Class type, final ConversionHandler handler) {
 		CONVERTERS.put(type, handler);
+		// pairs resolved against the previous handler, or through assignability
+		DISPATCH.clear();
 	}
 
 	public static void main(final String[] args) {
@@ -0,0 +1,121 @@
+package net.simpleframework.lib.org.mvel2;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.simpleframework.lib.org.mvel2.util.BoundedCache;
+
+/**
+ * A bounded, thread-safe cache from expression text to its compiled form,
+ * used by the <tt>MVEL.eval(String, ...)</tt> overloads so repeated
+ * expressions run through the optimizing accessors instead of the
+ * interpreter.
+ * <p>
+ * Expressions that fail to compile are remembered as such and keep using
+ * the interpreted runtime. The cache is cleared when one of the global
+ * <tt>MVEL.COMPILER_OPT_*</tt> switches changes, since those affect the
+ * compiled result.
+ */
+public class ExpressionCache {
+	/* stands for an expression that did not compile, the cache holds no nulls */
+	private static final Serializable INTERPRETED = Boolean.FALSE;
+
+	private final BoundedCache<String, Serializable> cache;
+
+	private volatile int options = options();
+
+	private final AtomicLong hits = new AtomicLong(), compiles = new AtomicLong(),
+			failures = new AtomicLong(), compileNanos = new AtomicLong();
+
+	public ExpressionCache(final int maxSize) {
+		cache = new BoundedCache<>(maxSize);
+	}
+
+	/**
+	 * Returns the compiled expression, or null if the expression cannot be
+	 * compiled and should be interpreted.
+	 */
+	public Serializable get(final String expression) {
+		final int opts = options();
+		if (opts != options) {
+			options = opts;
+			cache.clear();
+		}
+		Serializable compiled = cache.get(expression);
+		if (compiled != null) {
+			hits.incrementAndGet();
+			return compiled != INTERPRETED ? compiled : null;
+		}
+		final long start = System.nanoTime();
+		try {
+			compiled = MVEL.compileExpression(expression);
+		} catch (final RuntimeException e) {
+			// the interpreter reports the error, or copes with what the compiler
+			// rejects
+			failures.incrementAndGet();
+			compiled = INTERPRETED;
+		}
+		compileNanos.addAndGet(System.nanoTime() - start);
+		compiles.incrementAndGet();
+		compiled = cache.putIfAbsent(expression, compiled);
+		return compiled != INTERPRETED ? compiled : null;
+	}
+
+	private static int options() {
+		return (MVEL.COMPILER_OPT_ALLOW_NAKED_METH_CALL ? 1 : 0)
+				| (MVEL.COMPILER_OPT_ALLOW_OVERRIDE_ALL_PROPHANDLING ? 2 : 0)
+				| (MVEL.COMPILER_OPT_ALLOW_RESOLVE_INNERCLASSES_WITH_DOTNOTATION ? 4 : 0)
+				| (MVEL.COMPILER_OPT_SUPPORT_JAVA_STYLE_CLASS_LITERALS ? 8 : 0)
+				| (MVEL.COMPILER_OPT_ALLOCATE_TYPE_LITERALS_TO_SHARED_SYMBOL_TABLE ? 16 : 0);
+	}
+
+	public void clear() {
+		cache.clear();
+	}
+
+	public int size() {
+		return cache.size();
+	}
+
+	public int getMaxSize() {
+		return cache.getMaxSize();
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * The number of compilations, including the failed ones.
+	 */
+	public long getCompiles() {
+		return compiles.get();
+	}
+
+	public long getFailures() {
+		return failures.get();
+	}
+
+	public long getEvictions() {
+		return cache.getEvictions();
+	}
+
+	/**
+	 * Total time spent compiling, in milliseconds.
+	 */
+	public long getCompileTime() {
+		return compileNanos.get() / 1000000;
+	}
+
+	public double getHitRate() {
+		final long h = hits.get(), total = h + compiles.get();
+		return total == 0 ? 0 : (double) h / total;
+	}
+
+	@Override
+	public String toString() {
+		return "ExpressionCache[size=" + size() + ", hits=" + getHits() + ", compiles="
+				+ getCompiles() + ", failures=" + getFailures() + ", evictions=" + getEvictions()
+				+ ", compileTime=" + getCompileTime() + "ms]";
+	}
+}
@@ -96,6 +96,25 @@ public class MVEL {
 		return DEBUG_FILE;
 	}
 
+	private static volatile ExpressionCache expressionCache = new ExpressionCache(2048);
+
+	public static ExpressionCache getExpressionCache() {
+		return expressionCache;
+	}
+
+	/**
+	 * Sets the cache used by the <tt>eval(String, ...)</tt> methods. Passing
+	 * null turns caching off, so every call is interpreted again.
+	 */
+	public static void setExpressionCache(final ExpressionCache cache) {
+		expressionCache = cache;
+	}
+
+	private static Serializable compiled(final String expression) {
+		final ExpressionCache cache = expressionCache;
+		return cache != null ? cache.get(expression) : null;
+	}
+
 	/**
 	 * Evaluate an expression and return the value.
 	 *
@@ -104,6 +123,10 @@ public class MVEL {
 	 * @return the resultant value
 	 */
 	public static Object eval(final String expression) {
+		final Serializable compiled = compiled(expression);
+		if (compiled != null) {
+			return executeExpression(compiled);
+		}
 		return new MVELInterpretedRuntime(expression, new ImmutableDefaultFactory()).parse();
 	}
 
@@ -130,6 +153,10 @@ public class MVEL {
 	 * @return The resultant value
 	 */
 	public static Object eval(final String expression, final Object ctx) {
+		final Serializable compiled = compiled(expression);
+		if (compiled != null) {
+			return executeExpression(compiled, ctx);
+		}
 		return new MVELInterpretedRuntime(expression, ctx, new ImmutableDefaultFactory()).parse();
 	}
 
@@ -166,6 +193,10 @@ public class MVEL {
 	 */
 	public static Object eval(final String expression,
 			final VariableResolverFactory resolverFactory) {
+		final Serializable compiled = compiled(expression);
+		if (compiled != null) {
+			return executeExpression(compiled, resolverFactory);
+		}
 		return new MVELInterpretedRuntime(expression, resolverFactory).parse();
 	}
 
@@ -187,6 +218,10 @@ public class MVEL {
 	 */
 	public static Object eval(final String expression, final Object ctx,
 			final VariableResolverFactory resolverFactory) {
+		final Serializable compiled = compiled(expression);
+		if (compiled != null) {
+			return executeExpression(compiled, ctx, resolverFactory);
+		}
 		return new MVELInterpretedRuntime(expression, ctx, resolverFactory).parse();
 	}
 
@@ -204,6 +239,10 @@ public class MVEL {
 	 *      net.simpleframework.lib.org.mvel2.integration.VariableResolverFactory)
 	 */
 	public static Object eval(final String expression, final Map<String, Object> vars) {
+		final Serializable compiled = compiled(expression);
+		if (compiled != null) {
+			return executeExpression(compiled, vars);
+		}
 		final CachingMapVariableResolverFactory factory = new CachingMapVariableResolverFactory(vars);
 		try {
 			return new MVELInterpretedRuntime(expression, null, factory).parse();
@@ -229,6 +268,10 @@ public class MVEL {
 	 */
 	public static Object eval(final String expression, final Object ctx,
 			final Map<String, Object> vars) {
+		final Serializable compiled = compiled(expression);
+		if (compiled != null) {
+			return executeExpression(compiled, ctx, vars);
+		}
 		final CachingMapVariableResolverFactory factory = new CachingMapVariableResolverFactory(vars);
 		try {
 			return new MVELInterpretedRuntime(expression, ctx, factory).parse();
@@ -258,6 +301,10 @@ public class MVEL {
 	 * @return The resultant value.
 	 */
 	public static <T> T eval(final String expression, final Class<T> toType) {
+		final Serializable compiled = compiled(expression);
+		if (compiled != null) {
+			return convert(executeExpression(compiled), toType);
+		}
 		return convert(new MVELInterpretedRuntime(expression).parse(), toType);
 	}
 
@@ -277,6 +324,10 @@ public class MVEL {
 	 * @see #eval(String, Class)
 	 */
 	public static <T> T eval(final String expression, final Object ctx, final Class<T> toType) {
+		final Serializable compiled = compiled(expression);
+		if (compiled != null) {
+			return executeExpression(compiled, ctx, toType);
+		}
 		return convert(new MVELInterpretedRuntime(expression, ctx).parse(), toType);
 	}
 
@@ -298,6 +349,10 @@ public class MVEL {
 	 */
 	public static <T> T eval(final String expression, final VariableResolverFactory vars,
 			final Class<T> toType) {
+		final Serializable compiled = compiled(expression);
+		if (compiled != null) {
+			return convert(executeExpression(compiled, vars), toType);
+		}
 		return convert(new MVELInterpretedRuntime(expression, null, vars).parse(), toType);
 	}
 
@@ -320,6 +375,10 @@ public class MVEL {
 	 */
 	public static <T> T eval(final String expression, final Map<String, Object> vars,
 			final Class<T> toType) {
+		final Serializable compiled = compiled(expression);
+		if (compiled != null) {
+			return executeExpression(compiled, vars, toType);
+		}
 		final CachingMapVariableResolverFactory factory = new CachingMapVariableResolverFactory(vars);
 		try {
 			return convert(new MVELInterpretedRuntime(expression, null, factory).parse(), toType);
@@ -348,6 +407,10 @@ public class MVEL {
 	 */
 	public static <T> T eval(final String expression, final Object ctx,
 			final VariableResolverFactory vars, final Class<T> toType) {
+		final Serializable compiled = compiled(expression);
+		if (compiled != null) {
+			return executeExpression(compiled, ctx, vars, toType);
+		}
 		return convert(new MVELInterpretedRuntime(expression, ctx, vars).parse(), toType);
 	}
 
@@ -371,6 +434,10 @@ public class MVEL {
 	 */
 	public static <T> T eval(final String expression, final Object ctx,
 			final Map<String, Object> vars, final Class<T> toType) {
+		final Serializable compiled = compiled(expression);
+		if (compiled != null) {
+			return executeExpression(compiled, ctx, vars, toType);
+		}
 		final CachingMapVariableResolverFactory factory = new CachingMapVariableResolverFactory(vars);
 		try {
 			return convert(new MVELInterpretedRuntime(expression, ctx, factory).parse(), toType);
@@ -27,7 +27,7 @@ import java.util.Map;
 import net.simpleframework.lib.org.mvel2.ConversionException;
 import net.simpleframework.lib.org.mvel2.ConversionHandler;
 
-public class BigDecimalCH implements ConversionHandler {
+public class BigDecimalCH implements ConversionHandler, ConverterResolver {
 	private static final Map<Class, Converter> CNV = new HashMap<>();
 
 	@Override
@@ -44,6 +44,11 @@ public class BigDecimalCH implements ConversionHandler {
 		return CNV.containsKey(cls);
 	}
 
+	@Override
+	public Converter getConverter(final Class cls) {
+		return CNV.get(cls);
+	}
+
 	static {
 		CNV.put(Object.class, new Converter() {
 			@Override
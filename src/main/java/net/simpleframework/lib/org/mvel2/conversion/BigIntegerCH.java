@@ -26,7 +26,7 @@ import java.util.Map;
 import net.simpleframework.lib.org.mvel2.ConversionException;
 import net.simpleframework.lib.org.mvel2.ConversionHandler;
 
-public class BigIntegerCH implements ConversionHandler {
+public class BigIntegerCH implements ConversionHandler, ConverterResolver {
 	private static final Map<Class, Converter> CNV = new HashMap<>();
 
 	@Override
@@ -43,6 +43,11 @@ public class BigIntegerCH implements ConversionHandler {
 		return CNV.containsKey(cls);
 	}
 
+	@Override
+	public Converter getConverter(final Class cls) {
+		return CNV.get(cls);
+	}
+
 	static {
 		CNV.put(Object.class, new Converter() {
 			@Override
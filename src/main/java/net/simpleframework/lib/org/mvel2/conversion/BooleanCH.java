@@ -27,7 +27,7 @@ import java.util.Map;
 import net.simpleframework.lib.org.mvel2.ConversionException;
 import net.simpleframework.lib.org.mvel2.ConversionHandler;
 
-public class BooleanCH implements ConversionHandler {
+public class BooleanCH implements ConversionHandler, ConverterResolver {
 	private static final Map<Class, Converter> CNV = new HashMap<>();
 
 	private static Converter stringConverter = new Converter() {
@@ -52,6 +52,11 @@ public class BooleanCH implements ConversionHandler {
 		return CNV.containsKey(cls);
 	}
 
+	@Override
+	public Converter getConverter(final Class cls) {
+		return CNV.get(cls);
+	}
+
 	static {
 		CNV.put(String.class, stringConverter);
 
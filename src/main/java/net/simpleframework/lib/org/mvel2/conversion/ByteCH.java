@@ -26,7 +26,7 @@ import java.util.Map;
 import net.simpleframework.lib.org.mvel2.ConversionException;
 import net.simpleframework.lib.org.mvel2.ConversionHandler;
 
-public class ByteCH implements ConversionHandler {
+public class ByteCH implements ConversionHandler, ConverterResolver {
 	private static final Map<Class, Converter> CNV = new HashMap<>();
 
 	private static Converter stringConverter = new Converter() {
@@ -50,6 +50,11 @@ public class ByteCH implements ConversionHandler {
 		return CNV.containsKey(cls);
 	}
 
+	@Override
+	public Converter getConverter(final Class cls) {
+		return CNV.get(cls);
+	}
+
 	static {
 		CNV.put(String.class, stringConverter);
 
@@ -27,7 +27,7 @@ import java.util.Map;
 import net.simpleframework.lib.org.mvel2.ConversionException;
 import net.simpleframework.lib.org.mvel2.ConversionHandler;
 
-public class CharCH implements ConversionHandler {
+public class CharCH implements ConversionHandler, ConverterResolver {
 	private static final Map<Class, Converter> CNV = new HashMap<>();
 
 	private static final Converter stringConverter = new Converter() {
@@ -56,6 +56,11 @@ public class CharCH implements ConversionHandler {
 		return CNV.containsKey(cls);
 	}
 
+	@Override
+	public Converter getConverter(final Class cls) {
+		return CNV.get(cls);
+	}
+
 	static {
 		CNV.put(String.class, stringConverter);
 
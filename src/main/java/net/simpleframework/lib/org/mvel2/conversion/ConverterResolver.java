@@ -0,0 +1,18 @@
+package net.simpleframework.lib.org.mvel2.conversion;
+
+/**
+ * Implemented by conversion handlers that keep one {@link Converter} per
+ * source type, so that the runtime can bind a (source, target) pair to the
+ * converter once instead of looking it up on every conversion.
+ *
+ * @see net.simpleframework.lib.org.mvel2.DataConversion
+ */
+public interface ConverterResolver {
+	/**
+	 * @param cls
+	 *        - the source type
+	 * @return - the converter for values of exactly that type, or null if the
+	 *         handler cannot convert from it.
+	 */
+	Converter getConverter(Class cls);
+}
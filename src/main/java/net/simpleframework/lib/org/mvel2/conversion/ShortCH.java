@@ -29,7 +29,7 @@ import java.util.Map;
 import net.simpleframework.lib.org.mvel2.ConversionException;
 import net.simpleframework.lib.org.mvel2.ConversionHandler;
 
-public class ShortCH implements ConversionHandler {
+public class ShortCH implements ConversionHandler, ConverterResolver {
 	/**
 	 * This is purely because Eclipse sucks, and has a serious bug with
 	 * it's java parser.
@@ -60,6 +60,11 @@ public class ShortCH implements ConversionHandler {
 		return CNV.containsKey(cls);
 	}
 
+	@Override
+	public Converter getConverter(final Class cls) {
+		return CNV.get(cls);
+	}
+
 	static {
 		CNV.put(String.class, stringConverter);
 
@@ -186,18 +186,14 @@ public class ASMAccessorOptimizer extends AbstractOptimizer implements AccessorO
 			OPCODES_VERSION = Opcodes.V1_4;
 		} else if (javaVersion.startsWith("1.5")) {
 			OPCODES_VERSION = Opcodes.V1_5;
-		} else if (javaVersion.startsWith("1.6") || javaVersion.startsWith("1.7")
-				|| javaVersion.startsWith("1.8") || javaVersion.startsWith("9")
-				|| javaVersion.startsWith("10") || javaVersion.startsWith("11")
-				|| javaVersion.startsWith("12")) {
-			OPCODES_VERSION = Opcodes.V1_6;
 		} else {
-			OPCODES_VERSION = Opcodes.V1_2;
+			// 1.6 and later, including the "9", "10", ... version scheme
+			OPCODES_VERSION = Opcodes.V1_6;
 		}
 
 		final String defaultNameSapce = getProperty("mvel2.namespace");
 		if (defaultNameSapce == null) {
-			NAMESPACE = "org/mvel2/";
+			NAMESPACE = "net/simpleframework/lib/org/mvel2/";
 		} else {
 			NAMESPACE = defaultNameSapce;
 		}
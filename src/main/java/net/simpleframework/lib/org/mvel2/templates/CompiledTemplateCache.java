@@ -0,0 +1,136 @@
+package net.simpleframework.lib.org.mvel2.templates;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.simpleframework.lib.org.mvel2.ParserContext;
+import net.simpleframework.lib.org.mvel2.util.BoundedCache;
+
+/**
+ * A bounded, thread-safe cache of compiled templates keyed by the template
+ * text. Compiled templates are immutable once built and may be shared between
+ * threads.
+ * <p>
+ * Files pulled in by <tt>@include{}</tt> are cached here as well, keyed by
+ * their canonical path and the parser context they are compiled with, and
+ * checked against the file's modification time on every lookup.
+ * <p>
+ * Eviction is left to {@link BoundedCache}.
+ */
+public class CompiledTemplateCache {
+	private final BoundedCache<Object, Entry> cache;
+
+	private final AtomicLong hits = new AtomicLong(), misses = new AtomicLong();
+
+	public CompiledTemplateCache(final int maxSize) {
+		cache = new BoundedCache<>(maxSize);
+	}
+
+	/**
+	 * Returns the compiled form of the template, compiling it on a miss. Two
+	 * threads missing on the same text concurrently may both compile it; the
+	 * first result is kept.
+	 */
+	public CompiledTemplate get(final String template) {
+		final Entry entry = cache.get(template);
+		if (entry != null) {
+			hits.incrementAndGet();
+			return entry.compiled;
+		}
+		misses.incrementAndGet();
+		return cache.putIfAbsent(template,
+				new Entry(TemplateCompiler.compileTemplate(template), 0)).compiled;
+	}
+
+	/**
+	 * Returns the compiled form of an included template file, or null if it is
+	 * not cached or the file was modified after it was cached.
+	 */
+	public CompiledTemplate get(final String path, final long lastModified,
+			final ParserContext context) {
+		final Entry entry = cache.get(new FileKey(path, context));
+		if (entry != null && entry.stamp == lastModified) {
+			hits.incrementAndGet();
+			return entry.compiled;
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+
+	public void put(final String path, final long lastModified, final ParserContext context,
+			final CompiledTemplate compiled) {
+		cache.put(new FileKey(path, context), new Entry(compiled, lastModified));
+	}
+
+	public void clear() {
+		cache.clear();
+	}
+
+	public int size() {
+		return cache.size();
+	}
+
+	public int getMaxSize() {
+		return cache.getMaxSize();
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	public long getEvictions() {
+		return cache.getEvictions();
+	}
+
+	public double getHitRate() {
+		final long h = hits.get(), total = h + misses.get();
+		return total == 0 ? 0 : (double) h / total;
+	}
+
+	@Override
+	public String toString() {
+		return "CompiledTemplateCache[size=" + size() + ", hits=" + getHits() + ", misses="
+				+ getMisses() + ", evictions=" + getEvictions() + "]";
+	}
+
+	private static class Entry {
+		final CompiledTemplate compiled;
+
+		/* modification time of the included file, 0 for template text */
+		final long stamp;
+
+		Entry(final CompiledTemplate compiled, final long stamp) {
+			this.compiled = compiled;
+			this.stamp = stamp;
+		}
+	}
+
+	private static class FileKey {
+		final String path;
+
+		/* compared by identity, the included template is compiled with it */
+		final ParserContext context;
+
+		FileKey(final String path, final ParserContext context) {
+			this.path = path;
+			this.context = context;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof FileKey)) {
+				return false;
+			}
+			final FileKey key = (FileKey) obj;
+			return path.equals(key.path) && context == key.context;
+		}
+
+		@Override
+		public int hashCode() {
+			return path.hashCode() * 31 + System.identityHashCode(context);
+		}
+	}
+}
@@ -18,19 +18,28 @@
 
 package net.simpleframework.lib.org.mvel2.templates;
 
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class SimpleTemplateRegistry implements TemplateRegistry {
-	private final Map<String, CompiledTemplate> NAMED_TEMPLATES = new HashMap<>();
+	private final Map<String, CompiledTemplate> NAMED_TEMPLATES = new ConcurrentHashMap<>();
 
 	@Override
 	public void addNamedTemplate(final String name, final CompiledTemplate template) {
 		NAMED_TEMPLATES.put(name, template);
 	}
 
+	/**
+	 * Registers a template by its text. The text is compiled through the
+	 * runtime template cache, so registering the same text under several
+	 * names, or in several registries, compiles it only once.
+	 */
+	public void compileNamedTemplate(final String name, final String template) {
+		NAMED_TEMPLATES.put(name, TemplateRuntime.compile(template));
+	}
+
 	@Override
 	public CompiledTemplate getNamedTemplate(final String name) {
 		final CompiledTemplate t = NAMED_TEMPLATES.get(name);
@@ -56,9 +56,29 @@ public class TemplateRuntime {
 		this.baseDir = baseDir;
 	}
 
+	private static volatile CompiledTemplateCache templateCache = new CompiledTemplateCache(1024);
+
+	public static CompiledTemplateCache getTemplateCache() {
+		return templateCache;
+	}
+
+	/**
+	 * Sets the cache used by the eval methods to look up compiled templates.
+	 * Passing null turns caching off, so every call compiles the template
+	 * again.
+	 */
+	public static void setTemplateCache(final CompiledTemplateCache cache) {
+		templateCache = cache;
+	}
+
+	static CompiledTemplate compile(final String template) {
+		final CompiledTemplateCache cache = templateCache;
+		return cache != null ? cache.get(template) : compileTemplate(template);
+	}
+
 	public static Object eval(final File file, final Object ctx, final VariableResolverFactory vars,
 			final TemplateRegistry registry) {
-		return execute(compileTemplate(TemplateTools.readInFile(file)), ctx, vars, registry);
+		return execute(compile(TemplateTools.readInFile(file)), ctx, vars, registry);
 	}
 
 	public static Object eval(final InputStream instream) {
@@ -80,102 +100,102 @@ public class TemplateRuntime {
 
 	public static Object eval(final InputStream instream, final Object ctx, final Map vars,
 			final TemplateRegistry registry) {
-		return execute(compileTemplate(TemplateTools.readStream(instream)), ctx,
+		return execute(compile(TemplateTools.readStream(instream)), ctx,
 				new MapVariableResolverFactory(vars), registry);
 	}
 
 	public static Object eval(final InputStream instream, final Object ctx,
 			final VariableResolverFactory vars, final TemplateRegistry registry) {
-		return execute(compileTemplate(TemplateTools.readStream(instream)), ctx, vars, registry);
+		return execute(compile(TemplateTools.readStream(instream)), ctx, vars, registry);
 	}
 
 	public static void eval(final InputStream instream, final Object ctx,
 			final VariableResolverFactory vars, final TemplateRegistry register,
 			final OutputStream stream) {
-		execute(compileTemplate(TemplateTools.readStream(instream)), ctx, vars, register, stream);
+		execute(compile(TemplateTools.readStream(instream)), ctx, vars, register, stream);
 	}
 
 	public static Object eval(final String template, final Map vars) {
-		return execute(compileTemplate(template), null, new MapVariableResolverFactory(vars));
+		return execute(compile(template), null, new MapVariableResolverFactory(vars));
 	}
 
 	public static void eval(final String template, final Map vars, final OutputStream stream) {
-		execute(compileTemplate(template), null, new MapVariableResolverFactory(vars), null, stream);
+		execute(compile(template), null, new MapVariableResolverFactory(vars), null, stream);
 	}
 
 	public static Object eval(final String template, final Object ctx) {
-		return execute(compileTemplate(template), ctx);
+		return execute(compile(template), ctx);
 	}
 
 	public static Object eval(final String template, final Object ctx, final Map vars) {
-		return execute(compileTemplate(template), ctx, new MapVariableResolverFactory(vars));
+		return execute(compile(template), ctx, new MapVariableResolverFactory(vars));
 	}
 
 	public static void eval(final String template, final Object ctx, final Map vars,
 			final OutputStream stream) {
-		execute(compileTemplate(template), ctx, new MapVariableResolverFactory(vars), null, stream);
+		execute(compile(template), ctx, new MapVariableResolverFactory(vars), null, stream);
 	}
 
 	public static Object eval(final String template, final Object ctx,
 			final VariableResolverFactory vars) {
-		return execute(compileTemplate(template), ctx, vars);
+		return execute(compile(template), ctx, vars);
 	}
 
 	public static void eval(final String template, final Object ctx,
 			final VariableResolverFactory vars, final TemplateOutputStream stream) {
-		execute(compileTemplate(template), ctx, vars, null, stream);
+		execute(compile(template), ctx, vars, null, stream);
 	}
 
 	public static void eval(final String template, final Object ctx,
 			final VariableResolverFactory vars, final OutputStream stream) {
-		execute(compileTemplate(template), ctx, vars, null, stream);
+		execute(compile(template), ctx, vars, null, stream);
 	}
 
 	public static Object eval(final String template, final Map vars,
 			final TemplateRegistry registry) {
-		return execute(compileTemplate(template), null, new MapVariableResolverFactory(vars),
+		return execute(compile(template), null, new MapVariableResolverFactory(vars),
 				registry);
 	}
 
 	public static void eval(final String template, final Map vars, final TemplateRegistry registry,
 			final TemplateOutputStream stream) {
-		execute(compileTemplate(template), null, new MapVariableResolverFactory(vars), registry,
+		execute(compile(template), null, new MapVariableResolverFactory(vars), registry,
 				stream);
 	}
 
 	public static void eval(final String template, final Map vars, final TemplateRegistry registry,
 			final OutputStream stream) {
-		execute(compileTemplate(template), null, new MapVariableResolverFactory(vars), registry,
+		execute(compile(template), null, new MapVariableResolverFactory(vars), registry,
 				stream);
 	}
 
 	public static Object eval(final String template, final Object ctx, final Map vars,
 			final TemplateRegistry registry) {
-		return execute(compileTemplate(template), ctx, new MapVariableResolverFactory(vars),
+		return execute(compile(template), ctx, new MapVariableResolverFactory(vars),
 				registry);
 	}
 
 	public static void eval(final String template, final Object ctx, final Map vars,
 			final TemplateRegistry registry, final OutputStream stream) {
-		execute(compileTemplate(template), ctx, new MapVariableResolverFactory(vars), registry,
+		execute(compile(template), ctx, new MapVariableResolverFactory(vars), registry,
 				stream);
 	}
 
 	public static Object eval(final String template, final Object ctx,
 			final VariableResolverFactory vars, final TemplateRegistry registry) {
-		return execute(compileTemplate(template), ctx, vars, registry);
+		return execute(compile(template), ctx, vars, registry);
 	}
 
 	public static void eval(final String template, final Object ctx,
 			final VariableResolverFactory vars, final TemplateRegistry registry,
 			final OutputStream stream) {
-		execute(compileTemplate(template), ctx, vars, registry, stream);
+		execute(compile(template), ctx, vars, registry, stream);
 	}
 
 	public static void eval(final String template, final Object ctx,
 			final VariableResolverFactory vars, final TemplateRegistry registry,
 			final TemplateOutputStream stream) {
-		execute(compileTemplate(template), ctx, vars, registry, stream);
+		execute(compile(template), ctx, vars, registry, stream);
 	}
 
 	public static Object execute(final CompiledTemplate compiled) {
@@ -32,6 +32,7 @@ import net.simpleframework.lib.org.mvel2.MVEL;
 import net.simpleframework.lib.org.mvel2.ParserContext;
 import net.simpleframework.lib.org.mvel2.integration.VariableResolverFactory;
 import net.simpleframework.lib.org.mvel2.templates.CompiledTemplate;
+import net.simpleframework.lib.org.mvel2.templates.CompiledTemplateCache;
 import net.simpleframework.lib.org.mvel2.templates.TemplateCompiler;
 import net.simpleframework.lib.org.mvel2.templates.TemplateError;
 import net.simpleframework.lib.org.mvel2.templates.TemplateRuntime;
@@ -41,8 +42,6 @@ public class CompiledIncludeNode extends Node {
 
 	private final Serializable cIncludeExpression;
 	private Serializable cPreExpression;
-	private long fileDateStamp;
-	private CompiledTemplate cFileCache;
 
 	private final ParserContext context;
 
@@ -86,11 +85,25 @@ public class CompiledIncludeNode extends Node {
 	private String readFile(final TemplateRuntime runtime, final String fileName, final Object ctx,
 			final VariableResolverFactory factory) {
 		final File file = new File(String.valueOf(runtime.getRelPath().peek()) + "/" + fileName);
-		if (fileDateStamp == 0 || fileDateStamp != file.lastModified()) {
-			fileDateStamp = file.lastModified();
-			cFileCache = TemplateCompiler.compileTemplate(readInFile(runtime, file), context);
+		final CompiledTemplateCache cache = TemplateRuntime.getTemplateCache();
+		CompiledTemplate compiled;
+		if (cache == null) {
+			compiled = TemplateCompiler.compileTemplate(readInFile(runtime, file), context);
+		} else {
+			String path;
+			try {
+				path = file.getCanonicalPath();
+			} catch (final IOException e) {
+				path = file.getAbsolutePath();
+			}
+			final long lastModified = file.lastModified();
+			compiled = cache.get(path, lastModified, context);
+			if (compiled == null) {
+				compiled = TemplateCompiler.compileTemplate(readInFile(runtime, file), context);
+				cache.put(path, lastModified, context, compiled);
+			}
 		}
-		return String.valueOf(TemplateRuntime.execute(cFileCache, ctx, factory));
+		return String.valueOf(TemplateRuntime.execute(compiled, ctx, factory));
 	}
 
 	@Override
@@ -0,0 +1,127 @@
+package net.simpleframework.lib.org.mvel2.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe map bounded to a maximum number of entries, backing the
+ * expression and template caches.
+ * <p>
+ * When the map grows past its maximum size, the least recently used quarter
+ * of the entries is evicted by a single thread while the others carry on.
+ * Values must not be null.
+ */
+public class BoundedCache<K, V> {
+	private final int maxSize;
+
+	private final ConcurrentHashMap<K, Entry<V>> map = new ConcurrentHashMap<>();
+
+	private final AtomicLong clock = new AtomicLong();
+
+	private final AtomicLong evictions = new AtomicLong();
+
+	private final ReentrantLock evictLock = new ReentrantLock();
+
+	public BoundedCache(final int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("maxSize: " + maxSize);
+		}
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Returns the value mapped to the key, or null if there is none.
+	 */
+	public V get(final K key) {
+		final Entry<V> entry = map.get(key);
+		if (entry == null) {
+			return null;
+		}
+		entry.access = clock.incrementAndGet();
+		return entry.value;
+	}
+
+	/**
+	 * Maps the key to the value unless it is mapped already, and returns the
+	 * value the key ends up mapped to.
+	 */
+	public V putIfAbsent(final K key, final V value) {
+		final Entry<V> entry2 = map.putIfAbsent(key, new Entry<>(value, clock.incrementAndGet()));
+		if (entry2 != null) {
+			entry2.access = clock.incrementAndGet();
+			return entry2.value;
+		}
+		if (map.size() > maxSize) {
+			evict();
+		}
+		return value;
+	}
+
+	public void put(final K key, final V value) {
+		map.put(key, new Entry<>(value, clock.incrementAndGet()));
+		if (map.size() > maxSize) {
+			evict();
+		}
+	}
+
+	private void evict() {
+		if (!evictLock.tryLock()) {
+			return;
+		}
+		try {
+			final int size = map.size();
+			if (size <= maxSize) {
+				return;
+			}
+			final List<Map.Entry<K, Entry<V>>> list = new ArrayList<>(map.entrySet());
+			Collections.sort(list, new Comparator<Map.Entry<K, Entry<V>>>() {
+				@Override
+				public int compare(final Map.Entry<K, Entry<V>> o1, final Map.Entry<K, Entry<V>> o2) {
+					return Long.compare(o1.getValue().access, o2.getValue().access);
+				}
+			});
+			final int n = Math.min(list.size(), size - maxSize + Math.max(maxSize / 4, 1));
+			for (int i = 0; i < n; i++) {
+				final Map.Entry<K, Entry<V>> e = list.get(i);
+				if (map.remove(e.getKey(), e.getValue())) {
+					evictions.incrementAndGet();
+				}
+			}
+		} finally {
+			evictLock.unlock();
+		}
+	}
+
+	public void clear() {
+		map.clear();
+	}
+
+	public int size() {
+		return map.size();
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	private static class Entry<V> {
+		final V value;
+
+		volatile long access;
+
+		Entry(final V value, final long access) {
+			this.value = value;
+			this.access = access;
+		}
+	}
+}